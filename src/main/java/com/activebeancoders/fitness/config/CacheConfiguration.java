@@ -1,15 +1,29 @@
 package com.activebeancoders.fitness.config;
 
+import com.activebeancoders.fitness.repository.UserRepository;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.CacheBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.guava.GuavaCache;
+import org.springframework.cache.guava.GuavaCacheManager;
 import org.springframework.context.annotation.*;
-import org.springframework.cache.support.NoOpCacheManager; 
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.util.SerializationUtils;
 
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("unused")
 @Configuration
@@ -17,19 +31,145 @@ import javax.inject.Inject;
 @AutoConfigureAfter(value = { MetricsConfiguration.class, DatabaseConfiguration.class })
 public class CacheConfiguration {
 
+    /**
+     * The caches of mutable entities, which are copied in and out of the cache so that callers never share them.
+     */
+    private static final Set<String> STORED_BY_VALUE = Collections.singleton(UserRepository.USERS_BY_LOGIN_CACHE);
+
     private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
 
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
     private CacheManager cacheManager;
 
     @PreDestroy
     public void destroy() {
         log.info("Closing Cache Manager");
+        metricRegistry.removeMatching((name, metric) -> name.startsWith("cache."));
     }
 
     @Bean
     public CacheManager cacheManager() {
-        log.debug("No cache");
-        cacheManager = new NoOpCacheManager();
+        log.debug("Starting Guava Cache Manager");
+        cacheManager = new MeteredGuavaCacheManager(jHipsterProperties.getCache(), metricRegistry);
         return cacheManager;
     }
+
+    /**
+     * Creates in-process caches, bounded in size and time to live, with the settings of
+     * {@code jhipster.cache.caches.<name>} falling back on those of {@code jhipster.cache}, and exports their
+     * statistics as {@code cache.<name>.*} gauges. The caches of {@link #STORED_BY_VALUE} hold serialized copies.
+     */
+    private static class MeteredGuavaCacheManager extends GuavaCacheManager {
+
+        private final JHipsterProperties.Cache cacheProperties;
+
+        private final MetricRegistry metricRegistry;
+
+        MeteredGuavaCacheManager(JHipsterProperties.Cache cacheProperties, MetricRegistry metricRegistry) {
+            this.cacheProperties = cacheProperties;
+            this.metricRegistry = metricRegistry;
+            setAllowNullValues(false);
+        }
+
+        @Override
+        protected org.springframework.cache.Cache createGuavaCache(String name) {
+            if (STORED_BY_VALUE.contains(name)) {
+                return new StoreByValueGuavaCache(name, createNativeGuavaCache(name), isAllowNullValues());
+            }
+            return super.createGuavaCache(name);
+        }
+
+        @Override
+        protected com.google.common.cache.Cache<Object, Object> createNativeGuavaCache(String name) {
+            JHipsterProperties.Cache.Spec spec = cacheProperties.getCaches().get(name);
+            int timeToLiveSeconds = spec != null && spec.getTimeToLiveSeconds() != null ?
+                spec.getTimeToLiveSeconds() : cacheProperties.getTimeToLiveSeconds();
+            long maximumSize = spec != null && spec.getMaximumSize() != null ?
+                spec.getMaximumSize() : cacheProperties.getMaximumSize();
+            com.google.common.cache.Cache<Object, Object> cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+            registerGauges(name, cache);
+            return cache;
+        }
+
+        private void registerGauges(String name, com.google.common.cache.Cache<Object, Object> cache) {
+            String prefix = MetricRegistry.name("cache", name);
+            register(MetricRegistry.name(prefix, "hits"), () -> cache.stats().hitCount());
+            register(MetricRegistry.name(prefix, "misses"), () -> cache.stats().missCount());
+            register(MetricRegistry.name(prefix, "evictions"), () -> cache.stats().evictionCount());
+            register(MetricRegistry.name(prefix, "hitRatio"), () -> cache.stats().hitRate());
+            register(MetricRegistry.name(prefix, "size"), cache::size);
+        }
+
+        private <T> void register(String name, Gauge<T> gauge) {
+            // a cache may be created again under the same name, when the cache builder changes
+            metricRegistry.remove(name);
+            metricRegistry.register(name, gauge);
+        }
+    }
+    /**
+     * A Guava cache that stores its values serialized, and deserializes a new copy on every read, so that a value
+     * changed by one caller is neither changed in the cache nor for the other callers. The values, or the contents
+     * of Optional values, must be Serializable.
+     */
+    private static class StoreByValueGuavaCache extends GuavaCache {
+
+        StoreByValueGuavaCache(String name, com.google.common.cache.Cache<Object, Object> cache,
+                               boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        protected Object toStoreValue(Object userValue) {
+            if (userValue instanceof Optional) {
+                return new SerializedValue(true, SerializationUtils.serialize(((Optional<?>) userValue).orElse(null)));
+            }
+            return userValue == null ? super.toStoreValue(null) :
+                new SerializedValue(false, SerializationUtils.serialize(userValue));
+        }
+
+        @Override
+        protected Object fromStoreValue(Object storeValue) {
+            Object value = super.fromStoreValue(storeValue);
+            if (!(value instanceof SerializedValue)) {
+                return value;
+            }
+            SerializedValue serializedValue = (SerializedValue) value;
+            Object copy = deserialize(serializedValue.bytes);
+            return serializedValue.optional ? Optional.ofNullable(copy) : copy;
+        }
+
+        /**
+         * Resolves classes with the class loader of the application, which is not the one of SerializationUtils
+         * when the application is restarted by the devtools.
+         */
+        private Object deserialize(byte[] bytes) {
+            try (ObjectInputStream in = new ConfigurableObjectInputStream(new ByteArrayInputStream(bytes),
+                getClass().getClassLoader())) {
+                return in.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException("Failed to deserialize a value of cache " + getName(), e);
+            }
+        }
+    }
+
+    private static final class SerializedValue {
+
+        private final boolean optional;
+
+        private final byte[] bytes;
+
+        SerializedValue(boolean optional, byte[] bytes) {
+            this.optional = optional;
+            this.bytes = bytes;
+        }
+    }
 }
@@ -3,6 +3,9 @@ package com.activebeancoders.fitness.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.web.cors.CorsConfiguration;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Properties specific to JHipster.
  *
@@ -31,6 +34,16 @@ public class JHipsterProperties {
 
     private final Ribbon ribbon = new Ribbon();
 
+    private final Loader loader = new Loader();
+
+    private final Audit audit = new Audit();
+
+    private final Search search = new Search();
+
+    private final Analytics analytics = new Analytics();
+
+    private final UserIndex userIndex = new UserIndex();
+
     public Async getAsync() {
         return async;
     }
@@ -67,6 +80,26 @@ public class JHipsterProperties {
         return ribbon;
     }
 
+    public Loader getLoader() {
+        return loader;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Analytics getAnalytics() {
+        return analytics;
+    }
+
+    public UserIndex getUserIndex() {
+        return userIndex;
+    }
+
     public static class Async {
 
         private int corePoolSize = 2;
@@ -126,6 +159,10 @@ public class JHipsterProperties {
 
         private int timeToLiveSeconds = 3600;
 
+        private long maximumSize = 10000;
+
+        private final Map<String, Spec> caches = new HashMap<>();
+
         public int getTimeToLiveSeconds() {
             return timeToLiveSeconds;
         }
@@ -133,6 +170,44 @@ public class JHipsterProperties {
         public void setTimeToLiveSeconds(int timeToLiveSeconds) {
             this.timeToLiveSeconds = timeToLiveSeconds;
         }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * @return the settings of individual caches, by cache name, overriding the default ones
+         */
+        public Map<String, Spec> getCaches() {
+            return caches;
+        }
+
+        public static class Spec {
+
+            private Integer timeToLiveSeconds;
+
+            private Long maximumSize;
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getMaximumSize() {
+                return maximumSize;
+            }
+
+            public void setMaximumSize(Long maximumSize) {
+                this.maximumSize = maximumSize;
+            }
+        }
     }
 
     public static class Mail {
@@ -171,6 +246,8 @@ public class JHipsterProperties {
                 private long tokenValidityInSeconds = 1800;
                 private long tokenValidityInSecondsForRememberMe = 2592000;
 
+                private long verifiedTokenCacheSize = 10000;
+
                 public String getSecret() {
                     return secret;
                 }
@@ -194,6 +271,14 @@ public class JHipsterProperties {
                 public void setTokenValidityInSecondsForRememberMe(long tokenValidityInSecondsForRememberMe) {
                     this.tokenValidityInSecondsForRememberMe = tokenValidityInSecondsForRememberMe;
                 }
+
+                public long getVerifiedTokenCacheSize() {
+                    return verifiedTokenCacheSize;
+                }
+
+                public void setVerifiedTokenCacheSize(long verifiedTokenCacheSize) {
+                    this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+                }
             }
         }
     }
@@ -482,4 +567,308 @@ public class JHipsterProperties {
             this.displayOnActiveProfiles = displayOnActiveProfiles;
         }
     }
+
+    public static class Loader {
+
+        private int batchSize = 1000;
+
+        private int queueCapacity = 4;
+
+        private int parallelism = 0;
+
+        private long seed = 0;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+    }
+
+    public static class Audit {
+
+        /**
+         * What to do with an audit event when the buffer is full.
+         */
+        public enum OverflowPolicy {
+            /** Drop the event at once. */
+            DROP,
+            /** Wait up to blockTimeoutMillis for room, then drop the event. */
+            BLOCK
+        }
+
+        private int bufferSize = 10000;
+
+        private int batchSize = 500;
+
+        private long flushIntervalMillis = 1000;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+        private long blockTimeoutMillis = 100;
+
+        private int retentionDays = 365;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public long getBlockTimeoutMillis() {
+            return blockTimeoutMillis;
+        }
+
+        public void setBlockTimeoutMillis(long blockTimeoutMillis) {
+            this.blockTimeoutMillis = blockTimeoutMillis;
+        }
+
+        public int getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(int retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+    }
+
+    public static class Search {
+
+        /**
+         * How the indexer learns about changes to actions.
+         */
+        public enum IndexerMode {
+            /** Index the actions that the services submit when they create, update or delete them. */
+            SERVICES,
+            /** Also poll for the actions written since the last poll, by their last modification date. */
+            POLLING,
+            /** Tail the oplog of the replica set, falling back on polling if the database has none. */
+            OPLOG
+        }
+
+        private String indexPath = "";
+
+        private long refreshIntervalMillis = 1000;
+
+        private long commitIntervalMillis = 60000;
+
+        private double ramBufferSizeMb = 64;
+
+        private IndexerMode indexerMode = IndexerMode.OPLOG;
+
+        private long pollIntervalMillis = 1000;
+
+        private long pollLookBackMillis = 10000;
+
+        private int batchSize = 1000;
+
+        private int queueCapacity = 10000;
+
+        private int maxRetries = 3;
+
+        private long retryBackoffMillis = 100;
+
+        private int reindexThreads = 4;
+
+        /**
+         * @return the directory of the index, or an empty string to keep the index in memory
+         */
+        public String getIndexPath() {
+            return indexPath;
+        }
+
+        public void setIndexPath(String indexPath) {
+            this.indexPath = indexPath;
+        }
+
+        public long getRefreshIntervalMillis() {
+            return refreshIntervalMillis;
+        }
+
+        public void setRefreshIntervalMillis(long refreshIntervalMillis) {
+            this.refreshIntervalMillis = refreshIntervalMillis;
+        }
+
+        public long getCommitIntervalMillis() {
+            return commitIntervalMillis;
+        }
+
+        public void setCommitIntervalMillis(long commitIntervalMillis) {
+            this.commitIntervalMillis = commitIntervalMillis;
+        }
+
+        public double getRamBufferSizeMb() {
+            return ramBufferSizeMb;
+        }
+
+        public void setRamBufferSizeMb(double ramBufferSizeMb) {
+            this.ramBufferSizeMb = ramBufferSizeMb;
+        }
+
+        public IndexerMode getIndexerMode() {
+            return indexerMode;
+        }
+
+        public void setIndexerMode(IndexerMode indexerMode) {
+            this.indexerMode = indexerMode;
+        }
+
+        public long getPollIntervalMillis() {
+            return pollIntervalMillis;
+        }
+
+        public void setPollIntervalMillis(long pollIntervalMillis) {
+            this.pollIntervalMillis = pollIntervalMillis;
+        }
+
+        /**
+         * @return how far before the newest modification date seen each poll looks again, to catch the writes that
+         * were committed late or stamped by a slower clock
+         */
+        public long getPollLookBackMillis() {
+            return pollLookBackMillis;
+        }
+
+        public void setPollLookBackMillis(long pollLookBackMillis) {
+            this.pollLookBackMillis = pollLookBackMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public long getRetryBackoffMillis() {
+            return retryBackoffMillis;
+        }
+
+        public void setRetryBackoffMillis(long retryBackoffMillis) {
+            this.retryBackoffMillis = retryBackoffMillis;
+        }
+
+        public int getReindexThreads() {
+            return reindexThreads;
+        }
+
+        public void setReindexThreads(int reindexThreads) {
+            this.reindexThreads = reindexThreads;
+        }
+    }
+
+    public static class Analytics {
+
+        private boolean enabled = false;
+
+        private long refreshIntervalMillis = 10000;
+
+        private long rebuildIntervalMillis = 3600000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getRefreshIntervalMillis() {
+            return refreshIntervalMillis;
+        }
+
+        public void setRefreshIntervalMillis(long refreshIntervalMillis) {
+            this.refreshIntervalMillis = refreshIntervalMillis;
+        }
+
+        public long getRebuildIntervalMillis() {
+            return rebuildIntervalMillis;
+        }
+
+        public void setRebuildIntervalMillis(long rebuildIntervalMillis) {
+            this.rebuildIntervalMillis = rebuildIntervalMillis;
+        }
+    }
+
+    public static class UserIndex {
+
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
 }
@@ -1,6 +1,11 @@
 package com.activebeancoders.fitness.config;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.ZonedDateTimeSerializer;
 
@@ -10,6 +15,8 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,6 +37,10 @@ public class JacksonConfiguration {
             .append(DateTimeFormatter.ISO_TIME)
             .toFormatter();
 
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+
     @Autowired
     private Jackson2ObjectMapperBuilder builder;
 
@@ -46,4 +57,47 @@ public class JacksonConfiguration {
         return this.builder.createXmlMapper(false).build();
     }
 
+    @Bean
+    public AbstractJackson2HttpMessageConverter smileHttpMessageConverter() {
+        return new BinaryJackson2HttpMessageConverter(binaryObjectMapper(new SmileFactory()),
+            MediaType.parseMediaType(APPLICATION_SMILE_VALUE));
+    }
+
+    @Bean
+    public AbstractJackson2HttpMessageConverter cborHttpMessageConverter() {
+        return new BinaryJackson2HttpMessageConverter(binaryObjectMapper(new CBORFactory()),
+            MediaType.parseMediaType(APPLICATION_CBOR_VALUE));
+    }
+
+    /**
+     * Creates a mapper configured like the JSON one, but for a binary format, in which dates are written and read
+     * as milliseconds since the epoch rather than as ISO strings.
+     *
+     * @param factory the factory of the binary format, such as a SmileFactory or a CBORFactory
+     */
+    public ObjectMapper binaryObjectMapper(JsonFactory factory) {
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+        this.builder.configure(objectMapper);
+        return objectMapper
+            .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+            .disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS);
+    }
+
+    /**
+     * Reads and writes a binary format with Jackson. It only writes responses whose media type was asked for
+     * explicitly, so that JSON stays the default for requests that accept any media type.
+     */
+    private static class BinaryJackson2HttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+        BinaryJackson2HttpMessageConverter(ObjectMapper objectMapper, MediaType mediaType) {
+            super(objectMapper, mediaType);
+        }
+
+        @Override
+        protected boolean canWrite(MediaType mediaType) {
+            return mediaType != null && !mediaType.isWildcardType() && !mediaType.isWildcardSubtype() &&
+                super.canWrite(mediaType);
+        }
+    }
 }
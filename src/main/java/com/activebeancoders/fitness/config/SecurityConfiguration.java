@@ -2,9 +2,14 @@ package com.activebeancoders.fitness.config;
 
 import com.activebeancoders.fitness.security.*;
 import com.activebeancoders.fitness.security.jwt.*;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.access.vote.AuthenticatedVoter;
+import org.springframework.security.access.vote.RoleVoter;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -17,8 +22,12 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.data.repository.query.SecurityEvaluationContextExtension;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
+import org.springframework.security.web.context.NullSecurityContextRepository;
+import org.springframework.security.web.context.request.async.WebAsyncManagerIntegrationFilter;
 
 import javax.inject.Inject;
+import java.util.Arrays;
 
 @Configuration
 @EnableWebSecurity
@@ -34,6 +43,9 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     @Inject
     private TokenProvider tokenProvider;
 
+    @Inject
+    private VerifiedTokenCache verifiedTokenCache;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -72,26 +84,103 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
         .and()
             .sessionManagement()
             .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
-        .and()
-            .authorizeRequests()
-            .antMatchers("/api/register").permitAll()
-            .antMatchers("/api/activate").permitAll()
-            .antMatchers("/api/authenticate").permitAll()
-            .antMatchers("/api/account/reset_password/init").permitAll()
-            .antMatchers("/api/account/reset_password/finish").permitAll()
-            .antMatchers("/api/profile-info").permitAll()
-            .antMatchers("/api/**").authenticated()
-            .antMatchers("/management/**").hasAuthority(AuthoritiesConstants.ADMIN)
-            .antMatchers("/v2/api-docs/**").permitAll()
-            .antMatchers("/swagger-resources/configuration/ui").permitAll()
-            .antMatchers("/swagger-ui/index.html").hasAuthority(AuthoritiesConstants.ADMIN)
         .and()
             .apply(securityConfigurerAdapter());
-
+        http.addFilter(routeSecurityInterceptor(authenticationManager(), http.getSharedObject(ApplicationContext.class)));
     }
 
     private JWTConfigurer securityConfigurerAdapter() {
-        return new JWTConfigurer(tokenProvider);
+        return new JWTConfigurer(tokenProvider, verifiedTokenCache);
+    }
+
+    /**
+     * The authorization rules of all the URLs, shared by both filter chains.
+     */
+    static RouteSecurityMetadataSource routeSecurityMetadataSource() {
+        return RouteSecurityMetadataSource.builder()
+            .permitAll("/api/register")
+            .permitAll("/api/activate")
+            .permitAll("/api/authenticate")
+            .permitAll("/api/account/reset_password/init")
+            .permitAll("/api/account/reset_password/finish")
+            .permitAll("/api/profile-info")
+            .authenticated("/api/**")
+            .hasAuthority(AuthoritiesConstants.ADMIN, "/management/**")
+            .permitAll("/v2/api-docs/**")
+            .permitAll("/swagger-resources/configuration/ui")
+            .hasAuthority(AuthoritiesConstants.ADMIN, "/swagger-ui/index.html")
+            .build();
+    }
+
+    /**
+     * Authorize requests with the compiled {@link #routeSecurityMetadataSource() rules}, in place of the ant
+     * matchers of {@code authorizeRequests()}.
+     */
+    static FilterSecurityInterceptor routeSecurityInterceptor(AuthenticationManager authenticationManager,
+                                                             ApplicationContext applicationContext) throws Exception {
+        FilterSecurityInterceptor interceptor = new FilterSecurityInterceptor();
+        interceptor.setSecurityMetadataSource(routeSecurityMetadataSource());
+        interceptor.setAccessDecisionManager(new AffirmativeBased(Arrays.asList(new RoleVoter(), new AuthenticatedVoter())));
+        interceptor.setAuthenticationManager(authenticationManager);
+        interceptor.setApplicationEventPublisher(applicationContext);
+        interceptor.afterPropertiesSet();
+        return interceptor;
+    }
+
+    /**
+     * Filter chain of the bearer-token API under {@code /api}, checked before the main one.
+     * <p>
+     * It only has the filters such an API needs: the security context is never stored, there is no login, logout,
+     * session management or request cache, and only the cache control and content type options headers are written.
+     * The servlet API integration is kept, so that {@code getRemoteUser()} and {@code isUserInRole()} see the user of
+     * the token.
+     * </p>
+     */
+    @Configuration
+    @Order(1)
+    public static class ApiSecurityConfiguration extends WebSecurityConfigurerAdapter {
+
+        @Inject
+        private Http401UnauthorizedEntryPoint authenticationEntryPoint;
+
+        @Inject
+        private TokenProvider tokenProvider;
+
+        @Inject
+        private VerifiedTokenCache verifiedTokenCache;
+
+        public ApiSecurityConfiguration() {
+            super(true);
+        }
+
+        @Override
+        protected void configure(HttpSecurity http) throws Exception {
+            http
+                .requestMatcher(request -> {
+                    String path = request.getServletPath();
+                    return path.equals("/api") || path.startsWith("/api/");
+                })
+                .addFilter(new WebAsyncManagerIntegrationFilter())
+                .securityContext()
+                .securityContextRepository(new NullSecurityContextRepository())
+            .and()
+                .exceptionHandling()
+                .authenticationEntryPoint(authenticationEntryPoint)
+            .and()
+                .headers()
+                .defaultsDisabled()
+                .cacheControl()
+            .and()
+                .contentTypeOptions()
+            .and()
+            .and()
+                .anonymous()
+            .and()
+                .servletApi()
+            .and()
+                .apply(new JWTConfigurer(tokenProvider, verifiedTokenCache));
+            http.addFilter(routeSecurityInterceptor(authenticationManager(), http.getSharedObject(ApplicationContext.class)));
+        }
     }
 
     @Bean
@@ -0,0 +1,209 @@
+package com.activebeancoders.fitness.config.audit;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.PersistentAuditEvent;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes audit events to the database in batches, from a background thread, so that authenticating never waits
+ * for the database.
+ * <p>
+ * Events wait in a bounded buffer, and are written with one insert per batch whenever a batch is full or the flush
+ * interval has elapsed. When the buffer is full, events are dropped, at once or after a short wait depending on the
+ * {@link JHipsterProperties.Audit.OverflowPolicy overflow policy}. The buffer depth and the number of dropped and
+ * failed events are published in the metrics registry, under
+ * {@code com.activebeancoders.fitness.config.audit.AsyncAuditEventSink}.
+ * </p>
+ */
+@Component
+public class AsyncAuditEventSink {
+
+    private final Logger log = LoggerFactory.getLogger(AsyncAuditEventSink.class);
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private BlockingQueue<PersistentAuditEvent> buffer;
+
+    /**
+     * Events submitted but not written, or given up on, yet: those in the buffer and those of the batch in flight.
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private Counter droppedCounter;
+
+    private Counter failedCounter;
+
+    private Thread flusherThread;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        JHipsterProperties.Audit auditProperties = jHipsterProperties.getAudit();
+        if (auditProperties.getBufferSize() < 1 || auditProperties.getBatchSize() < 1) {
+            throw new IllegalArgumentException("Audit buffer size and batch size must be positive.");
+        }
+        buffer = new ArrayBlockingQueue<>(auditProperties.getBufferSize());
+        droppedCounter = metricRegistry.counter(MetricRegistry.name(AsyncAuditEventSink.class, "dropped"));
+        failedCounter = metricRegistry.counter(MetricRegistry.name(AsyncAuditEventSink.class, "failed"));
+        metricRegistry.register(MetricRegistry.name(AsyncAuditEventSink.class, "queueDepth"),
+            (Gauge<Integer>) buffer::size);
+        running = true;
+        flusherThread = new Thread(this::flushContinuously, "audit-event-flusher");
+        flusherThread.setDaemon(true);
+        flusherThread.start();
+    }
+
+    /**
+     * Stop the flusher, and write the events that are still buffered.
+     */
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusherThread.interrupt();
+        flusherThread.join(TimeUnit.SECONDS.toMillis(10));
+        writeBuffered();
+        metricRegistry.removeMatching((name, metric) -> name.startsWith(AsyncAuditEventSink.class.getName() + "."));
+    }
+
+    /**
+     * Buffer an event to be written in the background.
+     *
+     * @param event the event to write
+     * @return false if the buffer was full and the event was dropped
+     */
+    public boolean submit(PersistentAuditEvent event) {
+        pendingCount.incrementAndGet();
+        boolean accepted;
+        if (jHipsterProperties.getAudit().getOverflowPolicy() == JHipsterProperties.Audit.OverflowPolicy.BLOCK) {
+            try {
+                accepted = buffer.offer(event, jHipsterProperties.getAudit().getBlockTimeoutMillis(),
+                    TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = buffer.offer(event);
+        }
+        if (!accepted) {
+            pendingCount.decrementAndGet();
+            droppedCounter.inc();
+            // one warning per thousand drops, so that a storm of events does not turn into a storm of logs
+            if (droppedCounter.getCount() % 1000 == 1) {
+                log.warn("Audit event buffer is full, dropped {} events so far", droppedCounter.getCount());
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Wait until the events submitted so far have been written, or given up on.
+     *
+     * @param timeout the longest time to wait
+     * @param unit the unit of the timeout
+     * @return false if some events were still pending after the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pendingCount.get() > 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of events waiting in the buffer
+     */
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    /**
+     * @return the number of events dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        return droppedCounter.getCount();
+    }
+
+    private void flushContinuously() {
+        JHipsterProperties.Audit auditProperties = jHipsterProperties.getAudit();
+        List<PersistentAuditEvent> batch = new ArrayList<>(auditProperties.getBatchSize());
+        while (running) {
+            try {
+                PersistentAuditEvent first = buffer.poll(auditProperties.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // give a burst of events the flush interval to fill up the batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(auditProperties.getFlushIntervalMillis());
+                while (batch.size() < auditProperties.getBatchSize()) {
+                    buffer.drainTo(batch, auditProperties.getBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= auditProperties.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    PersistentAuditEvent next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // stopping: the batch is written below, and the buffer by destroy()
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBuffered() {
+        List<PersistentAuditEvent> batch = new ArrayList<>(jHipsterProperties.getAudit().getBatchSize());
+        while (buffer.drainTo(batch, jHipsterProperties.getAudit().getBatchSize()) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<PersistentAuditEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.insert(batch, PersistentAuditEvent.class);
+        } catch (RuntimeException e) {
+            failedCounter.inc(batch.size());
+            log.error("Failed to write a batch of {} audit events", batch.size(), e);
+        } finally {
+            pendingCount.addAndGet(-batch.size());
+        }
+    }
+}
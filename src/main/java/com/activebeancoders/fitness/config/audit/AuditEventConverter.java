@@ -49,14 +49,7 @@ public class AuditEventConverter {
      * @return a map of String, Object
      */
     public Map<String, Object> convertDataToObjects(Map<String, String> data) {
-        Map<String, Object> results = new HashMap<>();
-
-        if (data != null) {
-            for (String key : data.keySet()) {
-                results.put(key, data.get(key));
-            }
-        }
-        return results;
+        return data == null ? new HashMap<>() : new HashMap<>(data);
     }
 
     /**
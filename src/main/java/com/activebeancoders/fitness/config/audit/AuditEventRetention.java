@@ -0,0 +1,83 @@
+package com.activebeancoders.fitness.config.audit;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.PersistentAuditEvent;
+import com.mongodb.BasicDBObject;
+import com.mongodb.CommandResult;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the index on the date of audit events, which serves the queries by date range, and which is also a TTL
+ * index that makes Mongo delete the events older than the configured retention.
+ * <p>
+ * The index is kept in step with {@code jhipster.audit.retentionDays} on every start: its expiry is changed in
+ * place when the retention changes, and it becomes a plain index when the retention is 0.
+ * </p>
+ */
+@Component
+public class AuditEventRetention {
+
+    static final String INDEX_NAME = "auditEventDate_1";
+
+    private static final String EXPIRE_AFTER_SECONDS = "expireAfterSeconds";
+
+    private static final DBObject INDEX_KEYS = new BasicDBObject("auditEventDate", 1);
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventRetention.class);
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @PostConstruct
+    public void ensureIndex() {
+        int retentionDays = jHipsterProperties.getAudit().getRetentionDays();
+        String collectionName = mongoTemplate.getCollectionName(PersistentAuditEvent.class);
+        DBCollection collection = mongoTemplate.getCollection(collectionName);
+        DBObject existing = collection.getIndexInfo().stream()
+            .filter(index -> INDEX_NAME.equals(index.get("name")))
+            .findFirst()
+            .orElse(null);
+        Number currentExpiry = existing == null ? null : (Number) existing.get(EXPIRE_AFTER_SECONDS);
+
+        if (retentionDays <= 0) {
+            if (existing != null && currentExpiry == null) {
+                return;
+            }
+            if (existing != null) {
+                log.info("Removing the expiry of audit events");
+                collection.dropIndex(INDEX_NAME);
+            }
+            collection.createIndex(INDEX_KEYS, new BasicDBObject("name", INDEX_NAME).append("background", true));
+            return;
+        }
+
+        long expireAfterSeconds = TimeUnit.DAYS.toSeconds(retentionDays);
+        if (existing == null || currentExpiry == null) {
+            if (existing != null) {
+                collection.dropIndex(INDEX_NAME);
+            }
+            log.info("Expiring audit events after {} days", retentionDays);
+            collection.createIndex(INDEX_KEYS, new BasicDBObject("name", INDEX_NAME).append("background", true)
+                .append(EXPIRE_AFTER_SECONDS, expireAfterSeconds));
+        } else if (currentExpiry.longValue() != expireAfterSeconds) {
+            log.info("Changing the expiry of audit events from {} to {} days",
+                TimeUnit.SECONDS.toDays(currentExpiry.longValue()), retentionDays);
+            CommandResult result = mongoTemplate.getDb().command(new BasicDBObject("collMod", collectionName)
+                .append("index", new BasicDBObject("keyPattern", INDEX_KEYS)
+                    .append(EXPIRE_AFTER_SECONDS, expireAfterSeconds)));
+            result.throwOnError();
+        }
+    }
+}
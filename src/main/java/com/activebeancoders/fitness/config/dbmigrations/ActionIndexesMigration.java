@@ -0,0 +1,59 @@
+package com.activebeancoders.fitness.config.dbmigrations;
+
+import com.github.mongobee.changeset.ChangeLog;
+import com.github.mongobee.changeset.ChangeSet;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+
+/**
+ * Creates the indexes of the action and action rollup collections
+ */
+@ChangeLog(order = "002")
+public class ActionIndexesMigration {
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addUserStartIndex")
+    public void addUserStartIndex(DB db) {
+        DBCollection actionCollection = db.getCollection("action");
+        // Serves the keyset pagination of a user's actions, most recent first
+        actionCollection.createIndex(
+            new BasicDBObject("user_id", 1).append("start", -1).append("_id", -1),
+            new BasicDBObject("name", "user_id_1_start_-1__id_-1").append("background", true));
+    }
+
+    @ChangeSet(order = "02", author = "initiator", id = "02-addTypeStartIndex")
+    public void addTypeStartIndex(DB db) {
+        DBCollection actionCollection = db.getCollection("action");
+        // Serves the listing of actions of one type over a time range
+        actionCollection.createIndex(
+            new BasicDBObject("type", 1).append("start", -1),
+            new BasicDBObject("name", "type_1_start_-1").append("background", true));
+    }
+
+    @ChangeSet(order = "03", author = "initiator", id = "03-addStartIndex")
+    public void addStartIndex(DB db) {
+        DBCollection actionCollection = db.getCollection("action");
+        // Serves the time range queries across all users, such as rollups and exports
+        actionCollection.createIndex(
+            new BasicDBObject("start", -1),
+            new BasicDBObject("name", "start_-1").append("background", true));
+    }
+
+    @ChangeSet(order = "04", author = "initiator", id = "04-addRollupUserDayIndex")
+    public void addRollupUserDayIndex(DB db) {
+        DBCollection actionRollupCollection = db.getCollection("action_rollup");
+        // Serves the daily rollups of a user over a range of days; a rollup rebuild recreates it
+        actionRollupCollection.createIndex(
+            new BasicDBObject("user_id", 1).append("day", 1),
+            new BasicDBObject("name", "user_id_1_day_1"));
+    }
+
+    @ChangeSet(order = "05", author = "initiator", id = "05-addLastModifiedDateIndex")
+    public void addLastModifiedDateIndex(DB db) {
+        DBCollection actionCollection = db.getCollection("action");
+        // Serves the search indexer polling for the actions modified since its last poll
+        actionCollection.createIndex(
+            new BasicDBObject("last_modified_date", 1),
+            new BasicDBObject("name", "last_modified_date_1").append("background", true));
+    }
+}
@@ -0,0 +1,24 @@
+package com.activebeancoders.fitness.config.dbmigrations;
+
+import com.github.mongobee.changeset.ChangeLog;
+import com.github.mongobee.changeset.ChangeSet;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+
+/**
+ * Creates the indexes of the audit event collection; its expiry index depends on the configured retention and is
+ * maintained by AuditEventRetention instead
+ */
+@ChangeLog(order = "003")
+public class AuditIndexesMigration {
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addPrincipalDateIndex")
+    public void addPrincipalDateIndex(DB db) {
+        DBCollection auditEventCollection = db.getCollection("jhi_persistent_audit_event");
+        // Serves the audit events of a principal, optionally after a date
+        auditEventCollection.createIndex(
+            new BasicDBObject("principal", 1).append("auditEventDate", -1),
+            new BasicDBObject("name", "principal_1_auditEventDate_-1").append("background", true));
+    }
+}
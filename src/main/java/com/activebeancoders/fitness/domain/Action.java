@@ -1,6 +1,8 @@
 package com.activebeancoders.fitness.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -45,6 +47,11 @@ public class Action implements Serializable {
     @Field("type")
     private ActionType type;
 
+    @LastModifiedDate
+    @Field("last_modified_date")
+    @JsonIgnore
+    private ZonedDateTime lastModifiedDate;
+
     public String getId() {
         return id;
     }
@@ -109,6 +116,14 @@ public class Action implements Serializable {
         this.type = type;
     }
 
+    public ZonedDateTime getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(ZonedDateTime lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
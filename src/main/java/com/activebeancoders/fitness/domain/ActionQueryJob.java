@@ -0,0 +1,227 @@
+package com.activebeancoders.fitness.domain;
+
+import com.activebeancoders.fitness.domain.enumeration.ActionQueryJobStatus;
+import com.activebeancoders.fitness.domain.enumeration.ActionQueryOperation;
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A deletion or an update of all the actions that match a query, run in chunks of actions ordered by ID.
+ * <p>
+ * The query matches the actions of a user, of a type, and that start within a time period, from inclusive to
+ * exclusive; fields left empty match any action. An update sets the non empty "new" fields on every matching
+ * action. The job remembers the ID of the last action of the last chunk it processed, so that it resumes after it.
+ * </p>
+ */
+@Document(collection = "action_query_job")
+public class ActionQueryJob extends AbstractAuditingEntity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Field("operation")
+    private ActionQueryOperation operation;
+
+    @Field("user_id")
+    private Long userId;
+
+    @Field("type")
+    private ActionType type;
+
+    @Field("from")
+    private ZonedDateTime from;
+
+    @Field("to")
+    private ZonedDateTime to;
+
+    @Field("new_type")
+    private ActionType newType;
+
+    @Field("new_unit")
+    private String newUnit;
+
+    @Field("new_comment")
+    private String newComment;
+
+    @Field("status")
+    private ActionQueryJobStatus status;
+
+    @Field("total")
+    private long total;
+
+    @Field("affected")
+    private long affected;
+
+    @JsonIgnore
+    @Field("last_id")
+    private String lastId;
+
+    @Field("error_message")
+    private String errorMessage;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public ActionQueryOperation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(ActionQueryOperation operation) {
+        this.operation = operation;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public ActionType getType() {
+        return type;
+    }
+
+    public void setType(ActionType type) {
+        this.type = type;
+    }
+
+    public ZonedDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(ZonedDateTime from) {
+        this.from = from;
+    }
+
+    public ZonedDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(ZonedDateTime to) {
+        this.to = to;
+    }
+
+    public ActionType getNewType() {
+        return newType;
+    }
+
+    public void setNewType(ActionType newType) {
+        this.newType = newType;
+    }
+
+    public String getNewUnit() {
+        return newUnit;
+    }
+
+    public void setNewUnit(String newUnit) {
+        this.newUnit = newUnit;
+    }
+
+    public String getNewComment() {
+        return newComment;
+    }
+
+    public void setNewComment(String newComment) {
+        this.newComment = newComment;
+    }
+
+    public ActionQueryJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ActionQueryJobStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the number of actions that matched the query when the job was created
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * @return the number of actions deleted or updated so far
+     */
+    public long getAffected() {
+        return affected;
+    }
+
+    public void setAffected(long affected) {
+        this.affected = affected;
+    }
+
+    public String getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(String lastId) {
+        this.lastId = lastId;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ActionQueryJob actionQueryJob = (ActionQueryJob) o;
+        if (actionQueryJob.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, actionQueryJob.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ActionQueryJob{" +
+            "id=" + id +
+            ", operation='" + operation + "'" +
+            ", userId='" + userId + "'" +
+            ", type='" + type + "'" +
+            ", from='" + from + "'" +
+            ", to='" + to + "'" +
+            ", newType='" + newType + "'" +
+            ", newUnit='" + newUnit + "'" +
+            ", newComment='" + newComment + "'" +
+            ", status='" + status + "'" +
+            ", total='" + total + "'" +
+            ", affected='" + affected + "'" +
+            ", errorMessage='" + errorMessage + "'" +
+            '}';
+    }
+}
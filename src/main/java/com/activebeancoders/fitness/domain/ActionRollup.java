@@ -0,0 +1,136 @@
+package com.activebeancoders.fitness.domain;
+
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * The totals of the actions of one user and one type over one day, in UTC.
+ * <p>
+ * The id is derived from the user, type and day, so that a rollup can be created or updated by a single upsert.
+ * </p>
+ */
+@Document(collection = "action_rollup")
+public class ActionRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Field("user_id")
+    private Long userId;
+
+    @Field("type")
+    private ActionType type;
+
+    @Field("day")
+    private LocalDate day;
+
+    @Field("count")
+    private long count;
+
+    @Field("distance")
+    private double distance;
+
+    @Field("duration")
+    private long duration;
+
+    public static String idOf(Long userId, ActionType type, LocalDate day) {
+        return userId + ":" + type + ":" + day;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public ActionType getType() {
+        return type;
+    }
+
+    public void setType(ActionType type) {
+        this.type = type;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public void setDistance(double distance) {
+        this.distance = distance;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ActionRollup actionRollup = (ActionRollup) o;
+        if (actionRollup.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, actionRollup.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ActionRollup{" +
+            "id=" + id +
+            ", userId='" + userId + "'" +
+            ", type='" + type + "'" +
+            ", day='" + day + "'" +
+            ", count='" + count + "'" +
+            ", distance='" + distance + "'" +
+            ", duration='" + duration + "'" +
+            '}';
+    }
+}
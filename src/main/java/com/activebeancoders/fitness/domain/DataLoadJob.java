@@ -0,0 +1,164 @@
+package com.activebeancoders.fitness.domain;
+
+import com.activebeancoders.fitness.domain.enumeration.DataLoadJobStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import javax.validation.constraints.Min;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A random data load, split into partitions that each remember the next record index to generate.
+ * <p>
+ * The records of partition {@code p} are the indexes from {@link #getPartitionStart(int)} (inclusive) to
+ * {@link #getPartitionEnd(int)} (exclusive), and its checkpoint only moves forward once a batch has been
+ * acknowledged by the database, so a stopped job can resume from its checkpoints.
+ * </p>
+ */
+@Document(collection = "data_load_job")
+public class DataLoadJob extends AbstractAuditingEntity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Min(value = 1)
+    @Field("count")
+    private long count;
+
+    @Field("seed")
+    private long seed;
+
+    @Field("batch_size")
+    private int batchSize;
+
+    @Field("checkpoints")
+    private List<Long> checkpoints = new ArrayList<>();
+
+    @Field("status")
+    private DataLoadJobStatus status;
+
+    @Field("error_message")
+    private String errorMessage;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public List<Long> getCheckpoints() {
+        return checkpoints;
+    }
+
+    public void setCheckpoints(List<Long> checkpoints) {
+        this.checkpoints = checkpoints;
+    }
+
+    public DataLoadJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(DataLoadJobStatus status) {
+        this.status = status;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    @JsonIgnore
+    public int getPartitionCount() {
+        return checkpoints.size();
+    }
+
+    @JsonIgnore
+    public long getPartitionStart(int partition) {
+        return count * partition / checkpoints.size();
+    }
+
+    @JsonIgnore
+    public long getPartitionEnd(int partition) {
+        return count * (partition + 1) / checkpoints.size();
+    }
+
+    /**
+     * @return the number of records committed so far, according to the checkpoints
+     */
+    public long getLoadedCount() {
+        long loaded = 0;
+        for (int partition = 0; partition < checkpoints.size(); partition++) {
+            loaded += checkpoints.get(partition) - getPartitionStart(partition);
+        }
+        return loaded;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DataLoadJob dataLoadJob = (DataLoadJob) o;
+        if (dataLoadJob.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, dataLoadJob.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "DataLoadJob{" +
+            "id=" + id +
+            ", count='" + count + "'" +
+            ", seed='" + seed + "'" +
+            ", batchSize='" + batchSize + "'" +
+            ", checkpoints='" + checkpoints + "'" +
+            ", status='" + status + "'" +
+            ", errorMessage='" + errorMessage + "'" +
+            '}';
+    }
+}
@@ -0,0 +1,8 @@
+package com.activebeancoders.fitness.domain.enumeration;
+
+/**
+ * The ActionQueryJobStatus enumeration.
+ */
+public enum ActionQueryJobStatus {
+    RUNNING,COMPLETED,FAILED
+}
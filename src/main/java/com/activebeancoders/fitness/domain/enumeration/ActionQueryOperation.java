@@ -0,0 +1,8 @@
+package com.activebeancoders.fitness.domain.enumeration;
+
+/**
+ * The ActionQueryOperation enumeration.
+ */
+public enum ActionQueryOperation {
+    DELETE,UPDATE
+}
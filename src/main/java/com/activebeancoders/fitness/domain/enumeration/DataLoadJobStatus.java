@@ -0,0 +1,8 @@
+package com.activebeancoders.fitness.domain.enumeration;
+
+/**
+ * The DataLoadJobStatus enumeration.
+ */
+public enum DataLoadJobStatus {
+    RUNNING,PAUSED,CANCELLED,COMPLETED,FAILED
+}
@@ -0,0 +1,122 @@
+package com.activebeancoders.fitness.repository;
+
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Filters of a search of actions. Empty filters match any action; ranges include both of their bounds, except for
+ * the start, which ranges from {@code from} inclusive to {@code to} exclusive.
+ *
+ * @see ActionRepositoryCustom#search(ActionCriteria, org.springframework.data.domain.Pageable)
+ */
+public class ActionCriteria {
+
+    private Long userId;
+
+    private ActionType type;
+
+    private String unit;
+
+    private Double minDistance;
+
+    private Double maxDistance;
+
+    private Integer minDuration;
+
+    private Integer maxDuration;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private ZonedDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private ZonedDateTime to;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public ActionType getType() {
+        return type;
+    }
+
+    public void setType(ActionType type) {
+        this.type = type;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public Double getMinDistance() {
+        return minDistance;
+    }
+
+    public void setMinDistance(Double minDistance) {
+        this.minDistance = minDistance;
+    }
+
+    public Double getMaxDistance() {
+        return maxDistance;
+    }
+
+    public void setMaxDistance(Double maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+
+    public Integer getMinDuration() {
+        return minDuration;
+    }
+
+    public void setMinDuration(Integer minDuration) {
+        this.minDuration = minDuration;
+    }
+
+    public Integer getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Integer maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public ZonedDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(ZonedDateTime from) {
+        this.from = from;
+    }
+
+    public ZonedDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(ZonedDateTime to) {
+        this.to = to;
+    }
+
+    @Override
+    public String toString() {
+        return "ActionCriteria{" +
+            "userId=" + userId +
+            ", type=" + type +
+            ", unit='" + unit + "'" +
+            ", minDistance=" + minDistance +
+            ", maxDistance=" + maxDistance +
+            ", minDuration=" + minDuration +
+            ", maxDuration=" + maxDuration +
+            ", from=" + from +
+            ", to=" + to +
+            '}';
+    }
+}
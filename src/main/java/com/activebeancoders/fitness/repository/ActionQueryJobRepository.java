@@ -0,0 +1,17 @@
+package com.activebeancoders.fitness.repository;
+
+import com.activebeancoders.fitness.domain.ActionQueryJob;
+import com.activebeancoders.fitness.domain.enumeration.ActionQueryJobStatus;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+/**
+ * Spring Data MongoDB repository for the ActionQueryJob entity.
+ */
+public interface ActionQueryJobRepository extends MongoRepository<ActionQueryJob, String> {
+
+    List<ActionQueryJob> findAllByStatus(ActionQueryJobStatus status);
+
+}
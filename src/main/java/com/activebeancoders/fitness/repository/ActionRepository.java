@@ -2,12 +2,21 @@ package com.activebeancoders.fitness.repository;
 
 import com.activebeancoders.fitness.domain.Action;
 
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.stream.Stream;
+
 /**
  * Spring Data MongoDB repository for the Action entity.
  */
 @SuppressWarnings("unused")
-public interface ActionRepository extends MongoRepository<Action,String> {
+public interface ActionRepository extends MongoRepository<Action,String>, ActionRepositoryCustom {
+
+    /**
+     * Read all actions through a single Mongo cursor, fetching documents as the stream is consumed.
+     * The stream must be closed to release the cursor.
+     */
+    Stream<Action> streamAllBy(Sort sort);
 
 }
@@ -0,0 +1,67 @@
+package com.activebeancoders.fitness.repository;
+
+import com.activebeancoders.fitness.domain.Action;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Custom operations for the Action entity that are not expressible as Spring Data derived queries.
+ *
+ * @see ActionRepositoryImpl
+ */
+public interface ActionRepositoryCustom {
+
+    /**
+     * The number of matches up to which searches count exactly, and beyond which they can not page.
+     */
+    int MAX_RESULT_WINDOW = 10000;
+
+    /**
+     * Insert the given actions with a single unordered bulk write.
+     * <p>
+     * Actions without an ID are assigned one before being written, and all are given the current time as their
+     * last modification date. Actions whose ID already exists are skipped,
+     * which makes replaying a batch with the same IDs harmless. Unlike {@code save}, this does not look up
+     * existing documents and does not fire the mapping lifecycle events.
+     * </p>
+     *
+     * @param actions the actions to insert
+     * @return the number of inserted documents, not counting the skipped ones
+     */
+    int insertUnordered(List<Action> actions);
+
+    /**
+     * Find the actions of a user, most recent first, that come after the given position in that order.
+     * <p>
+     * The position is the start and ID of the last action of the previous page, so the query seeks straight to
+     * it on the {@code (user_id, start, _id)} index instead of skipping over the previous pages.
+     * </p>
+     *
+     * @param userId the id of the user
+     * @param afterStart the start of the last action of the previous page
+     * @param afterId the id of the last action of the previous page, or null for the first page
+     * @param limit the maximum number of actions to return
+     * @return the actions, ordered by start then id, both descending
+     */
+    List<Action> findByUserIdAfter(Long userId, ZonedDateTime afterStart, String afterId, int limit);
+
+    /**
+     * Find a page of the actions that match the given criteria, with a single query.
+     * <p>
+     * The total is not counted when the page is the last one, as it follows from the size of the page, and is
+     * otherwise counted up to {@link #MAX_RESULT_WINDOW} only. Unsorted pages are sorted by start then ID, both
+     * descending, which the indexes on the start serve.
+     * </p>
+     *
+     * @param criteria the filters of the search
+     * @param pageable the page to find, which must end within {@link #MAX_RESULT_WINDOW}
+     * @return the page of actions, with a total of at most {@link #MAX_RESULT_WINDOW}
+     * @throws IllegalArgumentException if the page ends beyond {@link #MAX_RESULT_WINDOW}, or is sorted on an
+     * unknown property
+     */
+    Page<Action> search(ActionCriteria criteria, Pageable pageable);
+
+}
@@ -0,0 +1,167 @@
+package com.activebeancoders.fitness.repository;
+
+import com.activebeancoders.fitness.domain.Action;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * MongoTemplate based implementation of {@link ActionRepositoryCustom}, picked up by Spring Data through the
+ * "Impl" naming convention.
+ */
+public class ActionRepositoryImpl implements ActionRepositoryCustom {
+
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    private static final Set<String> SORTABLE_PROPERTIES = new HashSet<>(Arrays.asList(
+        "id", "userId", "start", "duration", "unit", "distance", "type"));
+
+    private static final Sort DEFAULT_SEARCH_SORT = new Sort(Sort.Direction.DESC, "start", "id");
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public int insertUnordered(List<Action> actions) {
+        if (actions.isEmpty()) {
+            return 0;
+        }
+        MongoConverter converter = mongoTemplate.getConverter();
+        ZonedDateTime now = ZonedDateTime.now();
+        return mongoTemplate.execute(Action.class, collection -> {
+            BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+            for (Action action : actions) {
+                if (action.getId() == null) {
+                    action.setId(ObjectId.get().toString());
+                }
+                // stamped here as the auditing of save() does not run for bulk writes
+                action.setLastModifiedDate(now);
+                BasicDBObject dbObject = new BasicDBObject();
+                converter.write(action, dbObject);
+                bulk.insert(dbObject);
+            }
+            try {
+                return bulk.execute().getInsertedCount();
+            } catch (BulkWriteException e) {
+                if (e.getWriteConcernError() != null || e.getWriteErrors().stream()
+                    .anyMatch(error -> error.getCode() != DUPLICATE_KEY_ERROR_CODE)) {
+                    throw e;
+                }
+                return e.getWriteResult().getInsertedCount();
+            }
+        });
+    }
+
+    @Override
+    public List<Action> findByUserIdAfter(Long userId, ZonedDateTime afterStart, String afterId, int limit) {
+        Criteria criteria = where("userId").is(userId);
+        if (afterId != null) {
+            if (afterStart == null) {
+                // actions without a start sort last, so only those with a smaller id are left
+                criteria.and("start").is(null).and("id").lt(afterId);
+            } else {
+                Date start = Date.from(afterStart.toInstant());
+                criteria.orOperator(
+                    where("start").lt(start),
+                    where("start").is(start).and("id").lt(afterId),
+                    where("start").is(null));
+            }
+        }
+        Query query = new Query(criteria)
+            .with(new Sort(Sort.Direction.DESC, "start", "id"))
+            .limit(limit);
+        return mongoTemplate.find(query, Action.class);
+    }
+
+    @Override
+    public Page<Action> search(ActionCriteria criteria, Pageable pageable) {
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Search results can only be paged up to " + MAX_RESULT_WINDOW);
+        }
+        Sort sort = pageable.getSort() == null ? DEFAULT_SEARCH_SORT : pageable.getSort();
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Actions can not be sorted by " + order.getProperty());
+            }
+        }
+        Query query = new Query();
+        if (criteria.getUserId() != null) {
+            query.addCriteria(where("userId").is(criteria.getUserId()));
+        }
+        if (criteria.getType() != null) {
+            query.addCriteria(where("type").is(criteria.getType()));
+        }
+        if (criteria.getUnit() != null) {
+            query.addCriteria(where("unit").is(criteria.getUnit()));
+        }
+        addRange(query, "start", criteria.getFrom() == null ? null : Date.from(criteria.getFrom().toInstant()),
+            criteria.getTo() == null ? null : Date.from(criteria.getTo().toInstant()), false);
+        addRange(query, "distance", criteria.getMinDistance(), criteria.getMaxDistance(), true);
+        addRange(query, "duration", criteria.getMinDuration(), criteria.getMaxDuration(), true);
+
+        // sort, skip and limit do not change the query object, which is all that counting uses
+        List<Action> content = mongoTemplate.find(query.with(sort)
+            .skip(pageable.getOffset()).limit(pageable.getPageSize()), Action.class);
+        long total;
+        if (content.size() < pageable.getPageSize() && (!content.isEmpty() || pageable.getOffset() == 0)) {
+            total = pageable.getOffset() + content.size();
+        } else {
+            total = count(query);
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Count the matches of a query, up to {@link #MAX_RESULT_WINDOW}, and from the collection metadata when the
+     * query is empty.
+     */
+    private long count(Query query) {
+        DBCollection collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Action.class));
+        DBObject mappedQuery = new QueryMapper(mongoTemplate.getConverter()).getMappedObject(
+            query.getQueryObject(), mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Action.class));
+        if (mappedQuery.keySet().isEmpty()) {
+            return Math.min(collection.count(), MAX_RESULT_WINDOW);
+        }
+        return collection.getCount(mappedQuery, null, MAX_RESULT_WINDOW, 0);
+    }
+
+    private static void addRange(Query query, String property, Object min, Object max, boolean maxInclusive) {
+        if (min == null && max == null) {
+            return;
+        }
+        Criteria range = where(property);
+        if (min != null) {
+            range.gte(min);
+        }
+        if (max != null) {
+            if (maxInclusive) {
+                range.lte(max);
+            } else {
+                range.lt(max);
+            }
+        }
+        query.addCriteria(range);
+    }
+}
@@ -0,0 +1,12 @@
+package com.activebeancoders.fitness.repository;
+
+import com.activebeancoders.fitness.domain.ActionRollup;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Spring Data MongoDB repository for the ActionRollup entity.
+ */
+public interface ActionRollupRepository extends MongoRepository<ActionRollup, String> {
+
+}
@@ -2,10 +2,20 @@ package com.activebeancoders.fitness.repository;
 
 import com.activebeancoders.fitness.domain.Authority;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 /**
  * Spring Data MongoDB repository for the Authority entity.
  */
 public interface AuthorityRepository extends MongoRepository<Authority, String> {
+
+    String AUTHORITIES_CACHE = "authorities";
+
+    /**
+     * Authorities are only created by database migrations, so they are cached until they expire.
+     */
+    @Override
+    @Cacheable(cacheNames = AUTHORITIES_CACHE, unless = "#result == null")
+    Authority findOne(String name);
 }
@@ -1,13 +1,12 @@
 package com.activebeancoders.fitness.repository;
 
+import com.activebeancoders.fitness.config.audit.AsyncAuditEventSink;
 import com.activebeancoders.fitness.config.audit.AuditEventConverter;
 import com.activebeancoders.fitness.domain.PersistentAuditEvent;
 
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 import javax.inject.Inject;
 import java.time.Instant;
@@ -32,6 +31,9 @@ public class CustomAuditEventRepository implements AuditEventRepository {
     @Inject
     private AuditEventConverter auditEventConverter;
 
+    @Inject
+    private AsyncAuditEventSink asyncAuditEventSink;
+
     @Override
     public List<AuditEvent> find(String principal, Date after) {
         Iterable<PersistentAuditEvent> persistentAuditEvents;
@@ -46,8 +48,10 @@ public class CustomAuditEventRepository implements AuditEventRepository {
         return auditEventConverter.convertToAuditEvent(persistentAuditEvents);
     }
 
+    /**
+     * Hand the event over to the {@link AsyncAuditEventSink}, which writes it in the background.
+     */
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void add(AuditEvent event) {
         if (!AUTHORIZATION_FAILURE.equals(event.getType()) &&
             !ANONYMOUS_USER.equals(event.getPrincipal().toString())) {
@@ -58,7 +62,7 @@ public class CustomAuditEventRepository implements AuditEventRepository {
             Instant instant = Instant.ofEpochMilli(event.getTimestamp().getTime());
             persistentAuditEvent.setAuditEventDate(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()));
             persistentAuditEvent.setData(auditEventConverter.convertDataToStrings(event.getData()));
-            persistenceAuditEventRepository.save(persistentAuditEvent);
+            asyncAuditEventSink.submit(persistentAuditEvent);
         }
     }
 }
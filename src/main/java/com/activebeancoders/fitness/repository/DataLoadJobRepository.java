@@ -0,0 +1,17 @@
+package com.activebeancoders.fitness.repository;
+
+import com.activebeancoders.fitness.domain.DataLoadJob;
+import com.activebeancoders.fitness.domain.enumeration.DataLoadJobStatus;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+/**
+ * Spring Data MongoDB repository for the DataLoadJob entity.
+ */
+public interface DataLoadJobRepository extends MongoRepository<DataLoadJob, String> {
+
+    List<DataLoadJob> findAllByStatus(DataLoadJobStatus status);
+
+}
@@ -3,6 +3,8 @@ package com.activebeancoders.fitness.repository;
 import com.activebeancoders.fitness.domain.User;
 
 import java.time.ZonedDateTime;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
@@ -10,9 +12,16 @@ import java.util.Optional;
 
 /**
  * Spring Data MongoDB repository for the User entity.
+ * <p>
+ * Users are looked up by login on every authentication and account request, so those lookups are cached, and every
+ * write clears the whole cache, as a write may change the login itself. Logins that are not found are not cached,
+ * so that an account can be looked up before it is created, and each lookup returns its own copy of the user.
+ * </p>
  */
 public interface UserRepository extends MongoRepository<User, String> {
 
+    String USERS_BY_LOGIN_CACHE = "usersByLogin";
+
     Optional<User> findOneByActivationKey(String activationKey);
 
     List<User> findAllByActivatedIsFalseAndCreatedDateBefore(ZonedDateTime dateTime);
@@ -21,11 +30,41 @@ public interface UserRepository extends MongoRepository<User, String> {
 
     Optional<User> findOneByEmail(String email);
 
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, unless = "#result == null || !#result.isPresent()")
     Optional<User> findOneByLogin(String login);
 
     Optional<User> findOneById(String userId);
 
     @Override
+    @CacheEvict(cacheNames = USERS_BY_LOGIN_CACHE, allEntries = true)
+    <S extends User> S save(S user);
+
+    @Override
+    @CacheEvict(cacheNames = USERS_BY_LOGIN_CACHE, allEntries = true)
+    <S extends User> List<S> save(Iterable<S> users);
+
+    @Override
+    @CacheEvict(cacheNames = USERS_BY_LOGIN_CACHE, allEntries = true)
+    <S extends User> S insert(S user);
+
+    @Override
+    @CacheEvict(cacheNames = USERS_BY_LOGIN_CACHE, allEntries = true)
+    <S extends User> List<S> insert(Iterable<S> users);
+
+    @Override
+    @CacheEvict(cacheNames = USERS_BY_LOGIN_CACHE, allEntries = true)
     void delete(User t);
 
+    @Override
+    @CacheEvict(cacheNames = USERS_BY_LOGIN_CACHE, allEntries = true)
+    void delete(String id);
+
+    @Override
+    @CacheEvict(cacheNames = USERS_BY_LOGIN_CACHE, allEntries = true)
+    void delete(Iterable<? extends User> users);
+
+    @Override
+    @CacheEvict(cacheNames = USERS_BY_LOGIN_CACHE, allEntries = true)
+    void deleteAll();
+
 }
@@ -0,0 +1,287 @@
+package com.activebeancoders.fitness.repository.search;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.Action;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TrackingIndexWriter;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.search.similarities.Similarity;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.RAMDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Embedded full-text index of the comments of actions, ranked with BM25.
+ * <p>
+ * The index lives in the directory configured by {@code jhipster.search.indexPath}, or in memory when it is empty,
+ * and holds one document per action that has a comment. Changes become visible to searches within
+ * {@code jhipster.search.refreshIntervalMillis}, and are committed to the directory every
+ * {@code jhipster.search.commitIntervalMillis} and on shutdown.
+ * </p>
+ */
+@Repository
+public class ActionSearchRepository implements SearchIndexSink {
+
+    /**
+     * The number of top matches beyond which searches can not page.
+     */
+    public static final int MAX_RESULT_WINDOW = 10000;
+
+    static final String ID_FIELD = "id";
+
+    static final String COMMENT_FIELD = "comment";
+
+    private static final double MIN_STALE_SECONDS = 0.025;
+
+    private final Logger log = LoggerFactory.getLogger(ActionSearchRepository.class);
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final Similarity similarity = new BM25Similarity();
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private Directory directory;
+
+    private IndexWriter indexWriter;
+
+    private TrackingIndexWriter trackingIndexWriter;
+
+    private SearcherManager searcherManager;
+
+    private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    @PostConstruct
+    public void open() throws IOException {
+        JHipsterProperties.Search properties = jHipsterProperties.getSearch();
+        if (StringUtils.hasText(properties.getIndexPath())) {
+            directory = FSDirectory.open(Paths.get(properties.getIndexPath()));
+        } else {
+            directory = new RAMDirectory();
+        }
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+            .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+            .setRAMBufferSizeMB(properties.getRamBufferSizeMb())
+            .setSimilarity(similarity);
+        indexWriter = new IndexWriter(directory, config);
+        trackingIndexWriter = new TrackingIndexWriter(indexWriter);
+        searcherManager = new SearcherManager(indexWriter, new SearcherFactory() {
+            @Override
+            public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                searcher.setSimilarity(similarity);
+                return searcher;
+            }
+        });
+        reopenThread = new ControlledRealTimeReopenThread<>(trackingIndexWriter, searcherManager,
+            properties.getRefreshIntervalMillis() / 1000.0, MIN_STALE_SECONDS);
+        reopenThread.setName("action-search-refresh");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+        log.info("Opened the action search index with {} documents in {}", indexWriter.numDocs(),
+            StringUtils.hasText(properties.getIndexPath()) ? properties.getIndexPath() : "memory");
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        reopenThread.close();
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    /**
+     * Index the comment of an action, replacing its previous version. An action without a comment is removed from
+     * the index.
+     *
+     * @param action a persisted action
+     */
+    public void index(Action action) {
+        try {
+            write(action);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void indexAll(Collection<Action> actions) {
+        try {
+            for (Action action : actions) {
+                write(action);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Remove an action from the index.
+     *
+     * @param id the id of the action
+     */
+    public void delete(String id) {
+        deleteAll(Collections.singleton(id));
+    }
+
+    @Override
+    public void deleteAll(Collection<String> ids) {
+        Term[] terms = ids.stream().map(id -> new Term(ID_FIELD, id)).toArray(Term[]::new);
+        try {
+            trackingIndexWriter.deleteDocuments(terms);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        try {
+            trackingIndexWriter.deleteAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long count() {
+        return indexWriter.numDocs();
+    }
+
+    /**
+     * Make every change done so far visible to searches, without waiting for the next periodic refresh.
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Commit the changes done since the last commit, so that they survive a crash.
+     */
+    @Scheduled(fixedDelayString = "${jhipster.search.commitIntervalMillis:60000}")
+    public void commit() {
+        if (!indexWriter.hasUncommittedChanges()) {
+            return;
+        }
+        long startMillis = System.currentTimeMillis();
+        try {
+            indexWriter.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Committed the action search index in {} ms", System.currentTimeMillis() - startMillis);
+    }
+
+    /**
+     * Find the ids of the actions whose comment matches a query, best match first.
+     * <p>
+     * The query uses the Lucene syntax, with terms, quoted phrases, wildcards, boolean operators and boosts, and
+     * is matched against the comment by default.
+     * </p>
+     *
+     * @param query the full-text query
+     * @param pageable the pagination information; its sort is ignored, as matches are ranked by score
+     * @return the page of ids, with the exact number of matches
+     * @throws IllegalArgumentException if the query is malformed, or if the page ends beyond the first
+     * {@value #MAX_RESULT_WINDOW} matches
+     */
+    public Page<String> search(String query, Pageable pageable) {
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Searches can not page beyond the first " + MAX_RESULT_WINDOW + " matches");
+        }
+        Query luceneQuery = parse(query);
+        IndexSearcher searcher;
+        try {
+            searcher = searcherManager.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            TopDocs topDocs = searcher.search(luceneQuery, pageable.getOffset() + pageable.getPageSize());
+            List<String> ids = new ArrayList<>(pageable.getPageSize());
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            for (int i = pageable.getOffset(); i < scoreDocs.length; i++) {
+                ids.add(searcher.doc(scoreDocs[i].doc, Collections.singleton(ID_FIELD)).get(ID_FIELD));
+            }
+            return new PageImpl<>(ids, pageable, topDocs.totalHits);
+        } catch (BooleanQuery.TooManyClauses e) {
+            throw new IllegalArgumentException("Search query expands to too many terms: " + query, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    private void write(Action action) throws IOException {
+        Term id = new Term(ID_FIELD, action.getId());
+        if (!StringUtils.hasText(action.getComment())) {
+            trackingIndexWriter.deleteDocuments(id);
+            return;
+        }
+        Document document = new Document();
+        document.add(new StringField(ID_FIELD, action.getId(), Field.Store.YES));
+        document.add(new TextField(COMMENT_FIELD, action.getComment(), Field.Store.NO));
+        trackingIndexWriter.updateDocument(id, document);
+    }
+
+    private Query parse(String query) {
+        QueryParser parser = new QueryParser(COMMENT_FIELD, analyzer);
+        try {
+            return parser.parse(query);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Malformed search query: " + e.getMessage(), e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Could not release an action searcher", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.activebeancoders.fitness.repository.search;
+
+import com.activebeancoders.fitness.domain.Action;
+
+import java.util.Collection;
+
+/**
+ * A search index that actions are written to in bulk, such as the embedded {@link ActionSearchRepository}.
+ * <p>
+ * Implementations must accept calls from several threads at once, and writes must be idempotent: indexing an
+ * action replaces its previous version, and deleting a missing action does nothing, so that a failed bulk request
+ * can be retried as a whole.
+ * </p>
+ *
+ * @see com.activebeancoders.fitness.service.ActionIndexingService
+ */
+public interface SearchIndexSink {
+
+    /**
+     * Index actions, replacing their previous versions.
+     *
+     * @param actions the current state of the actions
+     */
+    void indexAll(Collection<Action> actions);
+
+    /**
+     * Remove actions from the index.
+     *
+     * @param ids the ids of the actions
+     */
+    void deleteAll(Collection<String> ids);
+
+    /**
+     * Remove every action from the index.
+     */
+    void deleteAll();
+
+    /**
+     * @return the number of actions in the index
+     */
+    long count();
+}
@@ -0,0 +1,4 @@
+/**
+ * Full-text search indexes.
+ */
+package com.activebeancoders.fitness.repository.search;
@@ -0,0 +1,95 @@
+package com.activebeancoders.fitness.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonical {@link GrantedAuthority} instances for the {@link AuthoritiesConstants}, so that resolving the
+ * authorities of a request does not allocate new ones.
+ */
+public final class GrantedAuthorities {
+
+    public static final GrantedAuthority ADMIN = new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN);
+
+    public static final GrantedAuthority USER = new SimpleGrantedAuthority(AuthoritiesConstants.USER);
+
+    public static final GrantedAuthority ANONYMOUS = new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS);
+
+    private static final GrantedAuthority[] CANONICAL = {USER, ADMIN, ANONYMOUS};
+
+    private static final char SEPARATOR = ',';
+
+    /**
+     * Lists parsed from claims made of canonical authorities only. There are few such claims, but the map is
+     * bounded anyway so that crafted claims can not grow it.
+     */
+    private static final int MAX_CANONICAL_LISTS = 64;
+
+    private static final ConcurrentMap<String, List<GrantedAuthority>> CANONICAL_LISTS = new ConcurrentHashMap<>();
+
+    private GrantedAuthorities() {
+    }
+
+    /**
+     * @param authority the name of an authority
+     * @return the canonical instance of the authority, or a new one if it is not one of the {@link AuthoritiesConstants}
+     */
+    public static GrantedAuthority of(String authority) {
+        GrantedAuthority canonical = canonical(authority, 0, authority.length());
+        return canonical != null ? canonical : new SimpleGrantedAuthority(authority);
+    }
+
+    /**
+     * Parse comma-separated authorities, skipping empty ones.
+     *
+     * @param authorities the authorities, such as the "auth" claim of a token
+     * @return an unmodifiable list of the authorities, which is shared between calls when they are all canonical
+     */
+    public static List<GrantedAuthority> parse(String authorities) {
+        List<GrantedAuthority> result = CANONICAL_LISTS.get(authorities);
+        if (result != null) {
+            return result;
+        }
+        result = new ArrayList<>(CANONICAL.length);
+        boolean allCanonical = true;
+        int length = authorities.length();
+        int start = 0;
+        while (start < length) {
+            int end = authorities.indexOf(SEPARATOR, start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                GrantedAuthority authority = canonical(authorities, start, end);
+                if (authority == null) {
+                    allCanonical = false;
+                    authority = new SimpleGrantedAuthority(authorities.substring(start, end));
+                }
+                result.add(authority);
+            }
+            start = end + 1;
+        }
+        result = Collections.unmodifiableList(result);
+        if (allCanonical && CANONICAL_LISTS.size() < MAX_CANONICAL_LISTS) {
+            CANONICAL_LISTS.putIfAbsent(authorities, result);
+        }
+        return result;
+    }
+
+    private static GrantedAuthority canonical(String authorities, int start, int end) {
+        int length = end - start;
+        for (GrantedAuthority authority : CANONICAL) {
+            String name = authority.getAuthority();
+            if (name.length() == length && authorities.regionMatches(start, name, 0, length)) {
+                return authority;
+            }
+        }
+        return null;
+    }
+}
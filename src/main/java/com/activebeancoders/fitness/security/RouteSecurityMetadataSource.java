@@ -0,0 +1,144 @@
+package com.activebeancoders.fitness.security;
+
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.access.vote.AuthenticatedVoter;
+import org.springframework.security.web.FilterInvocation;
+import org.springframework.security.web.access.intercept.FilterInvocationSecurityMetadataSource;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.*;
+
+/**
+ * URL authorization rules compiled into hash tables, so that a request is authorized with a few lookups instead
+ * of trying every ant pattern in turn.
+ * <p>
+ * A rule applies either to an exact path, or to a path and everything below it when its pattern ends with
+ * {@code /**}. The rule of an exact path wins over the rules of its prefixes, and the rule of a longer prefix wins
+ * over the rules of shorter ones. Requests that match no rule, or a {@code permitAll} rule, are public.
+ * </p>
+ */
+public final class RouteSecurityMetadataSource implements FilterInvocationSecurityMetadataSource {
+
+    private static final String SUBTREE_SUFFIX = "/**";
+
+    private static final List<ConfigAttribute> PERMIT_ALL = Collections.emptyList();
+
+    private static final List<ConfigAttribute> AUTHENTICATED =
+        SecurityConfig.createList(AuthenticatedVoter.IS_AUTHENTICATED_REMEMBERED);
+
+    private final Map<String, List<ConfigAttribute>> exactRules;
+
+    private final Map<String, List<ConfigAttribute>> subtreeRules;
+
+    private final Set<ConfigAttribute> allAttributes;
+
+    private RouteSecurityMetadataSource(Map<String, List<ConfigAttribute>> exactRules,
+                                        Map<String, List<ConfigAttribute>> subtreeRules) {
+        this.exactRules = exactRules;
+        this.subtreeRules = subtreeRules;
+        Set<ConfigAttribute> attributes = new HashSet<>();
+        exactRules.values().forEach(attributes::addAll);
+        subtreeRules.values().forEach(attributes::addAll);
+        this.allAttributes = Collections.unmodifiableSet(attributes);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Collection<ConfigAttribute> getAttributes(Object object) {
+        return getAttributes(((FilterInvocation) object).getHttpRequest());
+    }
+
+    /**
+     * @param request the request
+     * @return the attributes required to access the path of the request, or null if it is public
+     */
+    public Collection<ConfigAttribute> getAttributes(HttpServletRequest request) {
+        String path = getRequestPath(request);
+        List<ConfigAttribute> attributes = exactRules.get(path);
+        if (attributes == null) {
+            int end = path.length();
+            while (attributes == null && end >= 0) {
+                attributes = subtreeRules.get(path.substring(0, end));
+                end = path.lastIndexOf('/', end - 1);
+            }
+        }
+        return attributes == null || attributes.isEmpty() ? null : attributes;
+    }
+
+    @Override
+    public Collection<ConfigAttribute> getAllConfigAttributes() {
+        return allAttributes;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return FilterInvocation.class.isAssignableFrom(clazz);
+    }
+
+    /**
+     * The path of the request within the application, as matched by {@code AntPathRequestMatcher}, with repeated
+     * slashes collapsed as {@code AntPathMatcher} ignores them.
+     */
+    static String getRequestPath(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (request.getPathInfo() != null) {
+            path += request.getPathInfo();
+        }
+        if (path.indexOf("//") >= 0) {
+            path = path.replaceAll("/{2,}", "/");
+        }
+        return path;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, List<ConfigAttribute>> exactRules = new HashMap<>();
+
+        private final Map<String, List<ConfigAttribute>> subtreeRules = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder permitAll(String... patterns) {
+            return rule(PERMIT_ALL, patterns);
+        }
+
+        public Builder authenticated(String... patterns) {
+            return rule(AUTHENTICATED, patterns);
+        }
+
+        public Builder hasAuthority(String authority, String... patterns) {
+            return rule(SecurityConfig.createList(authority), patterns);
+        }
+
+        public RouteSecurityMetadataSource build() {
+            return new RouteSecurityMetadataSource(new HashMap<>(exactRules), new HashMap<>(subtreeRules));
+        }
+
+        private Builder rule(List<ConfigAttribute> attributes, String... patterns) {
+            for (String pattern : patterns) {
+                if (!pattern.startsWith("/")) {
+                    throw new IllegalArgumentException("Pattern must start with '/': " + pattern);
+                }
+                Map<String, List<ConfigAttribute>> rules = exactRules;
+                String path = pattern;
+                if (pattern.endsWith(SUBTREE_SUFFIX)) {
+                    rules = subtreeRules;
+                    path = pattern.substring(0, pattern.length() - SUBTREE_SUFFIX.length());
+                }
+                if (path.contains("*") || path.contains("?") || path.contains("{")) {
+                    throw new IllegalArgumentException("Only exact paths and paths ending with /** are supported: " +
+                        pattern);
+                }
+                if (rules.putIfAbsent(path, attributes) != null) {
+                    throw new IllegalArgumentException("Duplicate rule for pattern: " + pattern);
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.activebeancoders.fitness.security.jwt;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Authentication built from a verified token.
+ * <p>
+ * Unlike a {@code UsernamePasswordAuthenticationToken} holding a {@code User}, it neither copies nor sorts its
+ * authorities, which are the shared, unmodifiable list parsed from the token. Each request gets its own instance,
+ * including when its token is found in the {@link VerifiedTokenCache}, so that a request which stops trusting its
+ * authentication does not affect the others.
+ * </p>
+ */
+public final class TokenAuthentication implements Authentication {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TokenUser principal;
+
+    private volatile boolean authenticated = true;
+
+    public TokenAuthentication(String login, List<GrantedAuthority> authorities) {
+        this.principal = new TokenUser(login, authorities);
+    }
+
+    @Override
+    public List<GrantedAuthority> getAuthorities() {
+        return principal.authorities;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return "";
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public UserDetails getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            throw new IllegalArgumentException("A token authentication can only be trusted when it is created");
+        }
+        this.authenticated = false;
+    }
+
+    @Override
+    public String getName() {
+        return principal.login;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenAuthentication{" +
+            "login='" + principal.login + "'" +
+            ", authorities=" + principal.authorities +
+            ", authenticated=" + authenticated +
+            '}';
+    }
+
+    /**
+     * The user of a token, with the same accessors as the users loaded from the database.
+     */
+    private static final class TokenUser implements UserDetails {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String login;
+
+        private final List<GrantedAuthority> authorities;
+
+        TokenUser(String login, List<GrantedAuthority> authorities) {
+            this.login = login;
+            this.authorities = authorities;
+        }
+
+        @Override
+        public Collection<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        @Override
+        public String getPassword() {
+            return "";
+        }
+
+        @Override
+        public String getUsername() {
+            return login;
+        }
+
+        @Override
+        public boolean isAccountNonExpired() {
+            return true;
+        }
+
+        @Override
+        public boolean isAccountNonLocked() {
+            return true;
+        }
+
+        @Override
+        public boolean isCredentialsNonExpired() {
+            return true;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof UserDetails && login.equals(((UserDetails) o).getUsername());
+        }
+
+        @Override
+        public int hashCode() {
+            return login.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return login;
+        }
+    }
+}
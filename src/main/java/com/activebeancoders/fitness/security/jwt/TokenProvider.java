@@ -1,31 +1,25 @@
 package com.activebeancoders.fitness.security.jwt;
 
 import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.security.GrantedAuthorities;
 
 import java.util.*;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 
 @Component
 public class TokenProvider {
 
-    private final Logger log = LoggerFactory.getLogger(TokenProvider.class);
-
     private static final String AUTHORITIES_KEY = "auth";
 
-    private String secretKey;
+    private byte[] secretKey;
 
     private long tokenValidityInSeconds;
 
@@ -36,8 +30,9 @@ public class TokenProvider {
 
     @PostConstruct
     public void init() {
-        this.secretKey =
-            jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
+        // the secret is decoded once here rather than by every parser
+        this.secretKey = TextCodec.BASE64.decode(
+            jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret());
 
         this.tokenValidityInSeconds =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
@@ -66,30 +61,59 @@ public class TokenProvider {
             .compact();
     }
 
-    public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parser()
+    /**
+     * Verify the signature and the expiration of a token, and build its authentication, parsing the token only
+     * once.
+     *
+     * @param token the token
+     * @return the authentication and expiration of the token, or the reason why it is not valid, including when
+     * it has no authorities claim
+     */
+    public TokenValidationResult parseToken(String token) {
+        try {
+            Claims claims = parseClaims(token);
+            return TokenValidationResult.valid(getAuthentication(claims), claims.getExpiration());
+        } catch (ExpiredJwtException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.FailureReason.EXPIRED,
+                e.getClaims().getSubject(), e.getMessage());
+        } catch (PrematureJwtException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.FailureReason.NOT_YET_VALID,
+                e.getClaims().getSubject(), e.getMessage());
+        } catch (InvalidClaimException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.FailureReason.INVALID_CLAIMS,
+                e.getClaims().getSubject(), e.getMessage());
+        } catch (SignatureException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.FailureReason.INVALID_SIGNATURE,
+                null, e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.FailureReason.UNSUPPORTED,
+                null, e.getMessage());
+        } catch (JwtException | IllegalArgumentException | IllegalStateException e) {
+            // malformed, or failing any other check of the parser, which throws an IllegalStateException for
+            // dates of the wrong type
+            return TokenValidationResult.invalid(TokenValidationResult.FailureReason.MALFORMED,
+                null, e.getMessage());
+        }
+    }
+
+    private Claims parseClaims(String token) {
+        return Jwts.parser()
             .setSigningKey(secretKey)
             .parseClaimsJws(token)
             .getBody();
-
-        Collection<? extends GrantedAuthority> authorities =
-            Arrays.asList(claims.get(AUTHORITIES_KEY).toString().split(",")).stream()
-                .map(authority -> new SimpleGrantedAuthority(authority))
-                .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "",
-            authorities);
-
-        return new UsernamePasswordAuthenticationToken(principal, "", authorities);
     }
 
-    public boolean validateToken(String authToken) {
-        try {
-            Jwts.parser().setSigningKey(secretKey).parseClaimsJws(authToken);
-            return true;
-        } catch (SignatureException e) {
-            log.info("Invalid JWT signature: " + e.getMessage());
-            return false;
+    /**
+     * @throws MissingClaimException if the token has no authorities claim, which every token issued here has
+     */
+    private TokenAuthentication getAuthentication(Claims claims) {
+        Object authorities = claims.get(AUTHORITIES_KEY);
+        if (authorities == null) {
+            MissingClaimException e = new MissingClaimException(null, claims,
+                "Missing '" + AUTHORITIES_KEY + "' claim.");
+            e.setClaimName(AUTHORITIES_KEY);
+            throw e;
         }
+        return new TokenAuthentication(claims.getSubject(), GrantedAuthorities.parse(authorities.toString()));
     }
 }
@@ -0,0 +1,89 @@
+package com.activebeancoders.fitness.security.jwt;
+
+import java.util.Date;
+
+/**
+ * Outcome of parsing a token with {@link TokenProvider#parseToken(String)}: either the authentication of a valid
+ * token and its expiration, or the reason why the token was rejected.
+ */
+public final class TokenValidationResult {
+
+    public enum FailureReason {
+        EXPIRED, NOT_YET_VALID, INVALID_CLAIMS, INVALID_SIGNATURE, MALFORMED, UNSUPPORTED
+    }
+
+    private final TokenAuthentication authentication;
+
+    private final Date expiration;
+
+    private final FailureReason failureReason;
+
+    private final String subject;
+
+    private final String message;
+
+    private TokenValidationResult(TokenAuthentication authentication, Date expiration, FailureReason failureReason,
+                                  String subject, String message) {
+        this.authentication = authentication;
+        this.expiration = expiration;
+        this.failureReason = failureReason;
+        this.subject = subject;
+        this.message = message;
+    }
+
+    static TokenValidationResult valid(TokenAuthentication authentication, Date expiration) {
+        return new TokenValidationResult(authentication, expiration, null, authentication.getName(), null);
+    }
+
+    static TokenValidationResult invalid(FailureReason failureReason, String subject, String message) {
+        return new TokenValidationResult(null, null, failureReason, subject, message);
+    }
+
+    public boolean isValid() {
+        return failureReason == null;
+    }
+
+    /**
+     * @return the authentication of the token, or null if it is not valid
+     */
+    public TokenAuthentication getAuthentication() {
+        return authentication;
+    }
+
+    /**
+     * @return the expiration of the token, or null if it is not valid or does not expire
+     */
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * @return why the token was rejected, or null if it is valid
+     */
+    public FailureReason getFailureReason() {
+        return failureReason;
+    }
+
+    /**
+     * @return the subject of the token, when it could be read
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * @return the message of the parsing error, or null if the token is valid
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenValidationResult{" +
+            "subject='" + subject + "'" +
+            ", expiration='" + expiration + "'" +
+            ", failureReason='" + failureReason + "'" +
+            '}';
+    }
+}
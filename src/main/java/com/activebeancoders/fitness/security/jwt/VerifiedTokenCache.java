@@ -0,0 +1,91 @@
+package com.activebeancoders.fitness.security.jwt;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of the login and authorities of tokens whose signature was already verified, so that a client
+ * sending the same token again is authenticated without parsing it.
+ * <p>
+ * Tokens are only kept as their SHA-256 digest, and an entry is not returned once its token has expired. Only the
+ * immutable parts of an authentication are kept, and each hit builds a new one around them.
+ * </p>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private Cache<HashCode, Entry> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(jHipsterProperties.getSecurity().getAuthentication().getJwt().getVerifiedTokenCacheSize())
+            .build();
+    }
+
+    /**
+     * @param token a token
+     * @return a new authentication for the token, or null if it is unknown or has expired
+     */
+    public TokenAuthentication get(String token) {
+        HashCode key = digest(token);
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expirationMillis <= System.currentTimeMillis()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return new TokenAuthentication(entry.login, entry.authorities);
+    }
+
+    /**
+     * @param token a token whose signature was verified
+     * @param authentication the authentication built from the token
+     * @param expiration the expiration of the token, or null if it does not expire
+     */
+    public void put(String token, TokenAuthentication authentication, Date expiration) {
+        cache.put(digest(token), new Entry(authentication.getName(), authentication.getAuthorities(),
+            expiration == null ? Long.MAX_VALUE : expiration.getTime()));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static HashCode digest(String token) {
+        return Hashing.sha256().hashString(token, StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+
+        private final String login;
+
+        private final List<GrantedAuthority> authorities;
+
+        private final long expirationMillis;
+
+        Entry(String login, List<GrantedAuthority> authorities, long expirationMillis) {
+            this.login = login;
+            this.authorities = authorities;
+            this.expirationMillis = expirationMillis;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.web.rest.dto.ActionSummaryDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Service for computing activity totals in the database, with the aggregation pipeline, rather than from the
+ * individual actions.
+ */
+@Service
+public class ActionAggregationService {
+
+    private final Logger log = LoggerFactory.getLogger(ActionAggregationService.class);
+
+    /**
+     * The time buckets of a summary. Buckets are computed in UTC.
+     */
+    public enum Period {
+        WEEK, MONTH
+    }
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Sum up the actions of a user per type and per week or month.
+     *
+     * @param userId the id of the user
+     * @param period the time bucket to group actions by
+     * @param from the start of the time range, inclusive, or null for no lower bound
+     * @param to the end of the time range, exclusive, or null for no upper bound
+     * @return one summary per bucket and per action type, in chronological order
+     */
+    public List<ActionSummaryDTO> summarizeUserActions(Long userId, Period period, ZonedDateTime from,
+                                                       ZonedDateTime to) {
+        log.debug("Request to summarize the actions of user {} per {} from {} to {}", userId, period, from, to);
+        Criteria criteria = where("userId").is(userId);
+        if (from != null || to != null) {
+            criteria = criteria.and("start");
+            if (from != null) {
+                criteria = criteria.gte(Date.from(from.toInstant()));
+            }
+            if (to != null) {
+                criteria = criteria.lt(Date.from(to.toInstant()));
+            }
+        } else {
+            criteria = criteria.and("start").ne(null);
+        }
+        ProjectionOperation bucket = project("type", "distance", "duration")
+            .and("start").extractYear().as("year");
+        bucket = period == Period.WEEK ?
+            bucket.and("start").extractWeek().as("period") :
+            bucket.and("start").extractMonth().as("period");
+        TypedAggregation<Action> aggregation = newAggregation(Action.class,
+            match(criteria),
+            bucket,
+            group("year", "period", "type")
+                .count().as("count")
+                .sum("distance").as("distance")
+                .sum("duration").as("duration"),
+            project("year", "period", "type", "count", "distance", "duration"),
+            sort(Sort.Direction.ASC, "year", "period", "type"));
+        return mongoTemplate.aggregate(aggregation, ActionSummaryDTO.class).getMappedResults();
+    }
+}
@@ -0,0 +1,186 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.web.rest.dto.ActionBulkResultDTO;
+import com.activebeancoders.fitness.web.rest.dto.ActionBulkResultDTO.ItemStatus;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service for creating many actions from a single stream of JSON.
+ * <p>
+ * The stream is either a JSON array of actions, or actions separated by whitespace such as newline delimited JSON.
+ * It is parsed one action at a time, and valid actions are written in unordered batches by a
+ * {@link BatchingActionWriter} while the next ones are parsed, so memory use does not depend on the number of
+ * actions other than their statuses. The rollups of the actions are updated, and the actions queued to be indexed,
+ * once per batch.
+ * </p>
+ */
+@Service
+public class ActionBulkService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int QUEUE_CAPACITY = 4;
+
+    private final Logger log = LoggerFactory.getLogger(ActionBulkService.class);
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private ActionRollupService actionRollupService;
+
+    @Inject
+    private ActionIndexingService actionIndexingService;
+
+    @Inject
+    private UserActionIndexService userActionIndexService;
+
+    @Inject
+    private ActionSnapshotService actionSnapshotService;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Inject
+    private Validator validator;
+
+    private ObjectReader actionReader;
+
+    @PostConstruct
+    public void init() {
+        actionReader = objectMapper.readerFor(Action.class);
+    }
+
+    /**
+     * Create the actions read from a stream.
+     * <p>
+     * Actions that cannot be mapped, that are not valid, or that already have an ID are rejected, and the others
+     * are given an ID and created. Reading stops at the first malformed JSON, or once a batch of actions failed to
+     * be written, after the actions before it have been created.
+     * </p>
+     *
+     * @param inputStream the stream to read, which is closed afterwards
+     * @return the number of actions received and created, and the status of each item
+     * @throws IOException if the stream could not be read
+     * @throws InterruptedException if interrupted while waiting for the actions to be written
+     */
+    public ActionBulkResultDTO createAll(InputStream inputStream) throws IOException, InterruptedException {
+        ActionBulkResultDTO result = new ActionBulkResultDTO();
+        // the items of the valid actions, in the order they are written
+        List<ItemStatus> written = new ArrayList<>();
+        BatchingActionWriter writer = new BatchingActionWriter(actionRepository, BATCH_SIZE, QUEUE_CAPACITY,
+            writtenCount -> { }, this::batchWritten);
+        try {
+            try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+                readAll(parser, writer, result, written);
+            } catch (JsonProcessingException e) {
+                result.setComplete(false);
+                reject(result, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (IllegalStateException e) {
+                // a batch failed to be written, which close() reports below
+            }
+        } finally {
+            try {
+                writer.close();
+            } catch (IllegalStateException e) {
+                result.setComplete(false);
+                result.setWriteError(e.getCause().toString());
+            }
+        }
+        // batches are acknowledged in order, and none is written after one failed
+        long createdCount = writer.getWrittenCount();
+        for (int i = 0; i < written.size(); i++) {
+            ItemStatus item = written.get(i);
+            if (i < createdCount) {
+                item.setStatus(ItemStatus.Status.CREATED);
+            } else {
+                item.setStatus(ItemStatus.Status.FAILED);
+                item.setMessage(result.getWriteError());
+            }
+        }
+        result.setCreated(createdCount);
+        result.setFailed(result.getFailed() + written.size() - createdCount);
+        log.debug("Bulk creation of Actions : {}", result);
+        return result;
+    }
+
+    private void batchWritten(List<Action> batch) {
+        actionRollupService.addAll(batch);
+        userActionIndexService.addAll(batch);
+        actionSnapshotService.addAll(batch);
+        batch.forEach(action -> actionIndexingService.submit(action.getId()));
+    }
+
+    private void readAll(JsonParser parser, BatchingActionWriter writer, ActionBulkResultDTO result,
+                         List<ItemStatus> written) throws IOException, InterruptedException {
+        JsonToken token = parser.nextToken();
+        boolean array = token == JsonToken.START_ARRAY;
+        if (array) {
+            token = parser.nextToken();
+        }
+        while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException("Expected an action object but found " + token,
+                    parser.getCurrentLocation());
+            }
+            JsonNode node = objectMapper.readTree(parser);
+            Action action = null;
+            try {
+                action = actionReader.readValue(node);
+            } catch (JsonProcessingException e) {
+                reject(result, e.getOriginalMessage());
+            }
+            if (action != null && validate(action, result)) {
+                action.setId(ObjectId.get().toString());
+                ItemStatus item = new ItemStatus(result.getReceived(), null, action.getId(), null);
+                writer.write(action);
+                written.add(item);
+                result.getItems().add(item);
+                result.setReceived(result.getReceived() + 1);
+            }
+            token = parser.nextToken();
+        }
+    }
+
+    private boolean validate(Action action, ActionBulkResultDTO result) {
+        if (action.getId() != null) {
+            reject(result, "A new action cannot already have an ID");
+            return false;
+        }
+        Set<ConstraintViolation<Action>> violations = validator.validate(action);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Action> violation = violations.iterator().next();
+            reject(result, violation.getPropertyPath() + ": " + violation.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private static void reject(ActionBulkResultDTO result, String message) {
+        result.getItems().add(new ItemStatus(result.getReceived(), ItemStatus.Status.REJECTED, null, message));
+        result.setReceived(result.getReceived() + 1);
+        result.setFailed(result.getFailed() + 1);
+    }
+}
@@ -0,0 +1,675 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.repository.search.SearchIndexSink;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mongodb.BasicDBObject;
+import com.mongodb.Bytes;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import org.bson.types.BSONTimestamp;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.AsyncResult;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Keeps the search index of actions in step with the action collection, from background threads.
+ * <p>
+ * Changes are learned by tailing the oplog of the replica set or else from the services that create, update and
+ * delete actions, including the bulk creation, the query jobs and the data loader, which submit the ids of the
+ * actions they write. In polling mode, which tailing falls back on when the database has no oplog,
+ * the actions with a last modification date since the previous poll are queued as well, so that those written by
+ * other means are found too, except deletions. Each poll looks again {@code pollLookBackMillis} before the newest
+ * date seen, for the writes committed late or stamped by a slower clock, and skips the actions already queued or
+ * indexed with the same date. Changes wait in a bounded queue, so the tailer, the poller and
+ * the writers of actions slow down once the index falls {@code queueCapacity} changes behind, and are written to the
+ * {@link SearchIndexSink} in bulk: the actions of a batch are read again, those found are indexed and the others
+ * deleted, so that several changes to an action coalesce and replaying a change is harmless. A failed bulk request
+ * is retried with an exponential backoff. The lag of the oldest pending change, the queue depth, and the numbers of
+ * indexed, deleted, retried and failed actions are published in the metrics registry, under
+ * {@code com.activebeancoders.fitness.service.ActionIndexingService}.
+ * </p>
+ */
+@Service
+public class ActionIndexingService {
+
+    private static final String OPLOG_DATABASE = "local";
+
+    private static final String OPLOG_COLLECTION = "oplog.rs";
+
+    private static final String LAST_MODIFIED_FIELD = "last_modified_date";
+
+    private final Logger log = LoggerFactory.getLogger(ActionIndexingService.class);
+
+    @Inject
+    private SearchIndexSink searchIndexSink;
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private BlockingQueue<Change> queue;
+
+    /**
+     * Changes queued but not written, or given up on, yet: those in the queue and those of the batch in flight.
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final AtomicBoolean reindexing = new AtomicBoolean();
+
+    /**
+     * When the oldest change of the batch in flight was made, or 0 if no batch is in flight.
+     */
+    private volatile long inFlightSinceMillis;
+
+    /**
+     * The last modification dates of the actions queued by the poller or indexed since the look-back window of the
+     * last poll, by id, so that the poller does not queue them again.
+     */
+    private final ConcurrentMap<String, Long> recentModifications = new ConcurrentHashMap<>();
+
+    private Meter indexedMeter;
+
+    private Meter deletedMeter;
+
+    private Counter retriedCounter;
+
+    private Counter failedCounter;
+
+    private Thread indexerThread;
+
+    private Thread tailerThread;
+
+    private volatile DBCursor oplogCursor;
+
+    private volatile boolean tailingOplog;
+
+    private volatile boolean polling;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        JHipsterProperties.Search searchProperties = jHipsterProperties.getSearch();
+        if (searchProperties.getQueueCapacity() < 1 || searchProperties.getBatchSize() < 1) {
+            throw new IllegalArgumentException("Search indexer queue capacity and batch size must be positive.");
+        }
+        queue = new ArrayBlockingQueue<>(searchProperties.getQueueCapacity());
+        indexedMeter = metricRegistry.meter(MetricRegistry.name(ActionIndexingService.class, "indexed"));
+        deletedMeter = metricRegistry.meter(MetricRegistry.name(ActionIndexingService.class, "deleted"));
+        retriedCounter = metricRegistry.counter(MetricRegistry.name(ActionIndexingService.class, "retried"));
+        failedCounter = metricRegistry.counter(MetricRegistry.name(ActionIndexingService.class, "failed"));
+        metricRegistry.register(MetricRegistry.name(ActionIndexingService.class, "queueDepth"),
+            (Gauge<Integer>) queue::size);
+        metricRegistry.register(MetricRegistry.name(ActionIndexingService.class, "lagMillis"),
+            (Gauge<Long>) this::getLagMillis);
+
+        running = true;
+        indexerThread = new Thread(this::indexContinuously, "action-indexer");
+        indexerThread.setDaemon(true);
+        indexerThread.start();
+
+        JHipsterProperties.Search.IndexerMode mode = searchProperties.getIndexerMode();
+        DBCollection oplog = mode == JHipsterProperties.Search.IndexerMode.OPLOG ? findOplog() : null;
+        tailingOplog = oplog != null;
+        polling = mode == JHipsterProperties.Search.IndexerMode.POLLING ||
+            mode == JHipsterProperties.Search.IndexerMode.OPLOG && !tailingOplog;
+        if (tailingOplog) {
+            tailerThread = new Thread(() -> tailContinuously(oplog), "action-oplog-tailer");
+        } else if (polling) {
+            tailerThread = new Thread(this::pollContinuously, "action-poller");
+        }
+        if (tailerThread != null) {
+            tailerThread.setDaemon(true);
+            tailerThread.start();
+        }
+        log.info("Indexing actions {}", tailingOplog ? "by tailing the oplog" : polling ?
+            "submitted by the services and by polling their last modification date" : "submitted by the services");
+    }
+
+    /**
+     * Stop tailing or polling, if either, and write the changes that are still queued.
+     */
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        DBCursor cursor = oplogCursor;
+        if (cursor != null) {
+            cursor.close();
+        }
+        if (tailerThread != null) {
+            tailerThread.interrupt();
+            tailerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        indexerThread.interrupt();
+        indexerThread.join(TimeUnit.SECONDS.toMillis(10));
+        List<Change> batch = new ArrayList<>(jHipsterProperties.getSearch().getBatchSize());
+        while (queue.drainTo(batch, jHipsterProperties.getSearch().getBatchSize()) > 0) {
+            write(batch);
+            batch.clear();
+        }
+        metricRegistry.removeMatching((name, metric) -> name.startsWith(ActionIndexingService.class.getName() + "."));
+    }
+
+    /**
+     * Queue an action that was created, updated or deleted, to be indexed again or removed from the index.
+     * <p>
+     * This waits while the queue is full. It does nothing when tailing the oplog, which already sees every change.
+     * When polling, it still reports deletions, which the poller can not see, and saves waiting for the next poll.
+     * </p>
+     *
+     * @param id the id of the action
+     */
+    public void submit(String id) {
+        if (tailingOplog) {
+            return;
+        }
+        try {
+            enqueue(id, System.currentTimeMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while queuing Action {} to be indexed", id);
+        }
+    }
+
+    /**
+     * Queue actions that were created, updated or deleted, to be indexed again or removed from the index.
+     *
+     * @param ids the ids of the actions
+     * @see #submit(String)
+     */
+    public void submitAll(Collection<String> ids) {
+        ids.forEach(this::submit);
+    }
+
+    /**
+     * Wait until the changes queued so far have been written to the index, or given up on.
+     *
+     * @param timeout the longest time to wait
+     * @param unit the unit of the timeout
+     * @return false if some changes were still pending after the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pendingCount.get() > 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * @return how long ago the oldest change that is not indexed yet was made, or 0 if the index is up to date
+     */
+    public long getLagMillis() {
+        long since = inFlightSinceMillis;
+        Change head = queue.peek();
+        if (head != null && (since == 0 || head.madeMillis < since)) {
+            since = head.madeMillis;
+        }
+        return since == 0 ? 0 : Math.max(0, System.currentTimeMillis() - since);
+    }
+
+    /**
+     * Rebuild the index from all the actions once the application has started, if it is empty while the action
+     * collection is not, such as when the index is kept in memory.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void reindexIfEmpty() {
+        if (searchIndexSink.count() == 0 && actionCollection().count() > 0) {
+            log.info("The action search index is empty, reindexing all the actions");
+            reindex();
+        }
+    }
+
+    /**
+     * Rebuild the index from all the actions, in the background.
+     * <p>
+     * The index is emptied, then the _ids of the actions are split into {@code reindexThreads} ranges, which are read
+     * with a cursor and indexed in bulk in parallel. Searches miss the actions that are not indexed again yet.
+     * </p>
+     *
+     * @return the number of actions indexed, or null if a reindex was already running
+     * @throws IllegalStateException if some actions could not be indexed
+     */
+    @Async
+    public Future<Long> reindex() {
+        if (!reindexing.compareAndSet(false, true)) {
+            log.warn("Action reindex already running");
+            return new AsyncResult<>(null);
+        }
+        try {
+            long startMillis = System.currentTimeMillis();
+            long count = reindexAll();
+            log.info("Reindexed {} Actions in {} ms", count, System.currentTimeMillis() - startMillis);
+            return new AsyncResult<>(count);
+        } finally {
+            reindexing.set(false);
+        }
+    }
+
+    public boolean isReindexing() {
+        return reindexing.get();
+    }
+
+    private long reindexAll() {
+        DBCollection actions = actionCollection();
+        List<DBObject> ranges = idRanges(actions, jHipsterProperties.getSearch().getReindexThreads());
+        searchIndexSink.deleteAll();
+        ExecutorService executor = Executors.newFixedThreadPool(ranges.size(),
+            new ThreadFactoryBuilder().setNameFormat("action-reindexer-%d").setDaemon(true).build());
+        try {
+            List<Future<Long>> counts = new ArrayList<>(ranges.size());
+            for (DBObject range : ranges) {
+                counts.add(executor.submit(() -> reindexRange(actions, range)));
+            }
+            long count = 0;
+            for (Future<Long> rangeCount : counts) {
+                count += rangeCount.get();
+            }
+            return count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reindexing actions", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not reindex actions", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long reindexRange(DBCollection actions, DBObject range) throws InterruptedException {
+        int batchSize = jHipsterProperties.getSearch().getBatchSize();
+        List<Action> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        try (DBCursor cursor = actions.find(range).batchSize(batchSize).addOption(Bytes.QUERYOPTION_NOTIMEOUT)) {
+            while (cursor.hasNext()) {
+                batch.add(mongoTemplate.getConverter().read(Action.class, cursor.next()));
+                if (batch.size() == batchSize) {
+                    retrying(() -> searchIndexSink.indexAll(batch));
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            retrying(() -> searchIndexSink.indexAll(batch));
+            count += batch.size();
+        }
+        return count;
+    }
+
+    /**
+     * Split the actions into ranges of _ids of about the same time span, or into a single range if they are too
+     * few or their _ids are not all ObjectIds.
+     */
+    private static List<DBObject> idRanges(DBCollection actions, int count) {
+        List<DBObject> ranges = new ArrayList<>(Math.max(count, 1));
+        Object first = idAt(actions, 1);
+        Object last = idAt(actions, -1);
+        if (count <= 1 || !(first instanceof ObjectId) || !(last instanceof ObjectId)) {
+            ranges.add(new BasicDBObject());
+            return ranges;
+        }
+        int firstSecond = ((ObjectId) first).getTimestamp();
+        long span = (long) ((ObjectId) last).getTimestamp() - firstSecond + 1;
+        ObjectId lower = null;
+        for (int i = 1; i < count; i++) {
+            int second = firstSecond + (int) (span * i / count);
+            if (second <= (lower == null ? firstSecond : lower.getTimestamp())) {
+                continue;
+            }
+            ObjectId upper = new ObjectId(ByteBuffer.allocate(12).putInt(second).array());
+            BasicDBObject bounds = new BasicDBObject("$lt", upper);
+            if (lower != null) {
+                bounds.append("$gte", lower);
+            }
+            ranges.add(new BasicDBObject("_id", bounds));
+            lower = upper;
+        }
+        ranges.add(lower == null ? new BasicDBObject() : new BasicDBObject("_id", new BasicDBObject("$gte", lower)));
+        return ranges;
+    }
+
+    private void indexContinuously() {
+        JHipsterProperties.Search searchProperties = jHipsterProperties.getSearch();
+        List<Change> batch = new ArrayList<>(searchProperties.getBatchSize());
+        while (running) {
+            try {
+                Change first = queue.poll(searchProperties.getPollIntervalMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // give a burst of changes the poll interval to fill up the batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(searchProperties.getPollIntervalMillis());
+                while (batch.size() < searchProperties.getBatchSize()) {
+                    queue.drainTo(batch, searchProperties.getBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= searchProperties.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    Change next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // stopping: the batch is written below, and the queue by destroy()
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Change> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        long since = Long.MAX_VALUE;
+        for (Change change : batch) {
+            ids.add(change.id);
+            since = Math.min(since, change.madeMillis);
+        }
+        inFlightSinceMillis = since;
+        try {
+            retrying(() -> {
+                List<Action> found = mongoTemplate.find(query(where("id").in(ids)), Action.class);
+                Set<String> deleted = new HashSet<>(ids);
+                found.forEach(action -> deleted.remove(action.getId()));
+                if (polling) {
+                    found.stream().filter(action -> action.getLastModifiedDate() != null).forEach(action ->
+                        recentModifications.merge(action.getId(),
+                            action.getLastModifiedDate().toInstant().toEpochMilli(), Math::max));
+                }
+                if (!found.isEmpty()) {
+                    searchIndexSink.indexAll(found);
+                }
+                if (!deleted.isEmpty()) {
+                    searchIndexSink.deleteAll(deleted);
+                }
+                indexedMeter.mark(found.size());
+                deletedMeter.mark(deleted.size());
+            });
+        } catch (InterruptedException | RuntimeException e) {
+            failedCounter.inc(ids.size());
+            log.error("Failed to index a batch of {} Actions", ids.size(), e);
+        } finally {
+            inFlightSinceMillis = 0;
+            pendingCount.addAndGet(-batch.size());
+        }
+    }
+
+    /**
+     * Run a bulk request, and run it again after an exponential backoff each time it fails, up to
+     * {@code maxRetries} times.
+     */
+    private void retrying(Runnable request) throws InterruptedException {
+        JHipsterProperties.Search searchProperties = jHipsterProperties.getSearch();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                request.run();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= searchProperties.getMaxRetries()) {
+                    throw e;
+                }
+                long backoffMillis = searchProperties.getRetryBackoffMillis() << attempt;
+                retriedCounter.inc();
+                log.warn("Bulk request to the action search index failed, retrying in {} ms: {}", backoffMillis,
+                    e.toString());
+                Thread.sleep(backoffMillis);
+            }
+        }
+    }
+
+    /**
+     * @return the oplog of the replica set, or null if the database is not part of one
+     */
+    private DBCollection findOplog() {
+        try {
+            DB local = mongoTemplate.getDb().getMongo().getDB(OPLOG_DATABASE);
+            if (local.collectionExists(OPLOG_COLLECTION)) {
+                return local.getCollection(OPLOG_COLLECTION);
+            }
+            log.warn("The database has no oplog, polling for modified actions instead");
+        } catch (MongoException e) {
+            log.warn("Could not read the oplog, polling for modified actions instead: {}", e.toString());
+        }
+        return null;
+    }
+
+    private void tailContinuously(DBCollection oplog) {
+        String namespace = mongoTemplate.getDb().getName() + "." + mongoTemplate.getCollectionName(Action.class);
+        BSONTimestamp lastTimestamp = null;
+        boolean started = false;
+        while (running) {
+            try {
+                if (!started) {
+                    // start after the newest entry, as the actions that exist at startup are indexed already
+                    try (DBCursor newest = oplog.find().sort(new BasicDBObject("$natural", -1)).limit(1)) {
+                        lastTimestamp = newest.hasNext() ? (BSONTimestamp) newest.next().get("ts") : null;
+                    }
+                    started = true;
+                }
+                lastTimestamp = tailOplog(oplog, namespace, lastTimestamp);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Tailing the oplog failed after {}: {}", lastTimestamp, e.toString());
+            }
+            try {
+                // the cursor died or was never opened, such as when the oplog was empty
+                Thread.sleep(jHipsterProperties.getSearch().getPollIntervalMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queue the actions changed by the oplog entries after the given one, until the tailable cursor dies.
+     *
+     * @return the timestamp of the last entry read, or the given one if there was none
+     */
+    private BSONTimestamp tailOplog(DBCollection oplog, String namespace, BSONTimestamp lastTimestamp)
+        throws InterruptedException {
+        BasicDBObject entries = new BasicDBObject("ns", namespace);
+        if (lastTimestamp != null) {
+            entries.append("ts", new BasicDBObject("$gt", lastTimestamp));
+        }
+        DBCursor cursor = oplog.find(entries)
+            .addOption(Bytes.QUERYOPTION_TAILABLE)
+            .addOption(Bytes.QUERYOPTION_AWAITDATA);
+        if (lastTimestamp != null) {
+            cursor.addOption(Bytes.QUERYOPTION_OPLOGREPLAY);
+        }
+        oplogCursor = cursor;
+        try {
+            while (running && cursor.hasNext()) {
+                DBObject entry = cursor.next();
+                lastTimestamp = (BSONTimestamp) entry.get("ts");
+                Object id = changedId(entry);
+                if (id != null) {
+                    enqueue(id.toString(), lastTimestamp.getTime() * 1000L);
+                }
+            }
+        } finally {
+            oplogCursor = null;
+            cursor.close();
+        }
+        return lastTimestamp;
+    }
+
+    private void pollContinuously() {
+        DBCollection actions = actionCollection();
+        Long newestMillis = null;
+        while (running) {
+            try {
+                if (newestMillis == null) {
+                    // actions that exist at startup are indexed already, or by a reindex
+                    newestMillis = newestModificationMillis(actions);
+                }
+                newestMillis = pollModifiedActions(actions, newestMillis);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Polling for modified actions failed: {}", e.toString());
+            }
+            try {
+                Thread.sleep(jHipsterProperties.getSearch().getPollIntervalMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queue the actions modified since the look-back window before the given date, except those already queued or
+     * indexed with the same modification date.
+     *
+     * @return the newest modification date seen, in milliseconds, or the given one if there was none newer
+     */
+    private long pollModifiedActions(DBCollection actions, long newestMillis) throws InterruptedException {
+        long sinceMillis = newestMillis - jHipsterProperties.getSearch().getPollLookBackMillis();
+        recentModifications.values().removeIf(millis -> millis < sinceMillis);
+        DBObject modified = new BasicDBObject(LAST_MODIFIED_FIELD, new BasicDBObject("$gte", new Date(sinceMillis)));
+        try (DBCursor cursor = actions.find(modified, new BasicDBObject(LAST_MODIFIED_FIELD, 1))
+            .batchSize(jHipsterProperties.getSearch().getBatchSize())) {
+            while (running && cursor.hasNext()) {
+                DBObject action = cursor.next();
+                String id = action.get("_id").toString();
+                long millis = ((Date) action.get(LAST_MODIFIED_FIELD)).getTime();
+                Long seenMillis = recentModifications.get(id);
+                if (seenMillis == null || seenMillis < millis) {
+                    recentModifications.merge(id, millis, Math::max);
+                    enqueue(id, millis);
+                }
+                newestMillis = Math.max(newestMillis, millis);
+            }
+        }
+        return newestMillis;
+    }
+
+    /**
+     * @return the newest last modification date of the actions, in milliseconds, or 0 if there is none
+     */
+    private static long newestModificationMillis(DBCollection actions) {
+        try (DBCursor cursor = actions.find(new BasicDBObject(), new BasicDBObject(LAST_MODIFIED_FIELD, 1))
+            .sort(new BasicDBObject(LAST_MODIFIED_FIELD, -1))
+            .limit(1)) {
+            Object date = cursor.hasNext() ? cursor.next().get(LAST_MODIFIED_FIELD) : null;
+            return date instanceof Date ? ((Date) date).getTime() : 0;
+        }
+    }
+
+    /**
+     * @return the _id of the document inserted, updated or deleted by an oplog entry, or null for other entries
+     */
+    private static Object changedId(DBObject entry) {
+        Object operation = entry.get("op");
+        Object document;
+        if ("i".equals(operation) || "d".equals(operation)) {
+            document = entry.get("o");
+        } else if ("u".equals(operation)) {
+            document = entry.get("o2");
+        } else {
+            return null;
+        }
+        return document instanceof DBObject ? ((DBObject) document).get("_id") : null;
+    }
+
+    private void enqueue(String id, long madeMillis) throws InterruptedException {
+        pendingCount.incrementAndGet();
+        try {
+            queue.put(new Change(id, madeMillis));
+        } catch (InterruptedException e) {
+            pendingCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private DBCollection actionCollection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Action.class));
+    }
+
+    /**
+     * @return the smallest _id of the actions if direction is 1, the greatest if it is -1, or null if there is none
+     */
+    private static Object idAt(DBCollection actions, int direction) {
+        try (DBCursor cursor = actions.find(new BasicDBObject(), new BasicDBObject("_id", 1))
+            .sort(new BasicDBObject("_id", direction))
+            .limit(1)) {
+            return cursor.hasNext() ? cursor.next().get("_id") : null;
+        }
+    }
+
+    /**
+     * An action that was created, updated or deleted.
+     */
+    private static final class Change {
+
+        private final String id;
+
+        private final long madeMillis;
+
+        private Change(String id, long madeMillis) {
+            this.id = id;
+            this.madeMillis = madeMillis;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.domain.ActionQueryJob;
+import com.activebeancoders.fitness.domain.enumeration.ActionQueryJobStatus;
+import com.activebeancoders.fitness.domain.enumeration.ActionQueryOperation;
+import com.activebeancoders.fitness.repository.ActionQueryJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.AsyncResult;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Future;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Service for deleting or updating all the actions that match a query.
+ * <p>
+ * Jobs run in the background, one chunk of actions at a time, in the order of their IDs. Each chunk is deleted or
+ * updated with a single multi-document operation on the IDs of its actions, after which the rollups of the chunk
+ * are adjusted, its actions are evicted from the cache and queued to be indexed, and the progress of the job is
+ * saved. A job that was
+ * interrupted by a restart resumes after its last chunk.
+ * </p>
+ */
+@Service
+public class ActionQueryJobService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(ActionQueryJobService.class);
+
+    @Inject
+    private ActionQueryJobRepository actionQueryJobRepository;
+
+    @Inject
+    private ActionRollupService actionRollupService;
+
+    @Inject
+    private ActionIndexingService actionIndexingService;
+
+    @Inject
+    private UserActionIndexService userActionIndexService;
+
+    @Inject
+    private ActionSnapshotService actionSnapshotService;
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    /**
+     * Resume the jobs that were still running when the application was last stopped, one after the other on the
+     * async executor.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        for (ActionQueryJob job : actionQueryJobRepository.findAllByStatus(ActionQueryJobStatus.RUNNING)) {
+            log.info("Resuming interrupted action query job {}", job.getId());
+            run(job);
+        }
+    }
+
+    /**
+     * Create a running job, counting the actions that match its query. The job does not start until it is
+     * {@link #run(ActionQueryJob) run}.
+     *
+     * @param job the operation, query and new values of the job
+     * @return the persisted job
+     */
+    public ActionQueryJob create(ActionQueryJob job) {
+        job.setStatus(ActionQueryJobStatus.RUNNING);
+        job.setTotal(mongoTemplate.count(matching(job, null), Action.class));
+        job.setAffected(0);
+        job.setLastId(null);
+        job.setErrorMessage(null);
+        job = actionQueryJobRepository.save(job);
+        log.debug("Created action query job: {}", job);
+        return job;
+    }
+
+    /**
+     * Run a job from after its last chunk, on the async executor.
+     *
+     * @param job a job with the RUNNING status
+     * @return the job as it ends, whether completed or failed
+     */
+    @Async
+    public Future<ActionQueryJob> run(ActionQueryJob job) {
+        long startMillis = System.currentTimeMillis();
+        Cache cache = cacheManager.getCache(ActionService.ACTIONS_CACHE);
+        try {
+            String lastId = job.getLastId();
+            List<Action> chunk;
+            do {
+                chunk = mongoTemplate.find(matching(job, lastId)
+                    .with(new Sort(Sort.Direction.ASC, "id"))
+                    .limit(CHUNK_SIZE), Action.class);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                List<String> ids = new ArrayList<>(chunk.size());
+                chunk.forEach(action -> ids.add(action.getId()));
+                lastId = ids.get(ids.size() - 1);
+                int affected = process(job, chunk, ids);
+                if (cache != null) {
+                    ids.forEach(cache::evict);
+                }
+                mongoTemplate.updateFirst(query(where("id").is(job.getId())),
+                    new Update().inc("affected", affected).set("last_id", lastId), ActionQueryJob.class);
+            } while (chunk.size() == CHUNK_SIZE);
+            mongoTemplate.updateFirst(query(where("id").is(job.getId())),
+                new Update().set("status", ActionQueryJobStatus.COMPLETED), ActionQueryJob.class);
+        } catch (RuntimeException e) {
+            log.error("Action query job {} failed", job.getId(), e);
+            mongoTemplate.updateFirst(query(where("id").is(job.getId())),
+                new Update().set("status", ActionQueryJobStatus.FAILED).set("error_message", e.toString()),
+                ActionQueryJob.class);
+        }
+        ActionQueryJob result = actionQueryJobRepository.findOne(job.getId());
+        log.info("Action query job {} ended as {} after {} of {} actions in {} ms", job.getId(), result.getStatus(),
+            result.getAffected(), result.getTotal(), System.currentTimeMillis() - startMillis);
+        return new AsyncResult<>(result);
+    }
+
+    public List<ActionQueryJob> findAll() {
+        return actionQueryJobRepository.findAll();
+    }
+
+    public Optional<ActionQueryJob> findOne(String id) {
+        return Optional.ofNullable(actionQueryJobRepository.findOne(id));
+    }
+
+    /**
+     * Delete or update the actions of a chunk, move their values out of their rollups, the index of each user's
+     * actions and the analytics snapshot, or to the rollups of their new type and the snapshot, and queue them to be
+     * removed from the full-text index, or indexed with their new comment.
+     *
+     * @return the number of actions deleted or updated
+     */
+    private int process(ActionQueryJob job, List<Action> chunk, List<String> ids) {
+        Query chunkQuery = query(where("id").in(ids));
+        if (job.getOperation() == ActionQueryOperation.DELETE) {
+            int deleted = mongoTemplate.remove(chunkQuery, Action.class).getN();
+            actionRollupService.subtractAll(chunk);
+            userActionIndexService.removeAll(chunk);
+            actionSnapshotService.removeAll(ids);
+            actionIndexingService.submitAll(ids);
+            return deleted;
+        }
+        Update update = new Update().set("lastModifiedDate", ZonedDateTime.now());
+        if (job.getNewType() != null) {
+            update.set("type", job.getNewType());
+        }
+        if (job.getNewUnit() != null) {
+            update.set("unit", job.getNewUnit());
+        }
+        if (job.getNewComment() != null) {
+            update.set("comment", job.getNewComment());
+        }
+        int updated = mongoTemplate.updateMulti(chunkQuery, update, Action.class).getN();
+        if (job.getNewType() != null) {
+            actionRollupService.subtractAll(chunk);
+            chunk.forEach(action -> action.setType(job.getNewType()));
+            actionRollupService.addAll(chunk);
+        }
+        if (job.getNewType() != null || job.getNewUnit() != null) {
+            if (job.getNewUnit() != null) {
+                chunk.forEach(action -> action.setUnit(job.getNewUnit()));
+            }
+            actionSnapshotService.addAll(chunk);
+        }
+        if (job.getNewComment() != null) {
+            actionIndexingService.submitAll(ids);
+        }
+        return updated;
+    }
+
+    private static Query matching(ActionQueryJob job, String afterId) {
+        Query query = new Query();
+        if (afterId != null) {
+            query.addCriteria(where("id").gt(afterId));
+        }
+        if (job.getUserId() != null) {
+            query.addCriteria(where("userId").is(job.getUserId()));
+        }
+        if (job.getType() != null) {
+            query.addCriteria(where("type").is(job.getType()));
+        }
+        if (job.getFrom() != null || job.getTo() != null) {
+            Criteria start = where("start");
+            if (job.getFrom() != null) {
+                start.gte(Date.from(job.getFrom().toInstant()));
+            }
+            if (job.getTo() != null) {
+                start.lt(Date.from(job.getTo().toInstant()));
+            }
+            query.addCriteria(start);
+        }
+        return query;
+    }
+}
@@ -0,0 +1,295 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.domain.ActionRollup;
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import com.mongodb.AggregationOptions;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.Cursor;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.AsyncResult;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Service for maintaining the daily rollups of actions.
+ * <p>
+ * Rollups are kept up to date incrementally: every change of an action adds its values to the rollup of its day,
+ * or subtracts them, with a single {@code $inc} upsert. Actions written around this service, such as random data
+ * loads, are only accounted for by a {@link #rebuild() rebuild}.
+ * </p>
+ */
+@Service
+public class ActionRollupService {
+
+    private final Logger log = LoggerFactory.getLogger(ActionRollupService.class);
+
+    private static final String REBUILD_COLLECTION = "action_rollup_rebuild";
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * Add the values of an action to the rollup of its day.
+     *
+     * @param action the action that was created, or the new state of an updated action
+     */
+    public void add(Action action) {
+        increment(action, 1);
+    }
+
+    /**
+     * Add the values of new actions to the rollups of their days, with one unordered bulk write of one upsert per
+     * rollup, rather than one upsert per action.
+     *
+     * @param actions the actions that were created
+     */
+    public void addAll(List<Action> actions) {
+        incrementAll(actions, 1);
+    }
+
+    /**
+     * Subtract the values of actions from the rollups of their days, with one unordered bulk write of one upsert per
+     * rollup.
+     *
+     * @param actions the actions that were deleted, or the previous state of updated actions
+     */
+    public void subtractAll(List<Action> actions) {
+        incrementAll(actions, -1);
+    }
+
+    /**
+     * Subtract the values of an action from the rollup of its day.
+     *
+     * @param action the action that was deleted, or the previous state of an updated action
+     */
+    public void subtract(Action action) {
+        increment(action, -1);
+    }
+
+    /**
+     * Get the daily rollups of a user, in chronological order.
+     *
+     * @param userId the id of the user
+     * @param fromDay the first day, or null for no lower bound
+     * @param toDay the last day, inclusive, or null for no upper bound
+     * @return one rollup per day and per action type with at least one action
+     */
+    public List<ActionRollup> findByUser(Long userId, LocalDate fromDay, LocalDate toDay) {
+        log.debug("Request to get the ActionRollups of user {} from {} to {}", userId, fromDay, toDay);
+        Criteria criteria = where("userId").is(userId).and("count").gt(0);
+        if (fromDay != null || toDay != null) {
+            criteria = criteria.and("day");
+            if (fromDay != null) {
+                criteria = criteria.gte(fromDay);
+            }
+            if (toDay != null) {
+                criteria = criteria.lte(toDay);
+            }
+        }
+        Query query = query(criteria).with(new Sort(Sort.Direction.ASC, "day", "type"));
+        return mongoTemplate.find(query, ActionRollup.class);
+    }
+
+    /**
+     * Recompute all the rollups from the actions, in the background.
+     * <p>
+     * Rollups are aggregated into a new collection which then replaces the current one, so reads see either the old
+     * or the new rollups. Changes made to actions while the rebuild runs may not be accounted for.
+     * </p>
+     *
+     * @return the number of rollups, or null if a rebuild was already running
+     */
+    @Async
+    public Future<Long> rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.warn("ActionRollup rebuild already running");
+            return new AsyncResult<>(null);
+        }
+        try {
+            long startMillis = System.currentTimeMillis();
+            long count = rebuildInto(REBUILD_COLLECTION);
+            mongoTemplate.getCollection(REBUILD_COLLECTION)
+                .rename(mongoTemplate.getCollectionName(ActionRollup.class), true);
+            log.info("Rebuilt {} ActionRollups in {} ms", count, System.currentTimeMillis() - startMillis);
+            return new AsyncResult<>(count);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    private long rebuildInto(String collectionName) {
+        mongoTemplate.dropCollection(collectionName);
+        DBCollection target = mongoTemplate.getCollection(collectionName);
+        mongoTemplate.indexOps(collectionName).ensureIndex(
+            new Index().on("user_id", Sort.Direction.ASC).on("day", Sort.Direction.ASC).named("user_id_1_day_1"));
+
+        List<DBObject> pipeline = Arrays.asList(
+            new BasicDBObject("$match", new BasicDBObject("user_id", new BasicDBObject("$ne", null))
+                .append("start", new BasicDBObject("$ne", null))),
+            new BasicDBObject("$group", new BasicDBObject("_id", new BasicDBObject("user_id", "$user_id")
+                .append("type", "$type")
+                .append("year", new BasicDBObject("$year", "$start"))
+                .append("month", new BasicDBObject("$month", "$start"))
+                .append("day", new BasicDBObject("$dayOfMonth", "$start")))
+                .append("count", new BasicDBObject("$sum", 1))
+                .append("distance", new BasicDBObject("$sum", "$distance"))
+                .append("duration", new BasicDBObject("$sum", "$duration"))));
+        AggregationOptions options = AggregationOptions.builder()
+            .allowDiskUse(true)
+            .outputMode(AggregationOptions.OutputMode.CURSOR)
+            .build();
+
+        long count = 0;
+        BulkWriteOperation bulk = target.initializeUnorderedBulkOperation();
+        int pending = 0;
+        try (Cursor cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Action.class))
+            .aggregate(pipeline, options)) {
+            while (cursor.hasNext()) {
+                DBObject group = cursor.next();
+                DBObject key = (DBObject) group.get("_id");
+                ActionRollup rollup = new ActionRollup();
+                rollup.setUserId(((Number) key.get("user_id")).longValue());
+                rollup.setType(key.get("type") == null ? null : ActionType.valueOf((String) key.get("type")));
+                rollup.setDay(LocalDate.of(((Number) key.get("year")).intValue(),
+                    ((Number) key.get("month")).intValue(), ((Number) key.get("day")).intValue()));
+                rollup.setId(ActionRollup.idOf(rollup.getUserId(), rollup.getType(), rollup.getDay()));
+                rollup.setCount(((Number) group.get("count")).longValue());
+                rollup.setDistance(((Number) group.get("distance")).doubleValue());
+                rollup.setDuration(((Number) group.get("duration")).longValue());
+                BasicDBObject dbObject = new BasicDBObject();
+                mongoTemplate.getConverter().write(rollup, dbObject);
+                bulk.insert(dbObject);
+                count++;
+                if (++pending == REBUILD_BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = target.initializeUnorderedBulkOperation();
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        return count;
+    }
+
+    private void incrementAll(List<Action> actions, int sign) {
+        Map<String, ActionRollup> increments = new LinkedHashMap<>();
+        for (Action action : actions) {
+            if (action.getUserId() == null || action.getStart() == null) {
+                continue;
+            }
+            LocalDate day = action.getStart().withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+            ActionRollup increment = increments.computeIfAbsent(ActionRollup.idOf(action.getUserId(),
+                action.getType(), day), id -> {
+                ActionRollup rollup = new ActionRollup();
+                rollup.setId(id);
+                rollup.setUserId(action.getUserId());
+                rollup.setType(action.getType());
+                rollup.setDay(day);
+                rollup.setCount(0L);
+                rollup.setDistance(0D);
+                rollup.setDuration(0L);
+                return rollup;
+            });
+            increment.setCount(increment.getCount() + sign);
+            increment.setDistance(increment.getDistance() +
+                sign * (action.getDistance() == null ? 0D : action.getDistance()));
+            increment.setDuration(increment.getDuration() +
+                sign * (action.getDuration() == null ? 0 : action.getDuration()));
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+        List<ActionRollup> pending = new ArrayList<>(increments.values());
+        DBCollection collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(ActionRollup.class));
+        try {
+            upsertAll(collection, pending);
+        } catch (BulkWriteException e) {
+            if (e.getWriteConcernError() != null || e.getWriteErrors().stream()
+                .anyMatch(error -> error.getCode() != DUPLICATE_KEY_ERROR_CODE)) {
+                throw e;
+            }
+            // concurrent upserts created some of the rollups first, so these ones now update them
+            List<ActionRollup> retries = new ArrayList<>(e.getWriteErrors().size());
+            for (BulkWriteError error : e.getWriteErrors()) {
+                retries.add(pending.get(error.getIndex()));
+            }
+            upsertAll(collection, retries);
+        }
+    }
+
+    private void upsertAll(DBCollection collection, List<ActionRollup> increments) {
+        BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+        for (ActionRollup increment : increments) {
+            Update update = new Update()
+                .inc("count", increment.getCount())
+                .inc("distance", increment.getDistance())
+                .inc("duration", increment.getDuration())
+                .setOnInsert("user_id", increment.getUserId())
+                .setOnInsert("type", increment.getType() == null ? null : increment.getType().name())
+                .setOnInsert("day", mongoTemplate.getConverter().convertToMongoType(increment.getDay()));
+            bulk.find(new BasicDBObject("_id", increment.getId())).upsert().updateOne(update.getUpdateObject());
+        }
+        bulk.execute();
+    }
+
+    private void increment(Action action, int sign) {
+        if (action.getUserId() == null || action.getStart() == null) {
+            return;
+        }
+        LocalDate day = action.getStart().withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+        String id = ActionRollup.idOf(action.getUserId(), action.getType(), day);
+        Update update = new Update()
+            .inc("count", sign)
+            .inc("distance", sign * (action.getDistance() == null ? 0D : action.getDistance()))
+            .inc("duration", sign * (action.getDuration() == null ? 0 : action.getDuration()))
+            .setOnInsert("user_id", action.getUserId())
+            .setOnInsert("type", action.getType() == null ? null : action.getType().name())
+            .setOnInsert("day", mongoTemplate.getConverter().convertToMongoType(day));
+        try {
+            mongoTemplate.upsert(query(where("id").is(id)), update, ActionRollup.class);
+        } catch (DuplicateKeyException e) {
+            // a concurrent upsert created the rollup first, so this one now updates it
+            mongoTemplate.upsert(query(where("id").is(id)), update, ActionRollup.class);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.search.ActionSearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Service Implementation for managing Action.
+ * <p>
+ * Every change goes through this service so that the daily rollups of actions, the cache of single actions, the
+ * index of the actions of each user, and the full-text index of their comments stay up to date.
+ * </p>
+ */
+@Service
+public class ActionService {
+
+    public static final String ACTIONS_CACHE = "actions";
+
+    private final Logger log = LoggerFactory.getLogger(ActionService.class);
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private ActionRollupService actionRollupService;
+
+    @Inject
+    private ActionSearchRepository actionSearchRepository;
+
+    @Inject
+    private ActionIndexingService actionIndexingService;
+
+    @Inject
+    private UserActionIndexService userActionIndexService;
+
+    @Inject
+    private ActionSnapshotService actionSnapshotService;
+
+    /**
+     * Save a action, move its values from the rollup of its previous state to the rollup of its new state, and
+     * queue it to be indexed.
+     *
+     * @param action the entity to save
+     * @return the persisted entity
+     */
+    @CachePut(cacheNames = ACTIONS_CACHE, key = "#result.id")
+    public Action save(Action action) {
+        log.debug("Request to save Action : {}", action);
+        Action previous = action.getId() == null ? null : actionRepository.findOne(action.getId());
+        Action result = actionRepository.save(action);
+        if (previous != null) {
+            actionRollupService.subtract(previous);
+            userActionIndexService.remove(previous);
+        }
+        actionRollupService.add(result);
+        userActionIndexService.add(result);
+        actionSnapshotService.add(result);
+        actionIndexingService.submit(result.getId());
+        return result;
+    }
+
+    /**
+     *  Get all the actions.
+     *
+     *  @param pageable the pagination information
+     *  @return the list of entities
+     */
+    public Page<Action> findAll(Pageable pageable) {
+        log.debug("Request to get all Actions");
+        return actionRepository.findAll(pageable);
+    }
+
+    /**
+     *  Search for the actions whose comment matches a full-text query, best match first.
+     *
+     *  @param query the full-text query, in the Lucene syntax
+     *  @param pageable the pagination information
+     *  @return the page of entities
+     *  @throws IllegalArgumentException if the query is malformed, or if the page ends beyond the first
+     *  {@value ActionSearchRepository#MAX_RESULT_WINDOW} matches
+     */
+    public Page<Action> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Actions for query {}", query);
+        Page<String> ids = actionSearchRepository.search(query, pageable);
+        Map<String, Action> actions = new HashMap<>();
+        actionRepository.findAll(ids.getContent()).forEach(action -> actions.put(action.getId(), action));
+        List<Action> content = ids.getContent().stream()
+            .map(actions::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    /**
+     *  Get one action by id.
+     *
+     *  @param id the id of the entity
+     *  @return the entity, or null if there is none
+     */
+    @Cacheable(cacheNames = ACTIONS_CACHE, unless = "#result == null")
+    public Action findOne(String id) {
+        log.debug("Request to get Action : {}", id);
+        return actionRepository.findOne(id);
+    }
+
+    /**
+     *  Delete the action by id, subtract its values from its rollup, and queue it to be removed from the full-text
+     *  index.
+     *
+     *  @param id the id of the entity
+     */
+    @CacheEvict(cacheNames = ACTIONS_CACHE)
+    public void delete(String id) {
+        log.debug("Request to delete Action : {}", id);
+        Action previous = actionRepository.findOne(id);
+        if (previous == null) {
+            return;
+        }
+        actionRepository.delete(id);
+        actionRollupService.subtract(previous);
+        userActionIndexService.remove(previous);
+        actionSnapshotService.remove(id);
+        actionIndexingService.submit(id);
+    }
+}
@@ -0,0 +1,218 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import com.activebeancoders.fitness.repository.ActionCriteria;
+import com.activebeancoders.fitness.service.analytics.ActionColumnStore;
+import com.activebeancoders.fitness.service.analytics.ActionColumns;
+import com.activebeancoders.fitness.web.rest.dto.ActionAnalyticsDTO;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Service for ad-hoc analytics of the actions, on an in-process columnar snapshot of the action collection, enabled
+ * by {@code jhipster.analytics.enabled}.
+ * <p>
+ * The snapshot is loaded on the first refresh, and is kept up to date by the services that create, update and
+ * delete actions, like the index of each user's actions, including while it loads. Their changes are applied to the
+ * store at once, and show up in the snapshot on the next refresh, within
+ * {@code jhipster.analytics.refreshIntervalMillis}. An action deleted just as the load reads it may stay in the
+ * snapshot until the periodic rebuild, every {@code jhipster.analytics.rebuildIntervalMillis}, which loads a new
+ * snapshot while queries keep using the old one, and drops the rows of updated and deleted actions.
+ * </p>
+ */
+@Service
+public class ActionSnapshotService {
+
+    private static final int CURSOR_BATCH_SIZE = 10000;
+
+    private static final DBObject FIELDS = new BasicDBObject("user_id", 1)
+        .append("start", 1)
+        .append("duration", 1)
+        .append("distance", 1)
+        .append("type", 1)
+        .append("unit", 1);
+
+    private final Logger log = LoggerFactory.getLogger(ActionSnapshotService.class);
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private volatile ActionColumnStore store = new ActionColumnStore();
+
+    /**
+     * The store being loaded, if any, which changes are also applied to.
+     */
+    private volatile ActionColumnStore loading;
+
+    private volatile boolean loaded;
+
+    private volatile boolean changed;
+
+    private volatile ActionColumns columns = store.snapshot();
+
+    /**
+     * Take a new snapshot if actions changed since the last one, or load the first one.
+     */
+    @Scheduled(fixedDelayString = "${jhipster.analytics.refreshIntervalMillis:10000}")
+    public synchronized void refresh() {
+        if (!jHipsterProperties.getAnalytics().isEnabled()) {
+            return;
+        }
+        if (!loaded) {
+            rebuild();
+        } else if (changed) {
+            changed = false;
+            ActionColumnStore current = store;
+            synchronized (current) {
+                columns = current.snapshot();
+            }
+        }
+    }
+
+    /**
+     * Load a new snapshot of all the actions, without the rows of the actions updated or deleted since the last one.
+     */
+    @Scheduled(initialDelayString = "${jhipster.analytics.rebuildIntervalMillis:3600000}",
+        fixedDelayString = "${jhipster.analytics.rebuildIntervalMillis:3600000}")
+    public synchronized void rebuild() {
+        if (!jHipsterProperties.getAnalytics().isEnabled()) {
+            return;
+        }
+        long startMillis = System.currentTimeMillis();
+        ActionColumnStore next = new ActionColumnStore();
+        loading = next;
+        try {
+            try (DBCursor cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Action.class))
+                .find(new BasicDBObject(), FIELDS)
+                .batchSize(CURSOR_BATCH_SIZE)) {
+                while (cursor.hasNext()) {
+                    DBObject action = cursor.next();
+                    String id = action.get("_id").toString();
+                    Number userId = (Number) action.get("user_id");
+                    Date start = (Date) action.get("start");
+                    Number duration = (Number) action.get("duration");
+                    Number distance = (Number) action.get("distance");
+                    Object type = action.get("type");
+                    synchronized (next) {
+                        // a change applied while loading is at least as recent as what the cursor read
+                        if (!next.contains(id)) {
+                            next.append(id,
+                                userId == null ? null : userId.longValue(),
+                                start == null ? null : start.getTime(),
+                                duration == null ? null : duration.intValue(),
+                                distance == null ? null : distance.doubleValue(),
+                                type == null ? null : ActionType.valueOf(type.toString()),
+                                (String) action.get("unit"));
+                        }
+                    }
+                }
+            }
+            synchronized (next) {
+                columns = next.snapshot();
+            }
+            store = next;
+            loaded = true;
+        } finally {
+            // only once the new store is in use, so that no change is applied to the old one alone
+            loading = null;
+        }
+        log.info("Rebuilt the snapshot of {} Actions in {} ms", columns.size(), System.currentTimeMillis() - startMillis);
+    }
+
+    /**
+     * Add an action to the snapshot, in place of its previous state if it was in it.
+     *
+     * @param action the action that was created, or the new state of an updated action
+     */
+    public void add(Action action) {
+        if (jHipsterProperties.getAnalytics().isEnabled() && action.getId() != null) {
+            ActionColumnStore next = loading;
+            append(store, action);
+            if (next != null) {
+                append(next, action);
+            }
+            changed = true;
+        }
+    }
+
+    /**
+     * Add actions to the snapshot.
+     *
+     * @param actions the actions that were created or updated
+     */
+    public void addAll(List<Action> actions) {
+        actions.forEach(this::add);
+    }
+
+    /**
+     * Remove an action from the snapshot.
+     *
+     * @param id the id of the action that was deleted
+     */
+    public void remove(String id) {
+        if (jHipsterProperties.getAnalytics().isEnabled()) {
+            ActionColumnStore current = store;
+            ActionColumnStore next = loading;
+            synchronized (current) {
+                current.remove(id);
+            }
+            if (next != null) {
+                synchronized (next) {
+                    next.remove(id);
+                }
+            }
+            changed = true;
+        }
+    }
+
+    /**
+     * Remove actions from the snapshot.
+     *
+     * @param ids the ids of the actions that were deleted
+     */
+    public void removeAll(Collection<String> ids) {
+        ids.forEach(this::remove);
+    }
+
+    /**
+     * @return the number of actions in the snapshot
+     */
+    public int getSize() {
+        return columns.size();
+    }
+
+    /**
+     * Compute the statistics of the distance or duration of the actions that match some filters, per type or unit.
+     *
+     * @see ActionColumns#analyze(ActionCriteria, ActionColumns.GroupBy, ActionColumns.Measure, double[], Double)
+     */
+    public List<ActionAnalyticsDTO> analyze(ActionCriteria criteria, ActionColumns.GroupBy groupBy,
+                                            ActionColumns.Measure measure, double[] percents, Double bucketWidth) {
+        log.debug("Request to analyze the {} of Actions per {} : {}", measure, groupBy, criteria);
+        return columns.analyze(criteria, groupBy, measure, percents, bucketWidth);
+    }
+
+    private static void append(ActionColumnStore target, Action action) {
+        synchronized (target) {
+            target.append(action.getId(), action.getUserId(),
+                action.getStart() == null ? null : action.getStart().toInstant().toEpochMilli(),
+                action.getDuration(), action.getDistance(), action.getType(), action.getUnit());
+        }
+    }
+}
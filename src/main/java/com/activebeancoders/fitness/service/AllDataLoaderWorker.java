@@ -1,10 +1,8 @@
 package com.activebeancoders.fitness.service;
 
-import com.activebeancoders.fitness.domain.Action;
-import com.activebeancoders.fitness.domain.enumeration.ActionType;
-import com.activebeancoders.fitness.repository.ActionRepository;
-import com.google.common.collect.ImmutableMap;
-import net.pladform.random.IdAwareObjectGenerator;
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.DataLoadJob;
+import com.activebeancoders.fitness.domain.enumeration.DataLoadJobStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +11,6 @@ import org.springframework.scheduling.annotation.AsyncResult;
 
 import javax.annotation.PostConstruct;
 import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 
 /**
@@ -26,7 +23,10 @@ public class AllDataLoaderWorker implements DataLoaderWorker {
     private Map<String, DataLoader> dataLoaderMap;
 
     @Autowired
-    private ActionRepository actionRepo;
+    private DataLoadJobService dataLoadJobService;
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
 
     private String lastKnownStatus = "Inactive.";
 
@@ -76,10 +76,16 @@ public class AllDataLoaderWorker implements DataLoaderWorker {
     @Override
     @Async
     public Future<Boolean> loadRandomRecords(long count) {
+        return loadRandomRecords(count, jHipsterProperties.getLoader().getSeed());
+    }
+
+    @Override
+    @Async
+    public Future<Boolean> loadRandomRecords(long count, long seed) {
         try {
             beforeLoad();
             lastKnownStatus = "Loading...";
-            indexABunchOfRandomData(Long.valueOf(count));
+            indexABunchOfRandomData(count, seed);
             log.info("Data reload complete.  Loaded " + count + " records.");
             lastKnownStatus = "Data reload complete.  Loaded " + count + " records.";
             return new AsyncResult<>(true);
@@ -92,29 +98,32 @@ public class AllDataLoaderWorker implements DataLoaderWorker {
         }
     }
 
-    protected void indexABunchOfRandomData(long count) {
-        long tenPercent = (long) (count * 0.10);
-        if (tenPercent == 0) {
-            tenPercent = 1;
-        }
-        final IdAwareObjectGenerator generator = new IdAwareObjectGenerator();
-        for (long l = 0; l < count; l++) {
-            Action action = generator.generate(Action.class, ImmutableMap.<String, Callable>builder()
-                    .put("setUserId", () -> generator.randomLong(1, 500))
-                    .put("setType", () -> generator.choose(ActionType.values()))
-                    .put("setUnit", () -> generator.choose(new String[]{"Miles", "Kilometers", "Steps", "Laps"}))
-                    .put("setDistance", () -> generator.randomDouble(1.0, 100.0))
-                    .put("setDuration", () -> generator.randomInt(0, 300))
-                    .put("setDate", () -> generator.randomDate("2000-01-01 00:00:00"))
-                    .put("setComment", () -> generator.words(generator.randomInt(10, 100)))
-                    .build());
-            actionRepo.save(action);
-            if (l % tenPercent == 0) {
-                log.debug("Indexed {} objects so far.", l);
-            }
+    /**
+     * Generate and insert {@code count} random actions as a {@link DataLoadJob}, waiting for the job to end.
+     * <p>
+     * The job is split into contiguous ranges that are generated and written in parallel, and it checkpoints its
+     * progress, so that it can be followed, paused and resumed through the data load job API.
+     * </p>
+     *
+     * @param count the number of actions to generate
+     * @param seed the seed of the generated data
+     * @throws Exception if the job did not complete
+     * @see DataLoadJobService
+     */
+    protected void indexABunchOfRandomData(long count, long seed) throws Exception {
+        DataLoadJob job = dataLoadJobService.create(count, seed);
+        lastKnownStatus = "Loading... (data load job " + job.getId() + ")";
+        long startMillis = System.currentTimeMillis();
+        log.info("Indexing {} random records with seed {} on {} threads as data load job {}.", count, seed,
+            job.getPartitionCount(), job.getId());
+        DataLoadJob result = dataLoadJobService.run(job).get();
+        if (result.getStatus() != DataLoadJobStatus.COMPLETED) {
+            throw new IllegalStateException("Data load job " + job.getId() + " ended as " + result.getStatus() +
+                (result.getErrorMessage() != null ? ": " + result.getErrorMessage() : "."));
         }
-        log.info("Done indexing random data.");
+        long elapsedMillis = Math.max(1, System.currentTimeMillis() - startMillis);
+        log.info("Done indexing random data: {} records in {} ms ({} records/sec).", count, elapsedMillis,
+            count * 1000 / elapsedMillis);
     }
 
 }
-
@@ -1,14 +1,29 @@
 package com.activebeancoders.fitness.service;
 
 import com.activebeancoders.fitness.config.audit.AuditEventConverter;
+import com.activebeancoders.fitness.domain.PersistentAuditEvent;
 import com.activebeancoders.fitness.repository.PersistenceAuditEventRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
 import java.time.LocalDateTime;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.Optional;
 
 /**
@@ -20,17 +35,52 @@ import java.util.Optional;
 @Service
 public class AuditEventService {
 
+    /**
+     * The formats audit events can be exported in.
+     */
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+
+        private final String extension;
+
+        ExportFormat(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String CSV_HEADER = "id,timestamp,principal,type,data\r\n";
+
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private PersistenceAuditEventRepository persistenceAuditEventRepository;
 
     private AuditEventConverter auditEventConverter;
 
+    private MongoTemplate mongoTemplate;
+
     @Inject
     public AuditEventService(
         PersistenceAuditEventRepository persistenceAuditEventRepository,
-        AuditEventConverter auditEventConverter) {
+        AuditEventConverter auditEventConverter,
+        MongoTemplate mongoTemplate) {
 
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
         this.auditEventConverter = auditEventConverter;
+        this.mongoTemplate = mongoTemplate;
     }
 
     public Page<AuditEvent> findAll(Pageable pageable) {
@@ -47,4 +97,148 @@ public class AuditEventService {
         return Optional.ofNullable(persistenceAuditEventRepository.findOne(id)).map
             (auditEventConverter::convertToAuditEvent);
     }
+
+    /**
+     * Write the audit events of a time period to a stream, oldest first.
+     * <p>
+     * Events are written while they are read from a Mongo cursor, straight from the documents returned by the
+     * driver, so memory use does not depend on the number of events. Each NDJSON line is an object with the id,
+     * timestamp, principal, type and data of an event; CSV rows have the same columns, with the data as a JSON
+     * object.
+     * </p>
+     *
+     * @param fromDate the start of the time period, inclusive
+     * @param toDate the end of the time period, exclusive
+     * @param format the format to write
+     * @param outputStream the stream to write to, which is left open
+     * @throws IOException if the events could not be written
+     */
+    public void export(LocalDateTime fromDate, LocalDateTime toDate, ExportFormat format, OutputStream outputStream)
+        throws IOException {
+        DBObject query = new BasicDBObject("auditEventDate", new BasicDBObject("$gte", toMongoDate(fromDate))
+            .append("$lt", toMongoDate(toDate)));
+        String collectionName = mongoTemplate.getCollectionName(PersistentAuditEvent.class);
+        try (DBCursor cursor = mongoTemplate.getCollection(collectionName).find(query)
+            .sort(new BasicDBObject("auditEventDate", 1))
+            .batchSize(EXPORT_BATCH_SIZE)) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(cursor, outputStream);
+            } else {
+                writeNdjson(cursor, outputStream);
+            }
+        }
+    }
+
+    private Date toMongoDate(LocalDateTime dateTime) {
+        return (Date) mongoTemplate.getConverter().convertToMongoType(dateTime);
+    }
+
+    private static void writeNdjson(DBCursor cursor, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        while (cursor.hasNext()) {
+            DBObject event = cursor.next();
+            generator.writeStartObject();
+            generator.writeStringField("id", String.valueOf(event.get("_id")));
+            writeTimestampField(generator, event);
+            generator.writeStringField("principal", (String) event.get("principal"));
+            generator.writeStringField("type", (String) event.get("event_type"));
+            generator.writeFieldName("data");
+            writeData(generator, (DBObject) event.get("data"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        generator.close();
+    }
+
+    private static void writeCsv(DBCursor cursor, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        StringBuilder data = new StringBuilder();
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        while (cursor.hasNext()) {
+            DBObject event = cursor.next();
+            writeCsvField(writer, String.valueOf(event.get("_id")));
+            writer.write(',');
+            Date timestamp = (Date) event.get("auditEventDate");
+            writeCsvField(writer, timestamp == null ? null : timestamp.toInstant().toString());
+            writer.write(',');
+            writeCsvField(writer, (String) event.get("principal"));
+            writer.write(',');
+            writeCsvField(writer, (String) event.get("event_type"));
+            writer.write(',');
+            data.setLength(0);
+            appendData(data, encoder, (DBObject) event.get("data"));
+            writeCsvField(writer, data);
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private static void writeTimestampField(JsonGenerator generator, DBObject event) throws IOException {
+        Date timestamp = (Date) event.get("auditEventDate");
+        if (timestamp == null) {
+            generator.writeNullField("timestamp");
+        } else {
+            generator.writeStringField("timestamp", timestamp.toInstant().toString());
+        }
+    }
+
+    private static void writeData(JsonGenerator generator, DBObject data) throws IOException {
+        generator.writeStartObject();
+        if (data != null) {
+            for (String key : data.keySet()) {
+                Object value = data.get(key);
+                generator.writeStringField(key, value == null ? null : value.toString());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private static void appendData(StringBuilder builder, JsonStringEncoder encoder, DBObject data) {
+        builder.append('{');
+        if (data != null) {
+            for (String key : data.keySet()) {
+                if (builder.length() > 1) {
+                    builder.append(',');
+                }
+                builder.append('"').append(encoder.quoteAsString(key)).append("\":");
+                Object value = data.get(key);
+                if (value == null) {
+                    builder.append("null");
+                } else {
+                    builder.append('"').append(encoder.quoteAsString(value.toString())).append('"');
+                }
+            }
+        }
+        builder.append('}');
+    }
+
+    /**
+     * Write a CSV field, quoted as in RFC 4180 when it contains a separator, a quote or a line break.
+     */
+    private static void writeCsvField(Writer writer, CharSequence value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.append(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
 }
@@ -0,0 +1,174 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Groups actions into batches and writes them with unordered bulk inserts from a dedicated writer thread.
+ * <p>
+ * Full batches are handed to the writer through a bounded queue, so the producer keeps generating while the
+ * previous batch is in flight, and blocks once the writer falls {@code queueCapacity} batches behind. A single
+ * instance must only be fed from one producer thread.
+ * </p>
+ */
+public class BatchingActionWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingActionWriter.class);
+
+    private static final List<Action> END_OF_STREAM = new ArrayList<>(0);
+
+    private final ActionRepository actionRepository;
+
+    private final int batchSize;
+
+    private final BlockingQueue<List<Action>> queue;
+
+    private final Thread writerThread;
+
+    private final LongConsumer writtenCountListener;
+
+    private final Consumer<List<Action>> writtenBatchListener;
+
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    private volatile RuntimeException failure;
+
+    private List<Action> batch;
+
+    private boolean closed;
+
+    public BatchingActionWriter(ActionRepository actionRepository, int batchSize, int queueCapacity) {
+        this(actionRepository, batchSize, queueCapacity, writtenCount -> { });
+    }
+
+    /**
+     * @param writtenCountListener called from the writer thread after each batch has been acknowledged, with the
+     * total number of actions written so far; batches are written in the order they were produced
+     */
+    public BatchingActionWriter(ActionRepository actionRepository, int batchSize, int queueCapacity,
+                                LongConsumer writtenCountListener) {
+        this(actionRepository, batchSize, queueCapacity, writtenCountListener, batch -> { });
+    }
+
+    /**
+     * @param writtenCountListener called from the writer thread after each batch has been acknowledged, with the
+     * total number of actions written so far; batches are written in the order they were produced
+     * @param writtenBatchListener called from the writer thread after each batch has been acknowledged, with the
+     * actions of the batch, before the written count is updated
+     */
+    public BatchingActionWriter(ActionRepository actionRepository, int batchSize, int queueCapacity,
+                                LongConsumer writtenCountListener, Consumer<List<Action>> writtenBatchListener) {
+        if (batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be positive.");
+        }
+        this.actionRepository = actionRepository;
+        this.writtenCountListener = writtenCountListener;
+        this.writtenBatchListener = writtenBatchListener;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batch = new ArrayList<>(batchSize);
+        this.writerThread = new Thread(this::drain, "action-batch-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Add an action to the current batch, handing the batch over to the writer thread once it is full.
+     *
+     * @param action the action to write
+     * @throws InterruptedException if interrupted while waiting for room in the queue
+     * @throws IllegalStateException if a previous batch failed to be written
+     */
+    public void write(Action action) throws InterruptedException {
+        rethrowFailure();
+        batch.add(action);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Hand the current, possibly partial, batch over to the writer thread.
+     *
+     * @throws InterruptedException if interrupted while waiting for room in the queue
+     */
+    public void flush() throws InterruptedException {
+        if (!batch.isEmpty()) {
+            queue.put(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * @return the number of actions that have been acknowledged by the database so far
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * Flush the last batch and wait until everything has been written.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer thread
+     * @throws IllegalStateException if any batch failed to be written
+     */
+    @Override
+    public void close() throws InterruptedException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+        } finally {
+            try {
+                queue.put(END_OF_STREAM);
+                writerThread.join();
+            } catch (InterruptedException e) {
+                writerThread.interrupt();
+                throw e;
+            }
+        }
+        rethrowFailure();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                List<Action> next = queue.take();
+                if (next == END_OF_STREAM) {
+                    return;
+                }
+                // after a failure, keep taking batches so that the producer never blocks on a full queue
+                if (failure == null) {
+                    try {
+                        actionRepository.insertUnordered(next);
+                        writtenBatchListener.accept(next);
+                        writtenCountListener.accept(writtenCount.addAndGet(next.size()));
+                    } catch (RuntimeException e) {
+                        log.error("Failed to write a batch of {} actions.", next.size(), e);
+                        failure = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void rethrowFailure() {
+        if (failure != null) {
+            throw new IllegalStateException("Bulk write of actions failed.", failure);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.domain.DataLoadJob;
+import com.activebeancoders.fitness.domain.enumeration.DataLoadJobStatus;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.DataLoadJobRepository;
+import com.activebeancoders.fitness.service.util.RandomActionGenerator;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Service for running random data loads as resumable jobs.
+ * <p>
+ * Every partition of a job checkpoints the index of its next record after each acknowledged batch, and every
+ * record gets an ID derived from the job and from its index. A job that is resumed after a pause, a failure or a
+ * restart therefore picks up at its checkpoints, and the few records written after the last checkpoint are
+ * skipped as duplicates instead of being loaded twice.
+ * </p>
+ */
+@Service
+public class DataLoadJobService {
+
+    private final Logger log = LoggerFactory.getLogger(DataLoadJobService.class);
+
+    @Inject
+    private DataLoadJobRepository dataLoadJobRepository;
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private UserActionIndexService userActionIndexService;
+
+    @Inject
+    private ActionSnapshotService actionSnapshotService;
+
+    @Inject
+    private ActionIndexingService actionIndexingService;
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private final ConcurrentMap<String, JobExecution> executions = new ConcurrentHashMap<>();
+
+    /**
+     * Jobs are coordinated outside of the async pool, which only grows once its queue is full: a job started from an
+     * {@code @Async} method could otherwise wait forever behind the very task that waits for it.
+     */
+    private final ExecutorService jobExecutor = Executors.newCachedThreadPool(
+        new CustomizableThreadFactory("data-load-job-"));
+
+    /**
+     * Stop the running jobs at their next batch but leave them RUNNING, so that they resume on the next start.
+     */
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        executions.values().forEach(execution -> execution.stop(DataLoadJobStatus.RUNNING));
+        jobExecutor.shutdown();
+        jobExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Resume the jobs that were still running when the application was last stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        for (DataLoadJob job : dataLoadJobRepository.findAllByStatus(DataLoadJobStatus.RUNNING)) {
+            if (!executions.containsKey(job.getId())) {
+                log.info("Resuming interrupted data load job {}", job.getId());
+                run(job);
+            }
+        }
+    }
+
+    /**
+     * Create a running job for the given number of records, partitioned according to the current loader settings.
+     * The job does not start until it is {@link #run(DataLoadJob) run}.
+     *
+     * @param count the number of records to load
+     * @param seed the seed of the generated data
+     * @return the persisted job
+     */
+    public DataLoadJob create(long count, long seed) {
+        JHipsterProperties.Loader loaderProperties = jHipsterProperties.getLoader();
+        DataLoadJob job = new DataLoadJob();
+        job.setCount(count);
+        job.setSeed(seed);
+        job.setBatchSize(loaderProperties.getBatchSize());
+        job.setStatus(DataLoadJobStatus.RUNNING);
+        int partitions = partitionCount(count, loaderProperties);
+        List<Long> checkpoints = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            checkpoints.add(count * partition / partitions);
+        }
+        job.setCheckpoints(checkpoints);
+        job = dataLoadJobRepository.save(job);
+        log.debug("Created data load job: {}", job);
+        return job;
+    }
+
+    /**
+     * Run a job from its checkpoints, in the background.
+     *
+     * @param job a job with the RUNNING status
+     * @return the job as it ends, whether completed, paused, cancelled or failed
+     */
+    public Future<DataLoadJob> run(DataLoadJob job) {
+        JobExecution execution = new JobExecution(job);
+        if (executions.putIfAbsent(job.getId(), execution) != null) {
+            throw new IllegalStateException("Data load job " + job.getId() + " is already running.");
+        }
+        jobExecutor.execute(execution);
+        return execution.completion;
+    }
+
+    public List<DataLoadJob> findAll() {
+        return dataLoadJobRepository.findAll();
+    }
+
+    public Optional<DataLoadJob> findOne(String id) {
+        return Optional.ofNullable(dataLoadJobRepository.findOne(id));
+    }
+
+    /**
+     * Ask a running job to stop after its current batches, keeping its checkpoints for a later resume.
+     *
+     * @param id the id of the job
+     * @return false if the job is not running
+     */
+    public boolean pause(String id) {
+        return stop(id, DataLoadJobStatus.PAUSED);
+    }
+
+    /**
+     * Cancel a running or paused job. A cancelled job can not be resumed.
+     *
+     * @param id the id of the job
+     * @return false if the job is neither running nor paused
+     */
+    public boolean cancel(String id) {
+        if (stop(id, DataLoadJobStatus.CANCELLED)) {
+            return true;
+        }
+        return mongoTemplate.updateFirst(
+            query(where("id").is(id).and("status").is(DataLoadJobStatus.PAUSED)),
+            new Update().set("status", DataLoadJobStatus.CANCELLED),
+            DataLoadJob.class).getN() > 0;
+    }
+
+    /**
+     * Resume a paused or failed job from its checkpoints.
+     *
+     * @param id the id of the job
+     * @return false if the job is neither paused nor failed, or has not finished stopping yet
+     */
+    public boolean resume(String id) {
+        DataLoadJob job = dataLoadJobRepository.findOne(id);
+        if (job == null || executions.containsKey(id) ||
+            (job.getStatus() != DataLoadJobStatus.PAUSED && job.getStatus() != DataLoadJobStatus.FAILED)) {
+            return false;
+        }
+        job.setStatus(DataLoadJobStatus.RUNNING);
+        job.setErrorMessage(null);
+        run(dataLoadJobRepository.save(job));
+        return true;
+    }
+
+    private boolean stop(String id, DataLoadJobStatus status) {
+        JobExecution execution = executions.get(id);
+        if (execution == null) {
+            return false;
+        }
+        execution.stop(status);
+        return true;
+    }
+
+    /**
+     * One worker per configured thread, defaulting to the size of the async pool, but never more workers than
+     * there are full batches to write.
+     */
+    private int partitionCount(long count, JHipsterProperties.Loader loaderProperties) {
+        int parallelism = loaderProperties.getParallelism();
+        if (parallelism < 1) {
+            parallelism = jHipsterProperties.getAsync().getMaxPoolSize();
+        }
+        long batches = Math.max(1, count / loaderProperties.getBatchSize());
+        return (int) Math.max(1, Math.min(parallelism, batches));
+    }
+
+    /**
+     * Derive the ID of a generated action from the ID of its job and from its index, so that replaying a batch
+     * produces the same IDs: the timestamp of the job, then its counter mixed with the index.
+     */
+    private static String actionId(ObjectId jobId, long index) {
+        ByteBuffer job = ByteBuffer.wrap(jobId.toByteArray());
+        byte[] id = ByteBuffer.allocate(12)
+            .putInt(job.getInt(0))
+            .putInt(job.getInt(8) ^ (int) (index >>> 32))
+            .putInt((int) index)
+            .array();
+        return new ObjectId(id).toString();
+    }
+
+    private final class JobExecution implements Runnable {
+
+        private final DataLoadJob job;
+
+        private final CompletableFuture<DataLoadJob> completion = new CompletableFuture<>();
+
+        private final AtomicLong loadedCount;
+
+        private final Meter meter = new Meter();
+
+        private final String metricPrefix;
+
+        private volatile DataLoadJobStatus stopStatus;
+
+        JobExecution(DataLoadJob job) {
+            this.job = job;
+            this.loadedCount = new AtomicLong(job.getLoadedCount());
+            this.metricPrefix = MetricRegistry.name(DataLoadJobService.class, job.getId());
+        }
+
+        void stop(DataLoadJobStatus status) {
+            if (stopStatus == null) {
+                stopStatus = status;
+            }
+        }
+
+        @Override
+        public void run() {
+            metricRegistry.register(MetricRegistry.name(metricPrefix, "records"), meter);
+            metricRegistry.register(MetricRegistry.name(metricPrefix, "etaSeconds"), (Gauge<Long>) this::etaSeconds);
+            ExecutorService partitionExecutor = Executors.newFixedThreadPool(job.getPartitionCount(),
+                new CustomizableThreadFactory("data-load-" + job.getId() + "-"));
+            String errorMessage = null;
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int partition = 0; partition < job.getPartitionCount(); partition++) {
+                    int p = partition;
+                    results.add(partitionExecutor.submit(() -> {
+                        loadPartition(p);
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    try {
+                        result.get();
+                    } catch (ExecutionException e) {
+                        log.error("Data load job {} failed", job.getId(), e.getCause());
+                        errorMessage = e.getCause().toString();
+                        stop(DataLoadJobStatus.FAILED);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errorMessage = "Interrupted";
+                stop(DataLoadJobStatus.FAILED);
+                partitionExecutor.shutdownNow();
+            } finally {
+                partitionExecutor.shutdown();
+                metricRegistry.removeMatching((name, metric) -> name.startsWith(metricPrefix + "."));
+            }
+            DataLoadJobStatus status = errorMessage != null ? DataLoadJobStatus.FAILED :
+                stopStatus != null ? stopStatus : DataLoadJobStatus.COMPLETED;
+            try {
+                mongoTemplate.updateFirst(query(where("id").is(job.getId())),
+                    new Update().set("status", status).set("error_message", errorMessage), DataLoadJob.class);
+                log.info("Data load job {} ended as {} after loading {} of {} records", job.getId(), status,
+                    loadedCount.get(), job.getCount());
+            } finally {
+                executions.remove(job.getId());
+                completion.complete(dataLoadJobRepository.findOne(job.getId()));
+            }
+        }
+
+        private void loadPartition(int partition) throws InterruptedException {
+            long from = job.getCheckpoints().get(partition);
+            long to = job.getPartitionEnd(partition);
+            if (from >= to) {
+                return;
+            }
+            ObjectId jobId = new ObjectId(job.getId());
+            RandomActionGenerator generator = new RandomActionGenerator(job.getSeed());
+            long[] checkpointed = {0};
+            try (BatchingActionWriter writer = new BatchingActionWriter(actionRepository, job.getBatchSize(),
+                jHipsterProperties.getLoader().getQueueCapacity(), writtenCount -> {
+                    mongoTemplate.updateFirst(query(where("id").is(job.getId())),
+                        new Update().set("checkpoints." + partition, from + writtenCount), DataLoadJob.class);
+                    meter.mark(writtenCount - checkpointed[0]);
+                    loadedCount.addAndGet(writtenCount - checkpointed[0]);
+                    checkpointed[0] = writtenCount;
+                }, this::batchWritten)) {
+                for (long index = from; index < to && stopStatus == null; index++) {
+                    Action action = generator.generate(index);
+                    action.setId(actionId(jobId, index));
+                    writer.write(action);
+                }
+            }
+        }
+
+        private void batchWritten(List<Action> batch) {
+            userActionIndexService.addAll(batch);
+            actionSnapshotService.addAll(batch);
+            batch.forEach(action -> actionIndexingService.submit(action.getId()));
+        }
+
+        private long etaSeconds() {
+            double rate = meter.getOneMinuteRate() > 0 ? meter.getOneMinuteRate() : meter.getMeanRate();
+            if (rate <= 0) {
+                return -1;
+            }
+            return (long) ((job.getCount() - loadedCount.get()) / rate);
+        }
+    }
+}
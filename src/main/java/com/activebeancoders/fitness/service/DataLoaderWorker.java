@@ -9,6 +9,8 @@ public interface DataLoaderWorker extends DataLoader {
 
     public Future<Boolean> loadRandomRecords(long count);
 
+    public Future<Boolean> loadRandomRecords(long count, long seed);
+
     public String getLastKnownStatus();
 
     public void setLastKnownStatus(String lastKnownStatus);
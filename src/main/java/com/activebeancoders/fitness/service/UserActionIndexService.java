@@ -0,0 +1,226 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.service.index.UserActionIndex;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Service for listing the actions of a user, most recent first, from an in-memory {@link UserActionIndex} rather
+ * than from the database.
+ * <p>
+ * The index is loaded once the application has started, by reading the user_id, start and _id of all the actions
+ * from the index of the action collection on those fields, and is kept up to date by the services that create,
+ * update and delete actions, like the rollups, including while it loads. An action deleted just as the load reads it
+ * may stay in the index, and is then left out of the pages it would be in. Until the index is loaded, or if it is
+ * disabled by {@code jhipster.userIndex.enabled}, pages are read from the database.
+ * </p>
+ * <p>
+ * The actions of a page are taken from the cache of single actions, and only those missing from it are read, by id.
+ * </p>
+ */
+@Service
+public class UserActionIndexService {
+
+    private static final int CURSOR_BATCH_SIZE = 10000;
+
+    private static final DBObject FIELDS = new BasicDBObject("user_id", 1)
+        .append("start", 1)
+        .append("_id", 1);
+
+    /**
+     * The reverse of the order of the user_id_1_start_-1__id_-1 index, in which each user's actions are appended
+     * in the order of the UserActionIndex.
+     */
+    private static final DBObject LOAD_ORDER = new BasicDBObject("user_id", -1)
+        .append("start", 1)
+        .append("_id", 1);
+
+    private final Logger log = LoggerFactory.getLogger(UserActionIndexService.class);
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private volatile UserActionIndex index = new UserActionIndex();
+
+    /**
+     * The index being loaded, if any, which changes are also applied to.
+     */
+    private volatile UserActionIndex loading;
+
+    private volatile boolean ready;
+
+    /**
+     * Load the index once the application has started, in the background.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        load();
+    }
+
+    /**
+     * Load the index again from all the actions, and use it in place of the current one once loaded.
+     */
+    public synchronized void load() {
+        if (!jHipsterProperties.getUserIndex().isEnabled()) {
+            return;
+        }
+        long startMillis = System.currentTimeMillis();
+        UserActionIndex next = new UserActionIndex();
+        loading = next;
+        try {
+            try (DBCursor cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Action.class))
+                .find(new BasicDBObject(), FIELDS)
+                .sort(LOAD_ORDER)
+                .batchSize(CURSOR_BATCH_SIZE)) {
+                while (cursor.hasNext()) {
+                    DBObject action = cursor.next();
+                    Number userId = (Number) action.get("user_id");
+                    Date start = (Date) action.get("start");
+                    if (userId != null) {
+                        next.add(userId.longValue(), start == null ? null : start.getTime(),
+                            action.get("_id").toString());
+                    }
+                }
+            }
+            index = next;
+            ready = true;
+        } finally {
+            // only once the new index is in use, so that no change is applied to the old one alone
+            loading = null;
+        }
+        log.info("Loaded the index of the {} Actions of users in {} ms", next.size(),
+            System.currentTimeMillis() - startMillis);
+    }
+
+    /**
+     * @return whether pages are read from the index rather than from the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Index an action.
+     *
+     * @param action the action that was created, or the new state of an updated action
+     */
+    public void add(Action action) {
+        if (jHipsterProperties.getUserIndex().isEnabled() && action.getUserId() != null) {
+            UserActionIndex next = loading;
+            index.add(action.getUserId(), startMillis(action.getStart()), action.getId());
+            if (next != null) {
+                next.add(action.getUserId(), startMillis(action.getStart()), action.getId());
+            }
+        }
+    }
+
+    /**
+     * Index actions.
+     *
+     * @param actions the actions that were created
+     */
+    public void addAll(List<Action> actions) {
+        actions.forEach(this::add);
+    }
+
+    /**
+     * Remove an action from the index.
+     *
+     * @param action the action that was deleted, or the previous state of an updated action
+     */
+    public void remove(Action action) {
+        if (jHipsterProperties.getUserIndex().isEnabled() && action.getUserId() != null) {
+            UserActionIndex next = loading;
+            index.remove(action.getUserId(), startMillis(action.getStart()), action.getId());
+            if (next != null) {
+                next.remove(action.getUserId(), startMillis(action.getStart()), action.getId());
+            }
+        }
+    }
+
+    /**
+     * Remove actions from the index.
+     *
+     * @param actions the actions that were deleted
+     */
+    public void removeAll(List<Action> actions) {
+        actions.forEach(this::remove);
+    }
+
+    /**
+     * Get the actions of a user that come after an action, most recent first, and those without a start last.
+     *
+     * @param userId the id of the user
+     * @param afterStart the start of the action to continue after, or null if it had none
+     * @param afterId the id of the action to continue after, or null to start with the most recent action
+     * @param limit the maximum number of actions to return
+     * @return the actions
+     */
+    public List<Action> findByUserIdAfter(Long userId, ZonedDateTime afterStart, String afterId, int limit) {
+        if (!ready || (afterId != null && !ObjectId.isValid(afterId))) {
+            return actionRepository.findByUserIdAfter(userId, afterStart, afterId, limit);
+        }
+        List<String> ids = index.findIdsAfter(userId, startMillis(afterStart), afterId, limit);
+        Cache cache = cacheManager.getCache(ActionService.ACTIONS_CACHE);
+        Map<String, Action> actions = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            Action action = cache == null ? null : cache.get(id, Action.class);
+            if (action == null) {
+                missing.add(id);
+            } else {
+                actions.put(id, action);
+            }
+        }
+        if (!missing.isEmpty()) {
+            actionRepository.findAll(missing).forEach(action -> {
+                actions.put(action.getId(), action);
+                if (cache != null) {
+                    cache.put(action.getId(), action);
+                }
+            });
+        }
+        return ids.stream()
+            .map(actions::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    private static Long startMillis(ZonedDateTime start) {
+        return start == null ? null : start.toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,138 @@
+package com.activebeancoders.fitness.service.analytics;
+
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import com.carrotsearch.hppc.ObjectIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends actions to growable primitive columns, from which immutable {@link ActionColumns} snapshots are taken.
+ * <p>
+ * The type of an action is encoded by its ordinal and its unit by its index in a dictionary of the units seen so
+ * far. The row of each action is kept by id: appending an action again marks its previous row as removed, as does
+ * removing it, and removed rows are skipped until the store is built again. Snapshots share the arrays of the store
+ * and copy its removed rows: rows appended after a snapshot was taken are beyond its size, and growing the store
+ * copies its arrays, so a snapshot never sees a change. A store must only be used from one thread at a time.
+ * </p>
+ */
+public class ActionColumnStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] userIds = new long[INITIAL_CAPACITY];
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+
+    private int[] durations = new int[INITIAL_CAPACITY];
+
+    private double[] distances = new double[INITIAL_CAPACITY];
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+
+    private short[] units = new short[INITIAL_CAPACITY];
+
+    private final List<String> unitDictionary = new ArrayList<>();
+
+    private final Map<String, Short> unitCodes = new HashMap<>();
+
+    private final ObjectIntHashMap<String> rows = new ObjectIntHashMap<>();
+
+    private final BitSet removed = new BitSet();
+
+    private int size;
+
+    /**
+     * Append an action, in place of its previous row if it was appended already; null values are kept as nulls.
+     *
+     * @param id the id of the action
+     * @param userId the id of the user of the action
+     * @param startMillis the start of the action, in milliseconds since the epoch
+     * @param duration the duration of the action
+     * @param distance the distance of the action
+     * @param type the type of the action
+     * @param unit the unit of the distance of the action
+     * @throws IllegalStateException if there are more than {@value Short#MAX_VALUE} distinct units
+     */
+    public void append(String id, Long userId, Long startMillis, Integer duration, Double distance, ActionType type,
+                       String unit) {
+        remove(id);
+        if (size == userIds.length) {
+            grow();
+        }
+        userIds[size] = userId == null ? ActionColumns.NULL_LONG : userId;
+        starts[size] = startMillis == null ? ActionColumns.NULL_LONG : startMillis;
+        durations[size] = duration == null ? ActionColumns.NULL_INT : duration;
+        distances[size] = distance == null ? Double.NaN : distance;
+        types[size] = type == null ? ActionColumns.NULL_CODE : (byte) type.ordinal();
+        units[size] = unit == null ? ActionColumns.NULL_CODE : encodeUnit(unit);
+        rows.put(id, size);
+        size++;
+    }
+
+    /**
+     * Remove an action, if it was appended.
+     *
+     * @param id the id of the action
+     * @return false if the action was not appended
+     */
+    public boolean remove(String id) {
+        int index = rows.indexOf(id);
+        if (!rows.indexExists(index)) {
+            return false;
+        }
+        removed.set(rows.indexGet(index));
+        rows.remove(id);
+        return true;
+    }
+
+    /**
+     * @param id the id of an action
+     * @return whether the action was appended and not removed since
+     */
+    public boolean contains(String id) {
+        return rows.containsKey(id);
+    }
+
+    /**
+     * @return the number of actions, without the removed ones
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * @return the actions appended and not removed so far, which later changes do not affect
+     */
+    public ActionColumns snapshot() {
+        return new ActionColumns(userIds, starts, durations, distances, types, units,
+            unitDictionary.toArray(new String[unitDictionary.size()]), (BitSet) removed.clone(), size);
+    }
+
+    private short encodeUnit(String unit) {
+        Short code = unitCodes.get(unit);
+        if (code == null) {
+            if (unitDictionary.size() == Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct units, at most " + Short.MAX_VALUE + " are supported");
+            }
+            code = (short) unitDictionary.size();
+            unitDictionary.add(unit);
+            unitCodes.put(unit, code);
+        }
+        return code;
+    }
+
+    private void grow() {
+        int capacity = userIds.length * 2;
+        userIds = Arrays.copyOf(userIds, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        distances = Arrays.copyOf(distances, capacity);
+        types = Arrays.copyOf(types, capacity);
+        units = Arrays.copyOf(units, capacity);
+    }
+}
@@ -0,0 +1,346 @@
+package com.activebeancoders.fitness.service.analytics;
+
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import com.activebeancoders.fitness.repository.ActionCriteria;
+import com.activebeancoders.fitness.web.rest.dto.ActionAnalyticsDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An immutable snapshot of actions held in primitive columns, one array per field, which queries scan row by row
+ * without allocating anything per row.
+ * <p>
+ * Null values are kept as {@link #NULL_LONG}, {@link #NULL_INT}, {@link Double#NaN} or {@link #NULL_CODE}. The type
+ * of an action is encoded by its ordinal, and its unit by its index in the unit dictionary.
+ * </p>
+ *
+ * @see ActionColumnStore
+ */
+public final class ActionColumns {
+
+    /**
+     * The field of the actions that a query aggregates.
+     */
+    public enum Measure {
+        DISTANCE, DURATION
+    }
+
+    /**
+     * The field of the actions that a query groups them by, if any.
+     */
+    public enum GroupBy {
+        NONE, TYPE, UNIT
+    }
+
+    static final long NULL_LONG = Long.MIN_VALUE;
+
+    static final int NULL_INT = Integer.MIN_VALUE;
+
+    static final byte NULL_CODE = -1;
+
+    /**
+     * The code of a filter on a unit that no action has.
+     */
+    private static final int MISSING_CODE = -2;
+
+    private static final int MAX_BUCKETS = 10000;
+
+    private static final ActionType[] TYPES = ActionType.values();
+
+    private final long[] userIds;
+
+    private final long[] starts;
+
+    private final int[] durations;
+
+    private final double[] distances;
+
+    private final byte[] types;
+
+    private final short[] units;
+
+    private final String[] unitDictionary;
+
+    /**
+     * The rows of the actions updated or removed before the snapshot was taken, which are skipped.
+     */
+    private final BitSet removed;
+
+    private final int size;
+
+    private final int count;
+
+    ActionColumns(long[] userIds, long[] starts, int[] durations, double[] distances, byte[] types, short[] units,
+                  String[] unitDictionary, BitSet removed, int size) {
+        this.userIds = userIds;
+        this.starts = starts;
+        this.durations = durations;
+        this.distances = distances;
+        this.types = types;
+        this.units = units;
+        this.unitDictionary = unitDictionary;
+        this.removed = removed;
+        this.size = size;
+        this.count = size - removed.cardinality();
+    }
+
+    /**
+     * @return the number of actions in the snapshot
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Compute the statistics of a measure of the actions that match some filters, per group.
+     * <p>
+     * Actions without a value for the measure are left out. Percentiles are computed with the nearest-rank method.
+     * Histogram buckets are {@code bucketWidth} wide and aligned on multiples of it.
+     * </p>
+     *
+     * @param criteria the filters of the actions
+     * @param groupBy the field to group the actions by
+     * @param measure the field to aggregate
+     * @param percents the percentiles to compute, from 0 to 100, or an empty array for none
+     * @param bucketWidth the width of the buckets of the histogram, or null for no histogram
+     * @return the statistics of each group that has actions, in the order of the types or units, with the actions
+     * without a type or unit first; or a single entry when actions are not grouped
+     * @throws IllegalArgumentException if a percent is out of range, the bucket width is not positive, or the
+     * histograms would have more than {@value #MAX_BUCKETS} buckets in all
+     */
+    public List<ActionAnalyticsDTO> analyze(ActionCriteria criteria, GroupBy groupBy, Measure measure,
+                                            double[] percents, Double bucketWidth) {
+        for (double percent : percents) {
+            if (!(percent >= 0 && percent <= 100)) {
+                throw new IllegalArgumentException("Percentiles must be between 0 and 100: " + percent);
+            }
+        }
+        if (bucketWidth != null && !(bucketWidth > 0 && !Double.isInfinite(bucketWidth))) {
+            throw new IllegalArgumentException("The bucket width must be positive: " + bucketWidth);
+        }
+        Filter filter = new Filter(criteria);
+        int groupCount = groupBy == GroupBy.TYPE ? TYPES.length + 1 :
+            groupBy == GroupBy.UNIT ? unitDictionary.length + 1 : 1;
+        long[] counts = new long[groupCount];
+        double[] sums = new double[groupCount];
+        double[] mins = new double[groupCount];
+        double[] maxs = new double[groupCount];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+
+        for (int row = 0; row < size; row++) {
+            double value = value(measure, row);
+            if (Double.isNaN(value) || !filter.matches(row)) {
+                continue;
+            }
+            int group = group(groupBy, row);
+            counts[group]++;
+            sums[group] += value;
+            if (value < mins[group]) {
+                mins[group] = value;
+            }
+            if (value > maxs[group]) {
+                maxs[group] = value;
+            }
+        }
+
+        double[][] values = null;
+        long[][] histograms = null;
+        if (percents.length > 0 || bucketWidth != null) {
+            values = percents.length > 0 ? new double[groupCount][] : null;
+            histograms = bucketWidth != null ? new long[groupCount][] : null;
+            long bucketCount = 0;
+            for (int group = 0; group < groupCount; group++) {
+                if (counts[group] == 0) {
+                    continue;
+                }
+                if (values != null) {
+                    values[group] = new double[(int) counts[group]];
+                }
+                if (histograms != null) {
+                    long buckets = (long) Math.floor(maxs[group] / bucketWidth) - (long) Math.floor(mins[group] / bucketWidth) + 1;
+                    bucketCount += buckets;
+                    if (buckets < 0 || bucketCount > MAX_BUCKETS) {
+                        throw new IllegalArgumentException("Histograms would have more than " + MAX_BUCKETS + " buckets, use wider buckets");
+                    }
+                    histograms[group] = new long[(int) buckets];
+                }
+            }
+            fill(filter, groupBy, measure, counts, mins, values, histograms, bucketWidth);
+        }
+
+        List<ActionAnalyticsDTO> result = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            if (counts[group] == 0 && groupBy != GroupBy.NONE) {
+                continue;
+            }
+            ActionAnalyticsDTO dto = new ActionAnalyticsDTO();
+            dto.setGroup(label(groupBy, group));
+            dto.setCount(counts[group]);
+            dto.setSum(sums[group]);
+            if (counts[group] > 0) {
+                dto.setMin(mins[group]);
+                dto.setMax(maxs[group]);
+                dto.setMean(sums[group] / counts[group]);
+            }
+            if (values != null) {
+                dto.setPercentiles(percentiles(values[group], percents));
+            }
+            if (histograms != null) {
+                dto.setBucketStart(counts[group] == 0 ? 0 : Math.floor(mins[group] / bucketWidth) * bucketWidth);
+                dto.setHistogram(histograms[group] == null ? new long[0] : histograms[group]);
+            }
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * Second pass over the matching actions, to collect their values and count them per bucket.
+     */
+    private void fill(Filter filter, GroupBy groupBy, Measure measure, long[] counts, double[] mins,
+                      double[][] values, long[][] histograms, Double bucketWidth) {
+        int[] filled = new int[counts.length];
+        double width = bucketWidth == null ? 1 : bucketWidth;
+        for (int row = 0; row < size; row++) {
+            double value = value(measure, row);
+            if (Double.isNaN(value) || !filter.matches(row)) {
+                continue;
+            }
+            int group = group(groupBy, row);
+            if (values != null) {
+                values[group][filled[group]++] = value;
+            }
+            if (histograms != null) {
+                long[] histogram = histograms[group];
+                int bucket = (int) ((long) Math.floor(value / width) - (long) Math.floor(mins[group] / width));
+                histogram[Math.min(bucket, histogram.length - 1)]++;
+            }
+        }
+    }
+
+    private static List<Double> percentiles(double[] values, double[] percents) {
+        List<Double> percentiles = new ArrayList<>(percents.length);
+        if (values == null) {
+            for (int i = 0; i < percents.length; i++) {
+                percentiles.add(null);
+            }
+            return percentiles;
+        }
+        Arrays.sort(values);
+        for (double percent : percents) {
+            int rank = (int) Math.ceil(percent / 100 * values.length);
+            percentiles.add(values[Math.max(rank - 1, 0)]);
+        }
+        return percentiles;
+    }
+
+    private double value(Measure measure, int row) {
+        if (measure == Measure.DISTANCE) {
+            return distances[row];
+        }
+        int duration = durations[row];
+        return duration == NULL_INT ? Double.NaN : duration;
+    }
+
+    private int group(GroupBy groupBy, int row) {
+        switch (groupBy) {
+            case TYPE:
+                return types[row] + 1;
+            case UNIT:
+                return units[row] + 1;
+            default:
+                return 0;
+        }
+    }
+
+    private String label(GroupBy groupBy, int group) {
+        if (groupBy == GroupBy.NONE || group == 0) {
+            return null;
+        }
+        return groupBy == GroupBy.TYPE ? TYPES[group - 1].name() : unitDictionary[group - 1];
+    }
+
+    /**
+     * The filters of a query, resolved to the primitive values of the columns.
+     */
+    private final class Filter {
+
+        private final boolean byUser;
+
+        private final long userId;
+
+        private final int type;
+
+        private final int unit;
+
+        private final boolean byDistance;
+
+        private final double minDistance;
+
+        private final double maxDistance;
+
+        private final boolean byDuration;
+
+        private final int minDuration;
+
+        private final int maxDuration;
+
+        private final boolean byStart;
+
+        private final long from;
+
+        private final long to;
+
+        private Filter(ActionCriteria criteria) {
+            byUser = criteria.getUserId() != null;
+            userId = byUser ? criteria.getUserId() : 0;
+            type = criteria.getType() == null ? NULL_CODE : criteria.getType().ordinal();
+            unit = criteria.getUnit() == null ? NULL_CODE : unitCode(criteria.getUnit());
+            byDistance = criteria.getMinDistance() != null || criteria.getMaxDistance() != null;
+            minDistance = criteria.getMinDistance() == null ? Double.NEGATIVE_INFINITY : criteria.getMinDistance();
+            maxDistance = criteria.getMaxDistance() == null ? Double.POSITIVE_INFINITY : criteria.getMaxDistance();
+            byDuration = criteria.getMinDuration() != null || criteria.getMaxDuration() != null;
+            minDuration = criteria.getMinDuration() == null ? Integer.MIN_VALUE + 1 : criteria.getMinDuration();
+            maxDuration = criteria.getMaxDuration() == null ? Integer.MAX_VALUE : criteria.getMaxDuration();
+            byStart = criteria.getFrom() != null || criteria.getTo() != null;
+            from = criteria.getFrom() == null ? NULL_LONG + 1 : criteria.getFrom().toInstant().toEpochMilli();
+            to = criteria.getTo() == null ? Long.MAX_VALUE : criteria.getTo().toInstant().toEpochMilli();
+        }
+
+        private boolean matches(int row) {
+            if (removed.get(row)) {
+                return false;
+            }
+            if (byUser && userIds[row] != userId) {
+                return false;
+            }
+            if (type != NULL_CODE && types[row] != type) {
+                return false;
+            }
+            if (unit != NULL_CODE && units[row] != unit) {
+                return false;
+            }
+            if (byDistance && !(distances[row] >= minDistance && distances[row] <= maxDistance)) {
+                return false;
+            }
+            if (byDuration && !(durations[row] >= minDuration && durations[row] <= maxDuration)) {
+                return false;
+            }
+            // a null start is NULL_LONG, which is before any lower bound
+            return !byStart || (starts[row] >= from && starts[row] < to);
+        }
+
+        private int unitCode(String unit) {
+            for (int code = 0; code < unitDictionary.length; code++) {
+                if (unitDictionary[code].equals(unit)) {
+                    return code;
+                }
+            }
+            return MISSING_CODE;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.activebeancoders.fitness.service.index;
+
+import com.carrotsearch.hppc.LongObjectHashMap;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory index of the actions of each user, from the primitive id of the user to the start and id of its
+ * actions, in the order of {@code GET /users/:userId/actions}: most recent start first, then greatest id first, and
+ * actions without a start last.
+ * <p>
+ * The actions of a user are kept in parallel primitive arrays, sorted by start then id, with each ObjectId split
+ * into a long and an int: 20 bytes per action, and no object per action. Only actions whose id is an ObjectId are
+ * indexed. Adding an action that is already indexed, or removing one that is not, does nothing.
+ * </p>
+ */
+public class UserActionIndex {
+
+    /**
+     * The start of the actions without one, which sorts before any other.
+     */
+    static final long NULL_START = Long.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final LongObjectHashMap<Timeline> timelines = new LongObjectHashMap<>();
+
+    private final ReadWriteLock timelinesLock = new ReentrantReadWriteLock();
+
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Index an action.
+     *
+     * @param userId the id of the user of the action
+     * @param startMillis the start of the action, in milliseconds since the epoch, or null if it has none
+     * @param id the id of the action
+     * @return false if the id is not an ObjectId, so the action cannot be indexed
+     */
+    public boolean add(long userId, Long startMillis, String id) {
+        if (!ObjectId.isValid(id)) {
+            return false;
+        }
+        if (timeline(userId, true).add(start(startMillis), high(id), low(id))) {
+            size.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Remove an action from the index.
+     *
+     * @param userId the id of the user of the action
+     * @param startMillis the start of the action when it was indexed, or null if it had none
+     * @param id the id of the action
+     */
+    public void remove(long userId, Long startMillis, String id) {
+        if (!ObjectId.isValid(id)) {
+            return;
+        }
+        Timeline timeline = timeline(userId, false);
+        if (timeline != null && timeline.remove(start(startMillis), high(id), low(id))) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Find the ids of the actions of a user that come after an action, most recent first.
+     *
+     * @param userId the id of the user
+     * @param afterStartMillis the start of the action to continue after, or null if it had none
+     * @param afterId the id of the action to continue after, or null to start with the most recent action
+     * @param limit the maximum number of ids to return
+     * @return the ids of the actions, in order
+     * @throws IllegalArgumentException if afterId is not an ObjectId
+     */
+    public List<String> findIdsAfter(long userId, Long afterStartMillis, String afterId, int limit) {
+        if (afterId != null && !ObjectId.isValid(afterId)) {
+            throw new IllegalArgumentException("Not an ObjectId: " + afterId);
+        }
+        Timeline timeline = timeline(userId, false);
+        if (timeline == null) {
+            return Collections.emptyList();
+        }
+        return afterId == null ? timeline.before(limit) :
+            timeline.before(start(afterStartMillis), high(afterId), low(afterId), limit);
+    }
+
+    /**
+     * @return the number of actions in the index
+     */
+    public long size() {
+        return size.get();
+    }
+
+    private Timeline timeline(long userId, boolean create) {
+        timelinesLock.readLock().lock();
+        try {
+            Timeline timeline = timelines.get(userId);
+            if (timeline != null || !create) {
+                return timeline;
+            }
+        } finally {
+            timelinesLock.readLock().unlock();
+        }
+        timelinesLock.writeLock().lock();
+        try {
+            Timeline timeline = timelines.get(userId);
+            if (timeline == null) {
+                timeline = new Timeline();
+                timelines.put(userId, timeline);
+            }
+            return timeline;
+        } finally {
+            timelinesLock.writeLock().unlock();
+        }
+    }
+
+    private static long start(Long startMillis) {
+        return startMillis == null ? NULL_START : startMillis;
+    }
+
+    private static long high(String id) {
+        return Long.parseUnsignedLong(id.substring(0, 16), 16);
+    }
+
+    private static int low(String id) {
+        return Integer.parseUnsignedInt(id.substring(16), 16);
+    }
+
+    static String toHexString(long high, int low) {
+        char[] chars = new char[24];
+        for (int i = 15; i >= 0; i--, high >>>= 4) {
+            chars[i] = HEX_DIGITS[(int) (high & 0xf)];
+        }
+        for (int i = 23; i >= 16; i--, low >>>= 4) {
+            chars[i] = HEX_DIGITS[low & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * The actions of a user, in ascending order of start then id, so that new actions are usually appended.
+     */
+    private static final class Timeline {
+
+        private long[] starts = new long[INITIAL_CAPACITY];
+
+        private long[] highs = new long[INITIAL_CAPACITY];
+
+        private int[] lows = new int[INITIAL_CAPACITY];
+
+        private int size;
+
+        synchronized boolean add(long start, long high, int low) {
+            int index = lowerBound(start, high, low);
+            if (index < size && compare(index, start, high, low) == 0) {
+                return false;
+            }
+            if (size == starts.length) {
+                int capacity = size + (size >> 1);
+                starts = Arrays.copyOf(starts, capacity);
+                highs = Arrays.copyOf(highs, capacity);
+                lows = Arrays.copyOf(lows, capacity);
+            }
+            System.arraycopy(starts, index, starts, index + 1, size - index);
+            System.arraycopy(highs, index, highs, index + 1, size - index);
+            System.arraycopy(lows, index, lows, index + 1, size - index);
+            starts[index] = start;
+            highs[index] = high;
+            lows[index] = low;
+            size++;
+            return true;
+        }
+
+        synchronized boolean remove(long start, long high, int low) {
+            int index = lowerBound(start, high, low);
+            if (index == size || compare(index, start, high, low) != 0) {
+                return false;
+            }
+            System.arraycopy(starts, index + 1, starts, index, size - index - 1);
+            System.arraycopy(highs, index + 1, highs, index, size - index - 1);
+            System.arraycopy(lows, index + 1, lows, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        synchronized List<String> before(int limit) {
+            return idsBefore(size, limit);
+        }
+
+        synchronized List<String> before(long start, long high, int low, int limit) {
+            return idsBefore(lowerBound(start, high, low), limit);
+        }
+
+        private List<String> idsBefore(int end, int limit) {
+            int count = Math.max(0, Math.min(end, limit));
+            List<String> ids = new ArrayList<>(count);
+            for (int index = end - 1; index >= end - count; index--) {
+                ids.add(toHexString(highs[index], lows[index]));
+            }
+            return ids;
+        }
+
+        /**
+         * @return the index of the first action not before the given one, or size if there is none
+         */
+        private int lowerBound(long start, long high, int low) {
+            // most writes are of the latest action
+            if (size == 0 || compare(size - 1, start, high, low) < 0) {
+                return size;
+            }
+            int from = 0;
+            int to = size;
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+                if (compare(middle, start, high, low) < 0) {
+                    from = middle + 1;
+                } else {
+                    to = middle;
+                }
+            }
+            return from;
+        }
+
+        private int compare(int index, long start, long high, int low) {
+            int result = Long.compare(starts[index], start);
+            if (result == 0) {
+                result = Long.compareUnsigned(highs[index], high);
+            }
+            if (result == 0) {
+                result = Integer.compareUnsigned(lows[index], low);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.activebeancoders.fitness.service.util;
+
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Generates random actions for load testing.
+ * <p>
+ * The action at a given index only depends on the seed and on that index, so a range of indexes can be split
+ * across several generators (one per thread, as instances are not thread-safe) and still produce exactly the same
+ * data as a single generator walking the whole range.
+ * </p>
+ */
+public class RandomActionGenerator {
+
+    private static final ActionType[] TYPES = ActionType.values();
+
+    private static final String[] UNITS = {"Miles", "Kilometers", "Steps", "Laps"};
+
+    private static final String[] WORDS = {
+        "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do", "eiusmod",
+        "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua", "enim", "ad", "minim", "veniam",
+        "quis", "nostrud", "exercitation", "ullamco", "laboris", "nisi", "aliquip", "ex", "ea", "commodo",
+        "consequat", "duis", "aute", "irure", "in", "reprehenderit", "voluptate", "velit", "esse", "cillum",
+        "fugiat", "nulla", "pariatur", "excepteur", "sint", "occaecat", "cupidatat", "non", "proident", "sunt",
+        "culpa", "qui", "officia", "deserunt", "mollit", "anim", "id", "est", "laborum", "morning", "evening",
+        "trail", "track", "pool", "park", "hill", "river", "tired", "strong", "easy", "hard", "tempo", "recovery",
+        "interval", "warmup", "cooldown", "personal", "best", "rain", "sun", "wind", "snow", "friends", "alone"
+    };
+
+    private static final long MIN_START_MILLIS =
+        ZonedDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+
+    private static final long MAX_START_MILLIS =
+        ZonedDateTime.of(2017, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+
+    /**
+     * One entry per generated field. Built once and shared, instead of a map of closures per record.
+     */
+    private static final List<FieldGenerator> FIELD_GENERATORS = Collections.unmodifiableList(Arrays.asList(
+        (action, random) -> action.setUserId(random.nextLong(1, 501)),
+        (action, random) -> action.setType(TYPES[random.nextInt(TYPES.length)]),
+        (action, random) -> action.setUnit(UNITS[random.nextInt(UNITS.length)]),
+        (action, random) -> action.setDistance(random.nextDouble(1.0, 100.0)),
+        (action, random) -> action.setDuration(random.nextInt(301)),
+        (action, random) -> action.setStart(ZonedDateTime.ofInstant(
+            Instant.ofEpochMilli(random.nextLong(MIN_START_MILLIS, MAX_START_MILLIS)), ZoneOffset.UTC)),
+        (action, random) -> action.setComment(random.words(10 + random.nextInt(91)))
+    ));
+
+    private final long seed;
+
+    private final Random random = new Random();
+
+    public RandomActionGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Generate the action at the given index.
+     *
+     * @param index the position of the action in the generated sequence
+     * @return a new action, without an ID
+     */
+    public Action generate(long index) {
+        random.reset(seed, index);
+        Action action = new Action();
+        for (FieldGenerator fieldGenerator : FIELD_GENERATORS) {
+            fieldGenerator.apply(action, random);
+        }
+        return action;
+    }
+
+    @FunctionalInterface
+    private interface FieldGenerator {
+
+        void apply(Action action, Random random);
+    }
+
+    /**
+     * SplitMix64 generator which, unlike {@link java.util.SplittableRandom}, can be re-seeded in place so that no
+     * object is allocated per generated action.
+     */
+    private static final class Random {
+
+        private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+        private final StringBuilder words = new StringBuilder(1024);
+
+        private long state;
+
+        void reset(long seed, long index) {
+            state = mix(seed ^ mix(index * GOLDEN_GAMMA));
+        }
+
+        long nextLong() {
+            return mix(state += GOLDEN_GAMMA);
+        }
+
+        int nextInt(int bound) {
+            return (int) ((nextLong() >>> 33) % bound);
+        }
+
+        long nextLong(long origin, long bound) {
+            return origin + (nextLong() >>> 1) % (bound - origin);
+        }
+
+        double nextDouble(double origin, double bound) {
+            return origin + (nextLong() >>> 11) * 0x1.0p-53 * (bound - origin);
+        }
+
+        String words(int count) {
+            words.setLength(0);
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    words.append(' ');
+                }
+                words.append(WORDS[nextInt(WORDS.length)]);
+            }
+            return words.toString();
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.activebeancoders.fitness.web.rest;
+
+import com.activebeancoders.fitness.repository.ActionCriteria;
+import com.activebeancoders.fitness.service.ActionSnapshotService;
+import com.activebeancoders.fitness.service.analytics.ActionColumns;
+import com.activebeancoders.fitness.web.rest.dto.ActionAnalyticsDTO;
+import com.activebeancoders.fitness.web.rest.util.HeaderUtil;
+import com.codahale.metrics.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * REST controller for ad-hoc analytics of the actions, computed on the in-process snapshot of the actions rather
+ * than in the database.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnProperty(prefix = "jhipster.analytics", name = "enabled", havingValue = "true")
+public class ActionAnalyticsResource {
+
+    private final Logger log = LoggerFactory.getLogger(ActionAnalyticsResource.class);
+
+    @Inject
+    private ActionSnapshotService actionSnapshotService;
+
+    /**
+     * GET  /actions/_analytics : get the statistics of the distance or duration of the actions that match some
+     * filters, per type or unit.
+     * <p>
+     * The filters are those of GET /actions/_search. Actions created recently, or updated or deleted since the
+     * last rebuild of the snapshot, may not be accounted for; the X-Snapshot-Size header counts the actions of the
+     * snapshot.
+     * </p>
+     *
+     * @param criteria the filters of the actions
+     * @param measure DISTANCE or DURATION
+     * @param groupBy NONE, TYPE or UNIT
+     * @param percents the percentiles to compute, if any, from 0 to 100
+     * @param bucketWidth the width of the buckets of a histogram, if one is wanted
+     * @return the ResponseEntity with status 200 (OK) and the list of the statistics of each group in body,
+     * or with status 400 (Bad Request) if a percent or the bucket width is out of range, or the buckets are too many
+     */
+    @RequestMapping(value = "/actions/_analytics",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<ActionAnalyticsDTO>> analyzeActions(ActionCriteria criteria,
+        @RequestParam("measure") ActionColumns.Measure measure,
+        @RequestParam(value = "groupBy", defaultValue = "NONE") ActionColumns.GroupBy groupBy,
+        @RequestParam(value = "percents", required = false) double[] percents,
+        @RequestParam(value = "bucketWidth", required = false) Double bucketWidth) {
+        log.debug("REST request to analyze the {} of Actions per {} : {}", measure, groupBy, criteria);
+        List<ActionAnalyticsDTO> result;
+        try {
+            result = actionSnapshotService.analyze(criteria, groupBy, measure,
+                percents == null ? new double[0] : percents, bucketWidth);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("action", "badanalytics", e.getMessage())).body(null);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Snapshot-Size", Integer.toString(actionSnapshotService.getSize()));
+        return new ResponseEntity<>(result, headers, HttpStatus.OK);
+    }
+}
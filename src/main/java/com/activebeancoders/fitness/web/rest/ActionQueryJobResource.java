@@ -0,0 +1,172 @@
+package com.activebeancoders.fitness.web.rest;
+
+import com.activebeancoders.fitness.domain.ActionQueryJob;
+import com.activebeancoders.fitness.domain.enumeration.ActionQueryOperation;
+import com.activebeancoders.fitness.security.AuthoritiesConstants;
+import com.activebeancoders.fitness.service.ActionQueryJobService;
+import com.activebeancoders.fitness.web.rest.util.HeaderUtil;
+import com.codahale.metrics.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * REST controller for deleting or updating all the actions that match a query, and following the progress of
+ * those jobs.
+ * <p>
+ * A query matches the actions of a user, of a type, and that start from a date inclusive to a date exclusive; its
+ * empty fields match any action, but at least one of them must be set. Jobs that match at most
+ * {@value #SYNCHRONOUS_LIMIT} actions are waited for, for up to {@value #SYNCHRONOUS_TIMEOUT_SECONDS} seconds;
+ * larger or slower ones continue in the background. As they change the actions of any user, jobs are reserved to
+ * administrators.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api")
+@Secured(AuthoritiesConstants.ADMIN)
+public class ActionQueryJobResource {
+
+    static final long SYNCHRONOUS_LIMIT = 10000;
+
+    static final long SYNCHRONOUS_TIMEOUT_SECONDS = 5;
+
+    private final Logger log = LoggerFactory.getLogger(ActionQueryJobResource.class);
+
+    @Inject
+    private ActionQueryJobService actionQueryJobService;
+
+    /**
+     * POST  /actions/_delete_by_query : Delete all the actions that match a query.
+     *
+     * @param actionQueryJob the query; at least one of its fields must be set
+     * @return the ResponseEntity with status 200 (OK) and with body the completed job,
+     * or with status 202 (Accepted) and with body the running job if it matches too many actions to be waited for
+     * or did not complete in time, or with status 400 (Bad Request) if the job has already an ID or its query is
+     * empty
+     * @throws URISyntaxException if the Location URI syntax is incorrect
+     * @throws InterruptedException if interrupted while waiting for the job
+     * @throws ExecutionException if the job could not be run
+     */
+    @RequestMapping(value = "/actions/_delete_by_query",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<ActionQueryJob> deleteActionsByQuery(@RequestBody ActionQueryJob actionQueryJob)
+        throws URISyntaxException, InterruptedException, ExecutionException {
+        log.debug("REST request to delete Actions by query : {}", actionQueryJob);
+        if (actionQueryJob.getId() != null) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("actionQueryJob", "idexists", "A new action query job cannot already have an ID")).body(null);
+        }
+        if (isEmptyQuery(actionQueryJob)) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("actionQueryJob", "emptyquery", "A deletion by query must filter the actions")).body(null);
+        }
+        actionQueryJob.setOperation(ActionQueryOperation.DELETE);
+        return start(actionQueryJob);
+    }
+
+    /**
+     * POST  /actions/_update_by_query : Set new values on all the actions that match a query.
+     *
+     * @param actionQueryJob the query, at least one of whose fields must be set, and the new type, unit or comment
+     * of the actions
+     * @return the ResponseEntity with status 200 (OK) and with body the completed job,
+     * or with status 202 (Accepted) and with body the running job if it matches too many actions to be waited for
+     * or did not complete in time, or with status 400 (Bad Request) if the job has already an ID, its query is
+     * empty or it has no new value
+     * @throws URISyntaxException if the Location URI syntax is incorrect
+     * @throws InterruptedException if interrupted while waiting for the job
+     * @throws ExecutionException if the job could not be run
+     */
+    @RequestMapping(value = "/actions/_update_by_query",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<ActionQueryJob> updateActionsByQuery(@RequestBody ActionQueryJob actionQueryJob)
+        throws URISyntaxException, InterruptedException, ExecutionException {
+        log.debug("REST request to update Actions by query : {}", actionQueryJob);
+        if (actionQueryJob.getId() != null) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("actionQueryJob", "idexists", "A new action query job cannot already have an ID")).body(null);
+        }
+        if (isEmptyQuery(actionQueryJob)) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("actionQueryJob", "emptyquery", "An update by query must filter the actions")).body(null);
+        }
+        if (actionQueryJob.getNewType() == null && actionQueryJob.getNewUnit() == null &&
+            actionQueryJob.getNewComment() == null) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("actionQueryJob", "nochange", "An update by query must set a new type, unit or comment")).body(null);
+        }
+        actionQueryJob.setOperation(ActionQueryOperation.UPDATE);
+        return start(actionQueryJob);
+    }
+
+    /**
+     * GET  /action-query-jobs : get all the action query jobs.
+     *
+     * @return the list of action query jobs, with their progress
+     */
+    @RequestMapping(value = "/action-query-jobs",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public List<ActionQueryJob> getAllActionQueryJobs() {
+        log.debug("REST request to get all ActionQueryJobs");
+        return actionQueryJobService.findAll();
+    }
+
+    /**
+     * GET  /action-query-jobs/:id : get the "id" action query job.
+     *
+     * @param id the id of the action query job to retrieve
+     * @return the ResponseEntity with status 200 (OK) and with body the job, or with status 404 (Not Found)
+     */
+    @RequestMapping(value = "/action-query-jobs/{id}",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<ActionQueryJob> getActionQueryJob(@PathVariable String id) {
+        log.debug("REST request to get ActionQueryJob : {}", id);
+        return actionQueryJobService.findOne(id)
+            .map(result -> new ResponseEntity<>(
+                result,
+                HttpStatus.OK))
+            .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    private static boolean isEmptyQuery(ActionQueryJob actionQueryJob) {
+        return actionQueryJob.getUserId() == null && actionQueryJob.getType() == null &&
+            actionQueryJob.getFrom() == null && actionQueryJob.getTo() == null;
+    }
+
+    /**
+     * Start a job, and wait for it if it is small, but never longer than {@value #SYNCHRONOUS_TIMEOUT_SECONDS}
+     * seconds, as it runs on the shared async executor, which may be busy.
+     */
+    private ResponseEntity<ActionQueryJob> start(ActionQueryJob actionQueryJob)
+        throws URISyntaxException, InterruptedException, ExecutionException {
+        ActionQueryJob result = actionQueryJobService.create(actionQueryJob);
+        Future<ActionQueryJob> completion = actionQueryJobService.run(result);
+        if (result.getTotal() <= SYNCHRONOUS_LIMIT) {
+            try {
+                return ResponseEntity.ok(completion.get(SYNCHRONOUS_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            } catch (TimeoutException e) {
+                log.debug("Action query job {} continues in the background", result.getId());
+                result = actionQueryJobService.findOne(result.getId()).orElse(result);
+            }
+        }
+        return ResponseEntity.accepted()
+            .location(new URI("/api/action-query-jobs/" + result.getId()))
+            .body(result);
+    }
+}
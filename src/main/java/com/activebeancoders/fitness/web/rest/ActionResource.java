@@ -2,34 +2,103 @@ package com.activebeancoders.fitness.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
 import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.repository.ActionCriteria;
 import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.search.ActionSearchRepository;
+import com.activebeancoders.fitness.service.ActionAggregationService;
+import com.activebeancoders.fitness.security.AuthoritiesConstants;
+import com.activebeancoders.fitness.service.ActionBulkService;
+import com.activebeancoders.fitness.service.ActionIndexingService;
+import com.activebeancoders.fitness.service.ActionService;
+import com.activebeancoders.fitness.service.UserActionIndexService;
+import com.activebeancoders.fitness.web.rest.dto.ActionBulkResultDTO;
+import com.activebeancoders.fitness.web.rest.dto.ActionSummaryDTO;
+import com.activebeancoders.fitness.web.rest.util.ETagUtil;
 import com.activebeancoders.fitness.web.rest.util.HeaderUtil;
+import com.activebeancoders.fitness.web.rest.util.KeysetPaginationUtil;
+import com.activebeancoders.fitness.web.rest.util.PaginationUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.activebeancoders.fitness.config.JacksonConfiguration.APPLICATION_CBOR_VALUE;
+import static com.activebeancoders.fitness.config.JacksonConfiguration.APPLICATION_SMILE_VALUE;
 
 /**
  * REST controller for managing Action.
+ * <p>
+ * Responses are JSON unless the Accept header asks for Smile or CBOR, compact binary encodings in which timestamps
+ * are epoch millis, and single actions may be created or updated in either format too. Bulk creation and the
+ * NDJSON stream are only JSON.
+ * </p>
  */
 @RestController
 @RequestMapping("/api")
 public class ActionResource {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int MAX_KEYSET_PAGE_SIZE = 1000;
+
+    /**
+     * The formats of an action, in the order of preference of the {@code produces} of its endpoints.
+     */
+    private static final List<MediaType> ACTION_MEDIA_TYPES = Arrays.asList(MediaType.APPLICATION_JSON,
+        MediaType.parseMediaType(APPLICATION_SMILE_VALUE), MediaType.parseMediaType(APPLICATION_CBOR_VALUE));
+
     private final Logger log = LoggerFactory.getLogger(ActionResource.class);
         
+    @Inject
+    private ActionService actionService;
+
     @Inject
     private ActionRepository actionRepository;
+
+    @Inject
+    private ActionAggregationService actionAggregationService;
+
+    @Inject
+    private ActionBulkService actionBulkService;
+
+    @Inject
+    private ActionIndexingService actionIndexingService;
+
+    @Inject
+    private UserActionIndexService userActionIndexService;
+
+    @Inject
+    private ObjectMapper objectMapper;
     
     /**
      * POST  /actions : Create a new action.
@@ -40,19 +109,47 @@ public class ActionResource {
      */
     @RequestMapping(value = "/actions",
         method = RequestMethod.POST,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
     @Timed
     public ResponseEntity<Action> createAction(@Valid @RequestBody Action action) throws URISyntaxException {
         log.debug("REST request to save Action : {}", action);
         if (action.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("action", "idexists", "A new action cannot already have an ID")).body(null);
         }
-        Action result = actionRepository.save(action);
+        Action result = actionService.save(action);
         return ResponseEntity.created(new URI("/api/actions/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("action", result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * POST  /actions/_bulk : Create many new actions.
+     * <p>
+     * The body is either a JSON array of actions or newline delimited JSON, and is read while the actions are
+     * written, so a single request can carry any number of actions.
+     * </p>
+     *
+     * @param body the actions to create
+     * @return the ResponseEntity with status 200 (OK) and with body the number of actions created and the status of
+     * each item, or with status 400 (Bad Request) if the body is not well-formed JSON, or with status 500 (Internal
+     * Server Error) if some actions could not be written; in both cases with the same body, for the items read
+     * @throws IOException if the body could not be read
+     * @throws InterruptedException if interrupted while waiting for the actions to be written
+     */
+    @RequestMapping(value = "/actions/_bulk",
+        method = RequestMethod.POST,
+        consumes = {APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    @Timed
+    public ResponseEntity<ActionBulkResultDTO> createActions(InputStream body)
+        throws IOException, InterruptedException {
+        log.debug("REST request to save Actions in bulk");
+        ActionBulkResultDTO result = actionBulkService.createAll(body);
+        HttpStatus status = result.isComplete() ? HttpStatus.OK :
+            result.getWriteError() != null ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(result);
+    }
+
     /**
      * PUT  /actions : Updates an existing action.
      *
@@ -64,51 +161,256 @@ public class ActionResource {
      */
     @RequestMapping(value = "/actions",
         method = RequestMethod.PUT,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
     @Timed
     public ResponseEntity<Action> updateAction(@Valid @RequestBody Action action) throws URISyntaxException {
         log.debug("REST request to update Action : {}", action);
         if (action.getId() == null) {
             return createAction(action);
         }
-        Action result = actionRepository.save(action);
+        Action result = actionService.save(action);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("action", action.getId().toString()))
             .body(result);
     }
 
     /**
-     * GET  /actions : get all the actions.
+     * GET  /actions : get a page of actions.
      *
+     * @param pageable the pagination information
      * @return the ResponseEntity with status 200 (OK) and the list of actions in body
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
     @RequestMapping(value = "/actions",
         method = RequestMethod.GET,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    @Timed
+    public ResponseEntity<List<Action>> getAllActions(Pageable pageable)
+        throws URISyntaxException {
+        log.debug("REST request to get a page of Actions");
+        Page<Action> page = actionService.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/actions");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /actions/_search : get a page of the actions that match some filters.
+     * <p>
+     * The filters are the userId, type and unit of the actions, ranges of their distance and duration from
+     * minDistance and minDuration to maxDistance and maxDuration inclusive, and a range of their start from the
+     * ISO date-time "from" inclusive to "to" exclusive. The X-Total-Count header counts the matches up to
+     * {@value ActionRepository#MAX_RESULT_WINDOW}, beyond which X-Total-Count-Relation is "gte" rather than "eq".
+     * </p>
+     *
+     * @param criteria the filters of the search
+     * @param pageable the pagination information, sorted by start then id, both descending, by default
+     * @param request the request, whose filters are kept in the pagination links
+     * @return the ResponseEntity with status 200 (OK) and the list of actions in body,
+     * or with status 400 (Bad Request) if the page ends beyond the first
+     * {@value ActionRepository#MAX_RESULT_WINDOW} matches or is sorted on an unknown property
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @RequestMapping(value = "/actions/_search",
+        method = RequestMethod.GET,
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    @Timed
+    public ResponseEntity<List<Action>> searchActions(ActionCriteria criteria, Pageable pageable,
+                                                      HttpServletRequest request) throws URISyntaxException {
+        log.debug("REST request to search for a page of Actions : {}", criteria);
+        Page<Action> page;
+        try {
+            page = actionRepository.search(criteria, pageable);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("action", "badsearch", e.getMessage())).body(null);
+        }
+        String baseUrl = UriComponentsBuilder.fromPath("/api/actions/_search")
+            .query(request.getQueryString())
+            .replaceQueryParam("page")
+            .replaceQueryParam("size")
+            .build()
+            .toUriString();
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, baseUrl);
+        headers.add("X-Total-Count-Relation",
+            page.getTotalElements() >= ActionRepository.MAX_RESULT_WINDOW ? "gte" : "eq");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /_search/actions?q=:query : search for the actions whose comment matches a full-text query, best match
+     * first.
+     * <p>
+     * The query uses the Lucene syntax, for example {@code q=morning AND "long run"}. Changes to actions become
+     * searchable within {@code jhipster.search.refreshIntervalMillis}.
+     * </p>
+     *
+     * @param query the full-text query
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of actions in body,
+     * or with status 400 (Bad Request) if the query is malformed or the page ends beyond the first
+     * {@value ActionSearchRepository#MAX_RESULT_WINDOW} matches
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @RequestMapping(value = "/_search/actions",
+        method = RequestMethod.GET,
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
     @Timed
-    public List<Action> getAllActions() {
-        log.debug("REST request to get all Actions");
-        List<Action> actions = actionRepository.findAll();
-        return actions;
+    public ResponseEntity<List<Action>> searchActionComments(@RequestParam("q") String query, Pageable pageable)
+        throws URISyntaxException {
+        log.debug("REST request to search for a page of Actions for query {}", query);
+        Page<Action> page;
+        try {
+            page = actionService.search(query, pageable);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("action", "badsearch", e.getMessage())).body(null);
+        }
+        String baseUrl = UriComponentsBuilder.fromPath("/api/_search/actions")
+            .queryParam("q", query)
+            .build()
+            .encode()
+            .toUriString();
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, baseUrl);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * POST  /_search/actions/reindex : rebuild the full-text index from all the actions, in the background.
+     *
+     * @return the ResponseEntity with status 202 (Accepted), or with status 400 (Bad Request) if a reindex is already running
+     */
+    @RequestMapping(value = "/_search/actions/reindex",
+        method = RequestMethod.POST,
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<Void> reindexActions() {
+        log.debug("REST request to reindex the Actions");
+        if (actionIndexingService.isReindexing()) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("action", "reindexrunning", "A reindex of the actions is already running")).build();
+        }
+        actionIndexingService.reindex();
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * GET  /actions/stream : get all the actions, as newline delimited JSON.
+     * <p>
+     * Actions are written one per line while they are read from a Mongo cursor, so memory use does not depend on
+     * the size of the collection.
+     * </p>
+     *
+     * @param sort the order of the actions, by ID by default
+     * @return the ResponseEntity with status 200 (OK) and the actions in body
+     */
+    @RequestMapping(value = "/actions/stream",
+        method = RequestMethod.GET,
+        produces = APPLICATION_NDJSON_VALUE)
+    @Timed
+    public ResponseEntity<StreamingResponseBody> streamAllActions(
+        @SortDefault("id") Sort sort) {
+        log.debug("REST request to stream all Actions");
+        ObjectWriter writer = objectMapper.writerFor(Action.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Action> actions = actionRepository.streamAllBy(sort);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                Iterator<Action> iterator = actions.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+            .body(body);
+    }
+
+    /**
+     * GET  /users/:userId/actions : get a page of the actions of a user, most recent first.
+     * <p>
+     * Each page continues after the last action of the previous one, which the "next" link and the X-Next-Token
+     * header of the response point to, so that fetching a page costs the same at any depth. Pages are listed from
+     * the in-memory index of the actions of each user, see UserActionIndexService.
+     * </p>
+     *
+     * @param userId the id of the user
+     * @param after the continuation token of the previous page, if any
+     * @param size the number of actions per page
+     * @return the ResponseEntity with status 200 (OK) and the list of actions in body,
+     * or with status 400 (Bad Request) if the continuation token is not valid
+     */
+    @RequestMapping(value = "/users/{userId}/actions",
+        method = RequestMethod.GET,
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    @Timed
+    public ResponseEntity<List<Action>> getUserActions(@PathVariable Long userId,
+                                                       @RequestParam(required = false) String after,
+                                                       @RequestParam(defaultValue = "20") int size) {
+        log.debug("REST request to get a page of Actions of user {} after {}", userId, after);
+        size = Math.max(1, Math.min(size, MAX_KEYSET_PAGE_SIZE));
+        List<Action> actions;
+        if (after == null) {
+            actions = userActionIndexService.findByUserIdAfter(userId, null, null, size + 1);
+        } else {
+            actions = userActionIndexService.findByUserIdAfter(userId, KeysetPaginationUtil.decodeTimestamp(after),
+                KeysetPaginationUtil.decodeId(after), size + 1);
+        }
+        String nextToken = null;
+        if (actions.size() > size) {
+            actions = actions.subList(0, size);
+            Action last = actions.get(size - 1);
+            nextToken = KeysetPaginationUtil.encodeToken(last.getStart(), last.getId());
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(nextToken, size,
+            "/api/users/" + userId + "/actions");
+        return new ResponseEntity<>(actions, headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /users/:userId/actions/summary : get the totals of the actions of a user, per type and per week or month.
+     *
+     * @param userId the id of the user
+     * @param period the period to sum up actions by, WEEK or MONTH
+     * @param fromDate the first day of the actions to sum up, if any
+     * @param toDate the last day of the actions to sum up, if any
+     * @return the ResponseEntity with status 200 (OK) and the list of summaries in body, in chronological order
+     */
+    @RequestMapping(value = "/users/{userId}/actions/summary",
+        method = RequestMethod.GET,
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    @Timed
+    public List<ActionSummaryDTO> getUserActionSummary(@PathVariable Long userId,
+        @RequestParam(defaultValue = "WEEK") ActionAggregationService.Period period,
+        @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+        @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        log.debug("REST request to summarize the Actions of user {} per {}", userId, period);
+        return actionAggregationService.summarizeUserActions(userId, period,
+            fromDate == null ? null : fromDate.atStartOfDay(ZoneOffset.UTC),
+            toDate == null ? null : toDate.plusDays(1).atStartOfDay(ZoneOffset.UTC));
     }
 
     /**
      * GET  /actions/:id : get the "id" action.
      *
      * @param id the id of the action to retrieve
-     * @return the ResponseEntity with status 200 (OK) and with body the action, or with status 404 (Not Found)
+     * @return the ResponseEntity with status 200 (OK) and with body the action,
+     * or with status 304 (Not Modified) if the If-None-Match header matches the ETag of the action in the format
+     * asked for, or with status 404 (Not Found)
      */
     @RequestMapping(value = "/actions/{id}",
         method = RequestMethod.GET,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
     @Timed
-    public ResponseEntity<Action> getAction(@PathVariable String id) {
+    public ResponseEntity<Action> getAction(@PathVariable String id, HttpServletRequest request) {
         log.debug("REST request to get Action : {}", id);
-        Action action = actionRepository.findOne(id);
+        Action action = actionService.findOne(id);
         return Optional.ofNullable(action)
-            .map(result -> new ResponseEntity<>(
-                result,
-                HttpStatus.OK))
+            .map(result -> ResponseEntity.ok()
+                // a strong ETag identifies the bytes of the body, so it differs in each format
+                .eTag(eTagOf(result, negotiatedMediaType(request)))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .body(result))
             .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -120,12 +422,35 @@ public class ActionResource {
      */
     @RequestMapping(value = "/actions/{id}",
         method = RequestMethod.DELETE,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
     @Timed
     public ResponseEntity<Void> deleteAction(@PathVariable String id) {
         log.debug("REST request to delete Action : {}", id);
-        actionRepository.delete(id);
+        actionService.delete(id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("action", id.toString())).build();
     }
 
+    /**
+     * @return the format an action is written in for a request: the first of its formats that the most acceptable
+     * media type of the Accept header matches, as the message converters choose it
+     */
+    private static MediaType negotiatedMediaType(HttpServletRequest request) {
+        List<MediaType> acceptable = MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT));
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        for (MediaType mediaType : acceptable) {
+            for (MediaType actionMediaType : ACTION_MEDIA_TYPES) {
+                if (mediaType.isCompatibleWith(actionMediaType)) {
+                    return actionMediaType;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private static String eTagOf(Action action, MediaType mediaType) {
+        return ETagUtil.generateETag(mediaType, action.getId(), action.getUserId(),
+            action.getStart() == null ? null : action.getStart().toInstant(), action.getDuration(),
+            action.getUnit(), action.getDistance(), action.getComment(), action.getType());
+    }
+
 }
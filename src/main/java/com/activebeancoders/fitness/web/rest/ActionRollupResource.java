@@ -0,0 +1,71 @@
+package com.activebeancoders.fitness.web.rest;
+
+import com.activebeancoders.fitness.domain.ActionRollup;
+import com.activebeancoders.fitness.security.AuthoritiesConstants;
+import com.activebeancoders.fitness.service.ActionRollupService;
+import com.activebeancoders.fitness.web.rest.util.HeaderUtil;
+import com.codahale.metrics.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * REST controller for reading the daily rollups of actions.
+ */
+@RestController
+@RequestMapping("/api")
+public class ActionRollupResource {
+
+    private final Logger log = LoggerFactory.getLogger(ActionRollupResource.class);
+
+    @Inject
+    private ActionRollupService actionRollupService;
+
+    /**
+     * GET  /users/:userId/action-rollups : get the daily totals of the actions of a user, per type.
+     *
+     * @param userId the id of the user
+     * @param fromDate the first day of the rollups to get, if any
+     * @param toDate the last day of the rollups to get, if any
+     * @return the list of rollups, in chronological order
+     */
+    @RequestMapping(value = "/users/{userId}/action-rollups",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public List<ActionRollup> getUserActionRollups(@PathVariable Long userId,
+        @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+        @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        log.debug("REST request to get the ActionRollups of user {} from {} to {}", userId, fromDate, toDate);
+        return actionRollupService.findByUser(userId, fromDate, toDate);
+    }
+
+    /**
+     * POST  /action-rollups/rebuild : recompute all the rollups from the actions, in the background.
+     *
+     * @return the ResponseEntity with status 202 (Accepted), or with status 400 (Bad Request) if a rebuild is already running
+     */
+    @RequestMapping(value = "/action-rollups/rebuild",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<Void> rebuildActionRollups() {
+        log.debug("REST request to rebuild the ActionRollups");
+        if (actionRollupService.isRebuilding()) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("actionRollup", "rebuildrunning", "A rebuild of the action rollups is already running")).build();
+        }
+        actionRollupService.rebuild();
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    }
+
+}
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URISyntaxException;
 import javax.inject.Inject;
@@ -68,6 +69,37 @@ public class AuditResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * GET  /audits/export : export all the AuditEvents between the fromDate and toDate, as newline delimited JSON
+     * or as CSV.
+     * <p>
+     * Events are written while they are read from a Mongo cursor, so memory use does not depend on the size of the
+     * time period.
+     * </p>
+     *
+     * @param fromDate the first day of the time period of AuditEvents to export
+     * @param toDate the last day of the time period of AuditEvents to export
+     * @param format the format of the export, NDJSON by default
+     * @return the ResponseEntity with status 200 (OK) and the AuditEvents in body, as an attachment
+     */
+    @RequestMapping(value = "/export",
+        method = RequestMethod.GET,
+        params = {"fromDate", "toDate"},
+        produces = {ActionResource.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> export(
+        @RequestParam(value = "fromDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+        @RequestParam(value = "toDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+        @RequestParam(defaultValue = "NDJSON") AuditEventService.ExportFormat format) {
+
+        StreamingResponseBody body = outputStream ->
+            auditEventService.export(fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay(), format, outputStream);
+        String filename = "audits-" + fromDate + "-" + toDate + "." + format.getExtension();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getMediaType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
+
     /**
      * GET  /audits/:id : get an AuditEvent by id.
      *
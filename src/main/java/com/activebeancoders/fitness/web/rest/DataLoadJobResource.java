@@ -0,0 +1,149 @@
+package com.activebeancoders.fitness.web.rest;
+
+import com.activebeancoders.fitness.domain.DataLoadJob;
+import com.activebeancoders.fitness.security.AuthoritiesConstants;
+import com.activebeancoders.fitness.service.DataLoadJobService;
+import com.activebeancoders.fitness.web.rest.util.HeaderUtil;
+import com.codahale.metrics.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import javax.validation.Valid;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+
+/**
+ * REST controller for starting and following random data load jobs.
+ * <p>
+ * The records/sec and ETA of running jobs are published in the metrics registry, under
+ * {@code com.activebeancoders.fitness.service.DataLoadJobService.<id>}.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api")
+@Secured(AuthoritiesConstants.ADMIN)
+public class DataLoadJobResource {
+
+    private final Logger log = LoggerFactory.getLogger(DataLoadJobResource.class);
+
+    @Inject
+    private DataLoadJobService dataLoadJobService;
+
+    /**
+     * POST  /data-load-jobs : Start a new data load job.
+     *
+     * @param dataLoadJob the job to start; only its count and seed are used
+     * @return the ResponseEntity with status 201 (Created) and with body the new job, or with status 400 (Bad Request) if the job has already an ID
+     * @throws URISyntaxException if the Location URI syntax is incorrect
+     */
+    @RequestMapping(value = "/data-load-jobs",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<DataLoadJob> createDataLoadJob(@Valid @RequestBody DataLoadJob dataLoadJob) throws URISyntaxException {
+        log.debug("REST request to start DataLoadJob : {}", dataLoadJob);
+        if (dataLoadJob.getId() != null) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("dataLoadJob", "idexists", "A new data load job cannot already have an ID")).body(null);
+        }
+        DataLoadJob result = dataLoadJobService.create(dataLoadJob.getCount(), dataLoadJob.getSeed());
+        dataLoadJobService.run(result);
+        return ResponseEntity.created(new URI("/api/data-load-jobs/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert("dataLoadJob", result.getId()))
+            .body(result);
+    }
+
+    /**
+     * GET  /data-load-jobs : get all the data load jobs.
+     *
+     * @return the list of data load jobs, with their checkpointed progress
+     */
+    @RequestMapping(value = "/data-load-jobs",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public List<DataLoadJob> getAllDataLoadJobs() {
+        log.debug("REST request to get all DataLoadJobs");
+        return dataLoadJobService.findAll();
+    }
+
+    /**
+     * GET  /data-load-jobs/:id : get the "id" data load job.
+     *
+     * @param id the id of the data load job to retrieve
+     * @return the ResponseEntity with status 200 (OK) and with body the job, or with status 404 (Not Found)
+     */
+    @RequestMapping(value = "/data-load-jobs/{id}",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<DataLoadJob> getDataLoadJob(@PathVariable String id) {
+        log.debug("REST request to get DataLoadJob : {}", id);
+        return dataLoadJobService.findOne(id)
+            .map(result -> new ResponseEntity<>(
+                result,
+                HttpStatus.OK))
+            .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * PUT  /data-load-jobs/:id/pause : pause the "id" data load job after its current batches.
+     *
+     * @param id the id of the data load job to pause
+     * @return the ResponseEntity with status 200 (OK), or with status 400 (Bad Request) if the job is not running
+     */
+    @RequestMapping(value = "/data-load-jobs/{id}/pause",
+        method = RequestMethod.PUT,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<Void> pauseDataLoadJob(@PathVariable String id) {
+        log.debug("REST request to pause DataLoadJob : {}", id);
+        if (!dataLoadJobService.pause(id)) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("dataLoadJob", "notrunning", "Only a running data load job can be paused")).build();
+        }
+        return ResponseEntity.ok().headers(HeaderUtil.createEntityUpdateAlert("dataLoadJob", id)).build();
+    }
+
+    /**
+     * PUT  /data-load-jobs/:id/resume : resume the "id" data load job from its checkpoints.
+     *
+     * @param id the id of the data load job to resume
+     * @return the ResponseEntity with status 200 (OK), or with status 400 (Bad Request) if the job is neither paused nor failed
+     */
+    @RequestMapping(value = "/data-load-jobs/{id}/resume",
+        method = RequestMethod.PUT,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<Void> resumeDataLoadJob(@PathVariable String id) {
+        log.debug("REST request to resume DataLoadJob : {}", id);
+        if (!dataLoadJobService.resume(id)) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("dataLoadJob", "notresumable", "Only a paused or failed data load job can be resumed")).build();
+        }
+        return ResponseEntity.ok().headers(HeaderUtil.createEntityUpdateAlert("dataLoadJob", id)).build();
+    }
+
+    /**
+     * PUT  /data-load-jobs/:id/cancel : cancel the "id" data load job, keeping the records it already loaded.
+     *
+     * @param id the id of the data load job to cancel
+     * @return the ResponseEntity with status 200 (OK), or with status 400 (Bad Request) if the job is neither running nor paused
+     */
+    @RequestMapping(value = "/data-load-jobs/{id}/cancel",
+        method = RequestMethod.PUT,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<Void> cancelDataLoadJob(@PathVariable String id) {
+        log.debug("REST request to cancel DataLoadJob : {}", id);
+        if (!dataLoadJobService.cancel(id)) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("dataLoadJob", "notcancellable", "Only a running or paused data load job can be cancelled")).build();
+        }
+        return ResponseEntity.ok().headers(HeaderUtil.createEntityUpdateAlert("dataLoadJob", id)).build();
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.activebeancoders.fitness.web.rest;
+
+import com.activebeancoders.fitness.web.rest.dto.IndexUsageDTO;
+
+import com.codahale.metrics.annotation.Timed;
+import com.mongodb.AggregationOptions;
+import com.mongodb.BasicDBObject;
+import com.mongodb.Cursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Controller for viewing how often each MongoDB index is used, to find the indexes that can be dropped.
+ */
+@RestController
+@RequestMapping("/management/jhipster")
+public class IndexUsageResource {
+
+    private final Logger log = LoggerFactory.getLogger(IndexUsageResource.class);
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * GET  /index-usage : get the usage of the indexes of all the collections, least used first.
+     *
+     * @param collection the collection to restrict the report to, if any
+     * @return the list of index usages; empty if the server does not support $indexStats (MongoDB 3.2+)
+     */
+    @RequestMapping(value = "/index-usage",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public List<IndexUsageDTO> getIndexUsage(@RequestParam(required = false) String collection) {
+        Set<String> collectionNames = collection == null ?
+            mongoTemplate.getCollectionNames() : Collections.singleton(collection);
+        List<IndexUsageDTO> indexUsages = new ArrayList<>();
+        for (String collectionName : collectionNames) {
+            if (collectionName.startsWith("system.")) {
+                continue;
+            }
+            try (Cursor cursor = mongoTemplate.getCollection(collectionName).aggregate(
+                Collections.singletonList(new BasicDBObject("$indexStats", new BasicDBObject())),
+                AggregationOptions.builder().outputMode(AggregationOptions.OutputMode.CURSOR).build())) {
+                while (cursor.hasNext()) {
+                    DBObject indexStats = cursor.next();
+                    indexUsages.add(new IndexUsageDTO(collectionName, indexStats));
+                }
+            } catch (MongoException e) {
+                log.warn("Could not read the index statistics of collection {}: {}", collectionName, e.getMessage());
+            }
+        }
+        indexUsages.sort(Comparator.comparingLong(IndexUsageDTO::getAccesses)
+            .thenComparing(IndexUsageDTO::getCollection)
+            .thenComparing(IndexUsageDTO::getName));
+        return indexUsages;
+    }
+}
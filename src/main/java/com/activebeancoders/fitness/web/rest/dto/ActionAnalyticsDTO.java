@@ -0,0 +1,131 @@
+package com.activebeancoders.fitness.web.rest.dto;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A DTO for the statistics of the distance or duration of a group of actions, such as the actions of one type.
+ */
+public class ActionAnalyticsDTO {
+
+    private String group;
+
+    private long count;
+
+    private double sum;
+
+    private double min;
+
+    private double max;
+
+    private double mean;
+
+    private List<Double> percentiles;
+
+    private Double bucketStart;
+
+    private long[] histogram;
+
+    /**
+     * @return the type or unit of the actions of the group, or null for the actions without one, or when actions
+     * are not grouped
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    /**
+     * @return the number of actions of the group that have a value for the measure
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public void setSum(double sum) {
+        this.sum = sum;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public void setMin(double min) {
+        this.min = min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    /**
+     * @return the requested percentiles, in the order they were requested, or null if none were requested
+     */
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    /**
+     * @return the lower bound of the first bucket of the histogram, or null if no histogram was requested
+     */
+    public Double getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(Double bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    /**
+     * @return the number of actions per bucket, from the bucket start on, or null if no histogram was requested
+     */
+    public long[] getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(long[] histogram) {
+        this.histogram = histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "ActionAnalyticsDTO{" +
+            "group='" + group + "'" +
+            ", count=" + count +
+            ", sum=" + sum +
+            ", min=" + min +
+            ", max=" + max +
+            ", mean=" + mean +
+            ", percentiles=" + percentiles +
+            ", bucketStart=" + bucketStart +
+            ", histogram=" + Arrays.toString(histogram) +
+            '}';
+    }
+}
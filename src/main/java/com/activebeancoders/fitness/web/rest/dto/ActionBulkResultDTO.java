@@ -0,0 +1,160 @@
+package com.activebeancoders.fitness.web.rest.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the outcome of a bulk creation of actions.
+ * <p>
+ * Items are numbered from 0 in the order they were sent, and each item received has a status: created with its
+ * ID, rejected with the reason why, or failed if it could not be written.
+ * </p>
+ */
+public class ActionBulkResultDTO {
+
+    private long received;
+
+    private long created;
+
+    private long failed;
+
+    private boolean complete = true;
+
+    private String writeError;
+
+    private List<ItemStatus> items = new ArrayList<>();
+
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * @return false if the body could not be read to the end, because it is not well-formed JSON or because some
+     * actions could not be written, in which case the items after the last one received were not read
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    /**
+     * @return why some actions could not be written, or null if all the valid ones were
+     */
+    public String getWriteError() {
+        return writeError;
+    }
+
+    public void setWriteError(String writeError) {
+        this.writeError = writeError;
+    }
+
+    public List<ItemStatus> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ItemStatus> items) {
+        this.items = items;
+    }
+
+    @Override
+    public String toString() {
+        return "ActionBulkResultDTO{" +
+            "received=" + received +
+            ", created=" + created +
+            ", failed=" + failed +
+            ", complete=" + complete +
+            ", writeError='" + writeError + "'" +
+            '}';
+    }
+
+    /**
+     * The outcome of an item.
+     */
+    public static class ItemStatus {
+
+        public enum Status {
+            /** The action was created, with the given ID. */
+            CREATED,
+            /** The item is not a valid new action, for the given reason. */
+            REJECTED,
+            /**
+             * The action was not acknowledged by the database, and may exist with the given ID if its batch was
+             * partly written.
+             */
+            FAILED
+        }
+
+        private long index;
+
+        private Status status;
+
+        private String id;
+
+        private String message;
+
+        public ItemStatus() {
+        }
+
+        public ItemStatus(long index, Status status, String id, String message) {
+            this.index = index;
+            this.status = status;
+            this.id = id;
+            this.message = message;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        public void setIndex(long index) {
+            this.index = index;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.activebeancoders.fitness.web.rest.dto;
+
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+
+/**
+ * A DTO for the totals of the actions of one type over one week or month.
+ */
+public class ActionSummaryDTO {
+
+    private int year;
+
+    private int period;
+
+    private ActionType type;
+
+    private long count;
+
+    private double distance;
+
+    private long duration;
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    /**
+     * @return the week of the year, from 0 to 53, weeks starting on Sunday; or the month, from 1 to 12
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(int period) {
+        this.period = period;
+    }
+
+    public ActionType getType() {
+        return type;
+    }
+
+    public void setType(ActionType type) {
+        this.type = type;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public void setDistance(double distance) {
+        this.distance = distance;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    @Override
+    public String toString() {
+        return "ActionSummaryDTO{" +
+            "year=" + year +
+            ", period=" + period +
+            ", type=" + type +
+            ", count=" + count +
+            ", distance=" + distance +
+            ", duration=" + duration +
+            '}';
+    }
+}
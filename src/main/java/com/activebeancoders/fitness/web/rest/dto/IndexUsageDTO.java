@@ -0,0 +1,109 @@
+package com.activebeancoders.fitness.web.rest.dto;
+
+import com.mongodb.DBObject;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A DTO for the usage of one index, as reported by the {@code $indexStats} aggregation stage.
+ * <p>
+ * The number of accesses is counted by each mongod since it started or since the index was created, whichever
+ * came last.
+ * </p>
+ */
+public class IndexUsageDTO {
+
+    private String collection;
+
+    private String name;
+
+    private Map<String, Object> key;
+
+    private String host;
+
+    private long accesses;
+
+    private ZonedDateTime since;
+
+    public IndexUsageDTO() {
+    }
+
+    public IndexUsageDTO(String collection, DBObject indexStats) {
+        this.collection = collection;
+        this.name = (String) indexStats.get("name");
+        this.key = new LinkedHashMap<>();
+        DBObject keyObject = (DBObject) indexStats.get("key");
+        for (String field : keyObject.keySet()) {
+            this.key.put(field, keyObject.get(field));
+        }
+        this.host = (String) indexStats.get("host");
+        DBObject accessesObject = (DBObject) indexStats.get("accesses");
+        this.accesses = ((Number) accessesObject.get("ops")).longValue();
+        Date sinceDate = (Date) accessesObject.get("since");
+        this.since = sinceDate == null ? null : ZonedDateTime.ofInstant(sinceDate.toInstant(), ZoneId.systemDefault());
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Map<String, Object> getKey() {
+        return key;
+    }
+
+    public void setKey(Map<String, Object> key) {
+        this.key = key;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public long getAccesses() {
+        return accesses;
+    }
+
+    public void setAccesses(long accesses) {
+        this.accesses = accesses;
+    }
+
+    public ZonedDateTime getSince() {
+        return since;
+    }
+
+    public void setSince(ZonedDateTime since) {
+        this.since = since;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexUsageDTO{" +
+            "collection='" + collection + '\'' +
+            ", name='" + name + '\'' +
+            ", key=" + key +
+            ", host='" + host + '\'' +
+            ", accesses=" + accesses +
+            ", since=" + since +
+            '}';
+    }
+}
@@ -0,0 +1,34 @@
+package com.activebeancoders.fitness.web.rest.util;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utility class for computing entity tags from the fields of an entity, without serializing it.
+ *
+ * <p>
+ * Spring MVC compares the ETag of a {@code ResponseEntity} with the If-None-Match header of a GET request, and
+ * answers 304 (Not Modified) without writing the body when they match.
+ */
+public class ETagUtil {
+
+    /**
+     * @param values the fields of the entity, in a fixed order
+     * @return a strong entity tag, quoted, that changes whenever one of the values does
+     */
+    public static String generateETag(Object... values) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (Object value : values) {
+            if (value == null) {
+                hasher.putByte((byte) 0);
+            } else {
+                hasher.putByte((byte) 1).putString(value.toString(), StandardCharsets.UTF_8);
+                // delimit each value, so that ("ab", "c") and ("a", "bc") differ
+                hasher.putInt(value.toString().length());
+            }
+        }
+        return "\"" + hasher.hash() + "\"";
+    }
+}
@@ -0,0 +1,86 @@
+package com.activebeancoders.fitness.web.rest.util;
+
+import com.activebeancoders.fitness.web.rest.errors.CustomParameterizedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+
+/**
+ * Utility class for handling keyset pagination, where each page continues after the last item of the previous one.
+ *
+ * <p>
+ * The position of the last item is returned as an opaque continuation token, in a
+ * <a href="http://tools.ietf.org/html/rfc5988">RFC 5988</a> "next" link, like with {@link PaginationUtil}.
+ * The token encodes the sort key of the item, a timestamp and an id, which clients should not rely upon.
+ */
+public class KeysetPaginationUtil {
+
+    private static final char SEPARATOR = ':';
+
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(String nextToken, int size, String baseUrl) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextToken != null) {
+            String link = UriComponentsBuilder.fromUriString(baseUrl)
+                .queryParam("after", nextToken).queryParam("size", size).toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+            headers.add("X-Next-Token", nextToken);
+        }
+        return headers;
+    }
+
+    public static String encodeToken(ZonedDateTime timestamp, String id) {
+        String key = (timestamp == null ? "" : Long.toString(timestamp.toInstant().toEpochMilli())) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token a token created by {@link #encodeToken(ZonedDateTime, String)}
+     * @return the timestamp of the token, or null if it had none
+     * @throws CustomParameterizedException if the token is not valid
+     */
+    public static ZonedDateTime decodeTimestamp(String token) {
+        String key = decode(token);
+        String millis = key.substring(0, key.indexOf(SEPARATOR));
+        if (millis.isEmpty()) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZoneOffset.UTC);
+        } catch (NumberFormatException e) {
+            throw invalidToken(token);
+        }
+    }
+
+    /**
+     * @param token a token created by {@link #encodeToken(ZonedDateTime, String)}
+     * @return the id of the token
+     * @throws CustomParameterizedException if the token is not valid
+     */
+    public static String decodeId(String token) {
+        String key = decode(token);
+        return key.substring(key.indexOf(SEPARATOR) + 1);
+    }
+
+    private static String decode(String token) {
+        String key;
+        try {
+            key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalidToken(token);
+        }
+        int separator = key.indexOf(SEPARATOR);
+        if (separator < 0 || separator == key.length() - 1) {
+            throw invalidToken(token);
+        }
+        return key;
+    }
+
+    private static CustomParameterizedException invalidToken(String token) {
+        return new CustomParameterizedException("invalidContinuationToken", token);
+    }
+}
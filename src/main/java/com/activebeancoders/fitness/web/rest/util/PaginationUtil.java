@@ -40,6 +40,7 @@ public class PaginationUtil {
     }
 
     private static String generateUri(String baseUrl, int page, int size) throws URISyntaxException {
-        return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
+        // the base URL is already encoded, so it must not be encoded again
+        return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).build().toUriString();
     }
 }
@@ -5,18 +5,57 @@
         .module('activeBeanFitnessApp')
         .controller('ActionController', ActionController);
 
-    ActionController.$inject = ['$scope', '$state', 'Action'];
+    ActionController.$inject = ['$scope', '$state', 'Action', 'ParseLinks', 'AlertService', 'pagingParams', 'paginationConstants'];
 
-    function ActionController ($scope, $state, Action) {
+    function ActionController ($scope, $state, Action, ParseLinks, AlertService, pagingParams, paginationConstants) {
         var vm = this;
-        
+
         vm.actions = [];
+        vm.loadPage = loadPage;
+        vm.predicate = pagingParams.predicate;
+        vm.reverse = pagingParams.ascending;
+        vm.itemsPerPage = paginationConstants.itemsPerPage;
+        vm.transition = transition;
 
         loadAll();
 
         function loadAll() {
-            Action.query(function(result) {
-                vm.actions = result;
+            Action.query({
+                page: pagingParams.page - 1,
+                size: vm.itemsPerPage,
+                sort: sort()
+            }, onSuccess, onError);
+        }
+
+        function onSuccess(data, headers) {
+            vm.links = ParseLinks.parse(headers('link'));
+            vm.totalItems = headers('X-Total-Count');
+            vm.queryCount = vm.totalItems;
+            vm.page = pagingParams.page;
+            vm.actions = data;
+        }
+
+        function onError(error) {
+            AlertService.error(error.data.message);
+        }
+
+        function sort() {
+            var result = [vm.predicate + ',' + (vm.reverse ? 'asc' : 'desc')];
+            if (vm.predicate !== 'id') {
+                result.push('id');
+            }
+            return result;
+        }
+
+        function loadPage(page) {
+            vm.page = page;
+            vm.transition();
+        }
+
+        function transition() {
+            $state.transitionTo($state.$current, {
+                page: vm.page,
+                sort: vm.predicate + ',' + (vm.reverse ? 'asc' : 'desc')
             });
         }
     }
@@ -11,7 +11,7 @@
         $stateProvider
         .state('action', {
             parent: 'entity',
-            url: '/action',
+            url: '/action?page&sort',
             data: {
                 authorities: ['ROLE_USER'],
                 pageTitle: 'Actions'
@@ -23,7 +23,25 @@
                     controllerAs: 'vm'
                 }
             },
+            params: {
+                page: {
+                    value: '1',
+                    squash: true
+                },
+                sort: {
+                    value: 'id,asc',
+                    squash: true
+                }
+            },
             resolve: {
+                pagingParams: ['$stateParams', 'PaginationUtil', function ($stateParams, PaginationUtil) {
+                    return {
+                        page: PaginationUtil.parsePage($stateParams.page),
+                        sort: $stateParams.sort,
+                        predicate: PaginationUtil.parsePredicate($stateParams.sort),
+                        ascending: PaginationUtil.parseAscending($stateParams.sort)
+                    };
+                }]
             }
         })
         .state('action-detail', {
@@ -0,0 +1,125 @@
+package com.activebeancoders.fitness.config;
+
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of writing and reading pages of actions in each of the formats the action endpoints produce: JSON,
+ * Smile and CBOR, with the mappers of {@link JacksonConfiguration}.
+ * <p>
+ * The main method prints the size of a page in each format before running the benchmark. Run it from the IDE, or
+ * with {@code mvn test-compile} followed by this class's main method on the test classpath.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ActionWireFormatBenchmark {
+
+    private static final TypeReference<List<Action>> ACTIONS = new TypeReference<List<Action>>() {
+    };
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    private String format;
+
+    @Param({"1", "20", "200"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private List<Action> actions;
+
+    private byte[] content;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = objectMapper(format);
+        actions = actions(pageSize);
+        content = objectMapper.writeValueAsBytes(actions);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return objectMapper.writeValueAsBytes(actions);
+    }
+
+    @Benchmark
+    public List<Action> read() throws IOException {
+        return objectMapper.readValue(content, ACTIONS);
+    }
+
+    private static ObjectMapper objectMapper(String format) {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        ReflectionTestUtils.setField(jacksonConfiguration, "builder", builder);
+        jacksonConfiguration.postConstruct();
+        switch (format) {
+            case "SMILE":
+                return jacksonConfiguration.binaryObjectMapper(new SmileFactory());
+            case "CBOR":
+                return jacksonConfiguration.binaryObjectMapper(new CBORFactory());
+            default:
+                return jacksonConfiguration.jacksonObjectMapper();
+        }
+    }
+
+    private static List<Action> actions(int count) {
+        Random random = new Random(42);
+        ActionType[] types = ActionType.values();
+        ZonedDateTime start = ZonedDateTime.of(2016, 7, 4, 7, 30, 0, 0, ZoneOffset.UTC);
+        List<Action> actions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Action action = new Action();
+            action.setId(new ObjectId().toHexString());
+            action.setUserId((long) random.nextInt(10000));
+            action.setStart(start.minusMinutes(random.nextInt(60 * 24 * 365)));
+            action.setDuration(10 + random.nextInt(120));
+            action.setUnit("minutes");
+            action.setDistance(random.nextInt(4200) / 100D);
+            action.setComment("Morning session number " + i);
+            action.setType(types[random.nextInt(types.length)]);
+            actions.add(action);
+        }
+        return actions;
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        for (int pageSize : new int[]{1, 20, 200}) {
+            List<Action> actions = actions(pageSize);
+            for (String format : new String[]{"JSON", "SMILE", "CBOR"}) {
+                System.out.printf("%-5s page of %3d actions: %6d bytes%n", format, pageSize,
+                    objectMapper(format).writeValueAsBytes(actions).length);
+            }
+        }
+        Options options = new OptionsBuilder()
+            .include(ActionWireFormatBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
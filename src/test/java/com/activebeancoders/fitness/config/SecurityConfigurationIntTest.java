@@ -0,0 +1,92 @@
+package com.activebeancoders.fitness.config;
+
+import com.activebeancoders.fitness.ActiveBeanFitnessApp;
+import com.activebeancoders.fitness.security.AuthoritiesConstants;
+import com.activebeancoders.fitness.security.jwt.JWTConfigurer;
+import com.activebeancoders.fitness.security.jwt.TokenProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.inject.Inject;
+import java.util.Collections;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the filter chains of the SecurityConfiguration, with requests that go through the real
+ * springSecurityFilterChain.
+ *
+ * @see SecurityConfiguration
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = ActiveBeanFitnessApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class SecurityConfigurationIntTest {
+
+    @Inject
+    private WebApplicationContext context;
+
+    @Inject
+    private FilterChainProxy springSecurityFilterChain;
+
+    @Inject
+    private TokenProvider tokenProvider;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(context)
+            .addFilters(springSecurityFilterChain)
+            .build();
+    }
+
+    @Test
+    public void apiRequestWithTokenHasRemoteUser() throws Exception {
+        String jwt = tokenProvider.createToken(new UsernamePasswordAuthenticationToken("user", "",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))), false);
+
+        mockMvc.perform(api("/api/authenticate")
+                .header(JWTConfigurer.AUTHORIZATION_HEADER, "Bearer " + jwt))
+            .andExpect(status().isOk())
+            // only the /api chain leaves out the X-XSS-Protection header
+            .andExpect(header().doesNotExist("X-XSS-Protection"))
+            .andExpect(content().string("user"));
+    }
+
+    @Test
+    public void apiRequestWithoutTokenHasNoRemoteUser() throws Exception {
+        mockMvc.perform(api("/api/authenticate"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    public void apiRequestWithoutTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(api("/api/account"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * A request as the DispatcherServlet, mapped to "/", receives it, so that the /api chain matches its servlet
+     * path.
+     */
+    private static MockHttpServletRequestBuilder api(String path) {
+        return get(path).servletPath(path);
+    }
+}
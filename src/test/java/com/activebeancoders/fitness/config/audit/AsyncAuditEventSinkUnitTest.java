@@ -0,0 +1,148 @@
+package com.activebeancoders.fitness.config.audit;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.PersistentAuditEvent;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for the AsyncAuditEventSink.
+ *
+ * @see AsyncAuditEventSink
+ */
+public class AsyncAuditEventSinkUnitTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private MetricRegistry metricRegistry;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private AsyncAuditEventSink asyncAuditEventSink;
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        mongoTemplate = mock(MongoTemplate.class);
+        metricRegistry = new MetricRegistry();
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getAudit().setBufferSize(50);
+        jHipsterProperties.getAudit().setBatchSize(10);
+        jHipsterProperties.getAudit().setFlushIntervalMillis(50);
+        asyncAuditEventSink = new AsyncAuditEventSink();
+        ReflectionTestUtils.setField(asyncAuditEventSink, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(asyncAuditEventSink, "metricRegistry", metricRegistry);
+        ReflectionTestUtils.setField(asyncAuditEventSink, "jHipsterProperties", jHipsterProperties);
+    }
+
+    @After
+    public void cleanup() throws InterruptedException {
+        asyncAuditEventSink.destroy();
+    }
+
+    @Test
+    public void testEventsAreWrittenInBatches() throws Exception {
+        recordBatches(null);
+        asyncAuditEventSink.init();
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(asyncAuditEventSink.submit(event(i))).isTrue();
+        }
+
+        assertThat(asyncAuditEventSink.flush(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(25);
+        assertThat(batchSizes).allMatch(size -> size <= 10);
+        assertThat(batchSizes.size()).isLessThan(25);
+    }
+
+    @Test
+    public void testEventsAreDroppedWhenTheBufferIsFull() throws Exception {
+        jHipsterProperties.getAudit().setBufferSize(20);
+        CountDownLatch release = new CountDownLatch(1);
+        recordBatches(release);
+        asyncAuditEventSink.init();
+
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (asyncAuditEventSink.submit(event(i))) {
+                accepted++;
+            }
+        }
+
+        // at most one batch in flight, plus a full buffer
+        assertThat(accepted).isLessThanOrEqualTo(30);
+        assertThat(asyncAuditEventSink.getDroppedCount()).isEqualTo(100 - accepted);
+        assertThat(metricRegistry.getGauges().get(MetricRegistry.name(AsyncAuditEventSink.class, "queueDepth"))
+            .getValue()).isEqualTo(asyncAuditEventSink.getQueueDepth());
+
+        release.countDown();
+        assertThat(asyncAuditEventSink.flush(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(accepted);
+    }
+
+    @Test
+    public void testBlockPolicyWaitsForRoom() throws Exception {
+        jHipsterProperties.getAudit().setOverflowPolicy(JHipsterProperties.Audit.OverflowPolicy.BLOCK);
+        jHipsterProperties.getAudit().setBlockTimeoutMillis(5000);
+        recordBatches(null);
+        asyncAuditEventSink.init();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(asyncAuditEventSink.submit(event(i))).isTrue();
+        }
+
+        assertThat(asyncAuditEventSink.flush(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(asyncAuditEventSink.getDroppedCount()).isZero();
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(100);
+    }
+
+    @Test
+    public void testFailedBatchesAreCounted() throws Exception {
+        doThrow(new IllegalStateException("Database unavailable"))
+            .when(mongoTemplate).insert(any(Collection.class), eq(PersistentAuditEvent.class));
+        asyncAuditEventSink.init();
+
+        asyncAuditEventSink.submit(event(0));
+
+        assertThat(asyncAuditEventSink.flush(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(metricRegistry.counter(MetricRegistry.name(AsyncAuditEventSink.class, "failed")).getCount())
+            .isEqualTo(1);
+    }
+
+    private void recordBatches(CountDownLatch release) {
+        doAnswer(invocation -> {
+            if (release != null) {
+                release.await();
+            }
+            synchronized (batchSizes) {
+                batchSizes.add(((Collection<?>) invocation.getArguments()[0]).size());
+            }
+            return null;
+        }).when(mongoTemplate).insert(any(Collection.class), eq(PersistentAuditEvent.class));
+    }
+
+    private static PersistentAuditEvent event(int index) {
+        PersistentAuditEvent event = new PersistentAuditEvent();
+        event.setPrincipal("user" + index);
+        event.setAuditEventType("AUTHENTICATION_SUCCESS");
+        return event;
+    }
+}
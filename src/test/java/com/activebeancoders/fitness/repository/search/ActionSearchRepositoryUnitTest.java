@@ -0,0 +1,84 @@
+package com.activebeancoders.fitness.repository.search;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.Action;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ActionSearchRepository, on an index kept in memory.
+ *
+ * @see ActionSearchRepository
+ */
+public class ActionSearchRepositoryUnitTest {
+
+    private ActionSearchRepository actionSearchRepository;
+
+    @Before
+    public void setup() throws Exception {
+        actionSearchRepository = new ActionSearchRepository();
+        ReflectionTestUtils.setField(actionSearchRepository, "jHipsterProperties", new JHipsterProperties());
+        actionSearchRepository.open();
+        actionSearchRepository.indexAll(Arrays.asList(
+            newAction("1", "easy morning run along the river"),
+            newAction("2", "long run in the hills, then a run back home"),
+            newAction("3", "swimming lessons"),
+            newAction("4", null)));
+        actionSearchRepository.refresh();
+    }
+
+    @After
+    public void close() throws Exception {
+        actionSearchRepository.close();
+    }
+
+    @Test
+    public void testRankingByRelevance() {
+        Page<String> page = actionSearchRepository.search("run", new PageRequest(0, 20));
+        assertThat(page.getContent()).containsExactly("2", "1");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPaging() {
+        Page<String> page = actionSearchRepository.search("run OR swimming", new PageRequest(1, 2));
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void testReindexAndDelete() {
+        actionSearchRepository.index(newAction("3", "run to the pool"));
+        actionSearchRepository.index(newAction("1", null));
+        actionSearchRepository.delete("2");
+        actionSearchRepository.refresh();
+
+        assertThat(actionSearchRepository.search("run", new PageRequest(0, 20)).getContent()).containsExactly("3");
+        assertThat(actionSearchRepository.search("swimming", new PageRequest(0, 20)).getTotalElements()).isZero();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedQuery() {
+        actionSearchRepository.search("run AND (", new PageRequest(0, 20));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPageBeyondResultWindow() {
+        actionSearchRepository.search("run", new PageRequest(ActionSearchRepository.MAX_RESULT_WINDOW / 20, 20));
+    }
+
+    private static Action newAction(String id, String comment) {
+        Action action = new Action();
+        action.setId(id);
+        action.setComment(comment);
+        return action;
+    }
+}
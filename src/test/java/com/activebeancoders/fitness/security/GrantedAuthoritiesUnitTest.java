@@ -0,0 +1,50 @@
+package com.activebeancoders.fitness.security;
+
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the GrantedAuthorities utility class.
+ *
+ * @see GrantedAuthorities
+ */
+public class GrantedAuthoritiesUnitTest {
+
+    @Test
+    public void testOfReturnsCanonicalInstances() {
+        assertThat(GrantedAuthorities.of(AuthoritiesConstants.ADMIN)).isSameAs(GrantedAuthorities.ADMIN);
+        assertThat(GrantedAuthorities.of(new String(AuthoritiesConstants.USER))).isSameAs(GrantedAuthorities.USER);
+        assertThat(GrantedAuthorities.of("ROLE_OTHER")).isEqualTo(new SimpleGrantedAuthority("ROLE_OTHER"));
+    }
+
+    @Test
+    public void testParseCanonicalAuthorities() {
+        List<GrantedAuthority> authorities = GrantedAuthorities.parse("ROLE_ADMIN,ROLE_USER");
+
+        assertThat(authorities).hasSize(2);
+        assertThat(authorities.get(0)).isSameAs(GrantedAuthorities.ADMIN);
+        assertThat(authorities.get(1)).isSameAs(GrantedAuthorities.USER);
+        assertThat(GrantedAuthorities.parse(new String("ROLE_ADMIN,ROLE_USER"))).isSameAs(authorities);
+    }
+
+    @Test
+    public void testParseMixedAuthorities() {
+        List<GrantedAuthority> authorities = GrantedAuthorities.parse("ROLE_USER,ROLE_OTHER");
+
+        assertThat(authorities).containsExactly(GrantedAuthorities.USER, new SimpleGrantedAuthority("ROLE_OTHER"));
+        assertThat(authorities.get(0)).isSameAs(GrantedAuthorities.USER);
+        assertThat(GrantedAuthorities.parse("ROLE_USER,ROLE_OTHER")).isNotSameAs(authorities);
+    }
+
+    @Test
+    public void testParseSkipsEmptyAuthorities() {
+        assertThat(GrantedAuthorities.parse("")).isEmpty();
+        assertThat(GrantedAuthorities.parse(",ROLE_USER,,")).containsExactly(GrantedAuthorities.USER);
+        assertThat(GrantedAuthorities.parse("ROLE_USERS")).containsExactly(new SimpleGrantedAuthority("ROLE_USERS"));
+    }
+}
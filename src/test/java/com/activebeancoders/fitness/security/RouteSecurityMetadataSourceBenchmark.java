@@ -0,0 +1,101 @@
+package com.activebeancoders.fitness.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.access.vote.AuthenticatedVoter;
+import org.springframework.security.web.FilterInvocation;
+import org.springframework.security.web.access.intercept.DefaultFilterInvocationSecurityMetadataSource;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the authorization lookup of a request: the ant matchers that {@code authorizeRequests()} tries
+ * in turn, against the compiled {@link RouteSecurityMetadataSource}, with the rules of the SecurityConfiguration.
+ * <p>
+ * Run it from the IDE, or with {@code mvn test-compile} followed by this class's main method on the test classpath.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteSecurityMetadataSourceBenchmark {
+
+    private static final List<ConfigAttribute> PERMIT_ALL = SecurityConfig.createList("permitAll");
+
+    private static final List<ConfigAttribute> AUTHENTICATED =
+        SecurityConfig.createList(AuthenticatedVoter.IS_AUTHENTICATED_REMEMBERED);
+
+    private static final List<ConfigAttribute> ADMIN = SecurityConfig.createList(AuthoritiesConstants.ADMIN);
+
+    @Param({"/api/users/42/actions", "/api/authenticate", "/management/metrics", "/index.html"})
+    private String path;
+
+    private FilterInvocation filterInvocation;
+
+    private DefaultFilterInvocationSecurityMetadataSource antSource;
+
+    private RouteSecurityMetadataSource routeSource;
+
+    @Setup
+    public void setup() {
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", path);
+        mockRequest.setServletPath(path);
+        filterInvocation = new FilterInvocation(mockRequest, new MockHttpServletResponse(), new MockFilterChain());
+
+        LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> rules = new LinkedHashMap<>();
+        rules.put(new AntPathRequestMatcher("/api/register"), PERMIT_ALL);
+        rules.put(new AntPathRequestMatcher("/api/activate"), PERMIT_ALL);
+        rules.put(new AntPathRequestMatcher("/api/authenticate"), PERMIT_ALL);
+        rules.put(new AntPathRequestMatcher("/api/account/reset_password/init"), PERMIT_ALL);
+        rules.put(new AntPathRequestMatcher("/api/account/reset_password/finish"), PERMIT_ALL);
+        rules.put(new AntPathRequestMatcher("/api/profile-info"), PERMIT_ALL);
+        rules.put(new AntPathRequestMatcher("/api/**"), AUTHENTICATED);
+        rules.put(new AntPathRequestMatcher("/management/**"), ADMIN);
+        rules.put(new AntPathRequestMatcher("/v2/api-docs/**"), PERMIT_ALL);
+        rules.put(new AntPathRequestMatcher("/swagger-resources/configuration/ui"), PERMIT_ALL);
+        rules.put(new AntPathRequestMatcher("/swagger-ui/index.html"), ADMIN);
+        antSource = new DefaultFilterInvocationSecurityMetadataSource(rules);
+
+        routeSource = RouteSecurityMetadataSource.builder()
+            .permitAll("/api/register", "/api/activate", "/api/authenticate", "/api/account/reset_password/init",
+                "/api/account/reset_password/finish", "/api/profile-info")
+            .authenticated("/api/**")
+            .hasAuthority(AuthoritiesConstants.ADMIN, "/management/**")
+            .permitAll("/v2/api-docs/**", "/swagger-resources/configuration/ui")
+            .hasAuthority(AuthoritiesConstants.ADMIN, "/swagger-ui/index.html")
+            .build();
+    }
+
+    @Benchmark
+    public Collection<ConfigAttribute> antMatchers() {
+        return antSource.getAttributes(filterInvocation);
+    }
+
+    @Benchmark
+    public Collection<ConfigAttribute> compiledRoutes() {
+        return routeSource.getAttributes(filterInvocation);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(RouteSecurityMetadataSourceBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
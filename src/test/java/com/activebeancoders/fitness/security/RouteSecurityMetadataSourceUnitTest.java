@@ -0,0 +1,86 @@
+package com.activebeancoders.fitness.security;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.access.vote.AuthenticatedVoter;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the RouteSecurityMetadataSource.
+ *
+ * @see RouteSecurityMetadataSource
+ */
+public class RouteSecurityMetadataSourceUnitTest {
+
+    private final RouteSecurityMetadataSource source = RouteSecurityMetadataSource.builder()
+        .permitAll("/api/register")
+        .authenticated("/api/**")
+        .hasAuthority(AuthoritiesConstants.ADMIN, "/management/**")
+        .permitAll("/v2/api-docs/**")
+        .hasAuthority(AuthoritiesConstants.ADMIN, "/swagger-ui/index.html")
+        .build();
+
+    @Test
+    public void testExactRuleWinsOverSubtreeRule() {
+        assertThat(attributes("/api/register")).isNull();
+        assertThat(attributes("/api/register/")).containsExactly(authenticated());
+        assertThat(attributes("/api/registered")).containsExactly(authenticated());
+    }
+
+    @Test
+    public void testSubtreeRuleMatchesItsRootAndDescendants() {
+        assertThat(attributes("/api")).containsExactly(authenticated());
+        assertThat(attributes("/api/")).containsExactly(authenticated());
+        assertThat(attributes("/api/actions/1")).containsExactly(authenticated());
+        assertThat(attributes("/management/metrics")).containsExactly(new SecurityConfig(AuthoritiesConstants.ADMIN));
+        assertThat(attributes("/v2/api-docs")).isNull();
+        assertThat(attributes("/apis")).isNull();
+    }
+
+    @Test
+    public void testUnmatchedPathsArePublic() {
+        assertThat(attributes("/")).isNull();
+        assertThat(attributes("/index.html")).isNull();
+        assertThat(attributes("/swagger-ui/other.html")).isNull();
+        assertThat(attributes("/swagger-ui/index.html")).containsExactly(new SecurityConfig(AuthoritiesConstants.ADMIN));
+    }
+
+    @Test
+    public void testRepeatedSlashesAreCollapsed() {
+        assertThat(attributes("//api//actions")).containsExactly(authenticated());
+        assertThat(attributes("/management//health")).containsExactly(new SecurityConfig(AuthoritiesConstants.ADMIN));
+    }
+
+    @Test
+    public void testPathInfoIsPartOfThePath() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServletPath("/api");
+        request.setPathInfo("/actions");
+        assertThat(source.getAttributes(request)).containsExactly(authenticated());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWildcardsInsidePatternsAreRejected() {
+        RouteSecurityMetadataSource.builder().permitAll("/app/**/*.js");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateRulesAreRejected() {
+        RouteSecurityMetadataSource.builder().permitAll("/api/**").authenticated("/api/**");
+    }
+
+    private Collection<ConfigAttribute> attributes(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServletPath(path);
+        return source.getAttributes(request);
+    }
+
+    private static ConfigAttribute authenticated() {
+        return new SecurityConfig(AuthenticatedVoter.IS_AUTHENTICATED_REMEMBERED);
+    }
+}
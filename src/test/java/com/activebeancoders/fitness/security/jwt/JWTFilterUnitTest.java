@@ -0,0 +1,158 @@
+package com.activebeancoders.fitness.security.jwt;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.security.AuthoritiesConstants;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for the JWTFilter, with its cache of verified tokens.
+ *
+ * @see JWTFilter
+ */
+public class JWTFilterUnitTest {
+
+    private TokenProvider tokenProvider;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private JWTFilter jwtFilter;
+
+    @Before
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret("test-secret");
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setVerifiedTokenCacheSize(10);
+
+        TokenProvider provider = new TokenProvider();
+        ReflectionTestUtils.setField(provider, "jHipsterProperties", jHipsterProperties);
+        provider.init();
+        tokenProvider = spy(provider);
+
+        verifiedTokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(verifiedTokenCache, "jHipsterProperties", jHipsterProperties);
+        verifiedTokenCache.init();
+
+        jwtFilter = new JWTFilter(tokenProvider, verifiedTokenCache);
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testRepeatedTokenIsParsedOnce() throws Exception {
+        String jwt = createToken();
+
+        MockHttpServletResponse response = filter(jwt);
+        assertThat(response.getStatus()).isEqualTo(200);
+        Authentication first = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(first.getName()).isEqualTo("test-user");
+        assertThat(first.getAuthorities()).containsExactly(new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+
+        SecurityContextHolder.clearContext();
+        filter(jwt);
+        Authentication second = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(second.getName()).isEqualTo("test-user");
+        assertThat(second.getAuthorities()).isSameAs(first.getAuthorities());
+
+        verify(tokenProvider, times(1)).parseToken(anyString());
+    }
+
+    @Test
+    public void testCachedTokenGivesEachRequestItsOwnAuthentication() throws Exception {
+        String jwt = createToken();
+
+        filter(jwt);
+        Authentication first = SecurityContextHolder.getContext().getAuthentication();
+        first.setAuthenticated(false);
+
+        SecurityContextHolder.clearContext();
+        filter(jwt);
+        Authentication second = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.isAuthenticated()).isTrue();
+    }
+
+    @Test
+    public void testInvalidSignatureIsNotCached() throws Exception {
+        String jwt = createToken();
+        String tampered = jwt.substring(0, jwt.length() - 2) + (jwt.endsWith("AA") ? "BB" : "AA");
+
+        filter(tampered);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        filter(tampered);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+
+        verify(tokenProvider, times(2)).parseToken(anyString());
+    }
+
+    @Test
+    public void testExpiredCachedTokenIsRejected() throws Exception {
+        String jwt = createToken();
+        verifiedTokenCache.put(jwt, tokenProvider.parseToken(jwt).getAuthentication(),
+            new Date(System.currentTimeMillis() - 1000));
+
+        assertThat(verifiedTokenCache.get(jwt)).isNull();
+    }
+
+    @Test
+    public void testExpiredTokenIsUnauthorized() throws Exception {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInSeconds", -1000L);
+        String jwt = createToken();
+
+        MockHttpServletResponse response = filter(jwt);
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    public void testTokenWithoutAuthoritiesIsNotAuthenticated() throws Exception {
+        String jwt = Jwts.builder()
+            .setSubject("test-user")
+            .signWith(SignatureAlgorithm.HS512, TextCodec.BASE64.decode("test-secret"))
+            .compact();
+
+        MockHttpServletResponse response = filter(jwt);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private String createToken() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken("test-user", "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+        return tokenProvider.createToken(authentication, false);
+    }
+
+    private MockHttpServletResponse filter(String jwt) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(JWTConfigurer.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jwtFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,131 @@
+package com.activebeancoders.fitness.security.jwt;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * JMH benchmark of the per-request cost of authenticating a JWT: the former two-pass validation, kept here as it
+ * was written, the single-pass {@link TokenProvider#parseToken(String)}, and a hit in the {@link VerifiedTokenCache}.
+ * <p>
+ * Tokens carry the production secret length and between 1 and 8 authorities, which covers the sizes issued by
+ * this application. Run it from the IDE, or with {@code mvn test-compile} followed by this class's main method on
+ * the test classpath.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenProviderBenchmark {
+
+    private static final String AUTHORITIES_KEY = "auth";
+
+    private static final String SECRET = "b816c2d14afad62e749e8e4f0fa7dc236566ecf9";
+
+    @Param({"1", "2", "8"})
+    private int authorityCount;
+
+    private TokenProvider tokenProvider;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private String jwt;
+
+    @Setup
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret(SECRET);
+        tokenProvider = new TokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jHipsterProperties", jHipsterProperties);
+        tokenProvider.init();
+        verifiedTokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(verifiedTokenCache, "jHipsterProperties", jHipsterProperties);
+        verifiedTokenCache.init();
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        for (int i = 1; i < authorityCount; i++) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_PERMISSION_" + i));
+        }
+        jwt = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken("user@activebeancoders.com", "", authorities), false);
+        TokenValidationResult result = tokenProvider.parseToken(jwt);
+        verifiedTokenCache.put(jwt, result.getAuthentication(), result.getExpiration());
+    }
+
+    @Benchmark
+    public Authentication validateThenGetAuthentication() {
+        return validateToken(jwt) ? getAuthentication(jwt) : null;
+    }
+
+    @Benchmark
+    public Authentication parseToken() {
+        return tokenProvider.parseToken(jwt).getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication verifiedTokenCacheHit() {
+        return verifiedTokenCache.get(jwt);
+    }
+
+    /**
+     * The former {@code TokenProvider.validateToken}, which parsed the token and decoded the secret once more.
+     */
+    private static boolean validateToken(String authToken) {
+        try {
+            Jwts.parser().setSigningKey(SECRET).parseClaimsJws(authToken);
+            return true;
+        } catch (SignatureException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The former {@code TokenProvider.getAuthentication}, which copied the authorities into a {@code User}.
+     */
+    private static Authentication getAuthentication(String token) {
+        Claims claims = Jwts.parser()
+            .setSigningKey(SECRET)
+            .parseClaimsJws(token)
+            .getBody();
+
+        Collection<? extends GrantedAuthority> authorities =
+            Arrays.asList(claims.get(AUTHORITIES_KEY).toString().split(",")).stream()
+                .map(authority -> new SimpleGrantedAuthority(authority))
+                .collect(Collectors.toList());
+
+        User principal = new User(claims.getSubject(), "", authorities);
+
+        return new UsernamePasswordAuthenticationToken(principal, "", authorities);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(TokenProviderBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
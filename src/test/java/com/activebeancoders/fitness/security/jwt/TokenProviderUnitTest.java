@@ -0,0 +1,138 @@
+package com.activebeancoders.fitness.security.jwt;
+
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.security.AuthoritiesConstants;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the TokenProvider.
+ *
+ * @see TokenProvider
+ */
+public class TokenProviderUnitTest {
+
+    private TokenProvider tokenProvider;
+
+    @Before
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret("test-secret");
+        tokenProvider = new TokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jHipsterProperties", jHipsterProperties);
+        tokenProvider.init();
+    }
+
+    @Test
+    public void testParseValidToken() {
+        long before = System.currentTimeMillis();
+        TokenValidationResult result = tokenProvider.parseToken(createToken());
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getFailureReason()).isNull();
+        assertThat(result.getAuthentication().getName()).isEqualTo("test-user");
+        assertThat(result.getAuthentication().getAuthorities()).containsExactly(
+            new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN), new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+        assertThat(result.getExpiration().getTime()).isGreaterThan(before);
+    }
+
+    @Test
+    public void testParseExpiredToken() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInSeconds", -1000L);
+
+        TokenValidationResult result = tokenProvider.parseToken(createToken());
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getFailureReason()).isEqualTo(TokenValidationResult.FailureReason.EXPIRED);
+        assertThat(result.getSubject()).isEqualTo("test-user");
+        assertThat(result.getAuthentication()).isNull();
+    }
+
+    @Test
+    public void testParseTokenWithInvalidSignature() {
+        String jwt = createToken();
+        String tampered = jwt.substring(0, jwt.length() - 2) + (jwt.endsWith("AA") ? "BB" : "AA");
+
+        TokenValidationResult result = tokenProvider.parseToken(tampered);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getFailureReason()).isEqualTo(TokenValidationResult.FailureReason.INVALID_SIGNATURE);
+        assertThat(result.getAuthentication()).isNull();
+    }
+
+    @Test
+    public void testParseMalformedToken() {
+        assertThat(tokenProvider.parseToken("not-a-token").getFailureReason())
+            .isEqualTo(TokenValidationResult.FailureReason.MALFORMED);
+        assertThat(tokenProvider.parseToken("").getFailureReason())
+            .isEqualTo(TokenValidationResult.FailureReason.MALFORMED);
+    }
+
+    @Test
+    public void testParseTokenNotYetValid() {
+        String jwt = Jwts.builder()
+            .setSubject("test-user")
+            .claim("auth", AuthoritiesConstants.USER)
+            .setNotBefore(new Date(System.currentTimeMillis() + 60000))
+            .signWith(SignatureAlgorithm.HS512, TextCodec.BASE64.decode("test-secret"))
+            .compact();
+
+        TokenValidationResult result = tokenProvider.parseToken(jwt);
+
+        assertThat(result.getFailureReason()).isEqualTo(TokenValidationResult.FailureReason.NOT_YET_VALID);
+        assertThat(result.getSubject()).isEqualTo("test-user");
+        assertThat(result.getAuthentication()).isNull();
+    }
+
+    @Test
+    public void testParseTokenWithoutAuthorities() {
+        String jwt = Jwts.builder()
+            .setSubject("test-user")
+            .signWith(SignatureAlgorithm.HS512, TextCodec.BASE64.decode("test-secret"))
+            .compact();
+
+        TokenValidationResult result = tokenProvider.parseToken(jwt);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getFailureReason()).isEqualTo(TokenValidationResult.FailureReason.INVALID_CLAIMS);
+        assertThat(result.getAuthentication()).isNull();
+    }
+
+    @Test
+    public void testParseTokenWithExpirationOfTheWrongType() throws Exception {
+        String header = TextCodec.BASE64URL.encode("{\"alg\":\"HS512\"}");
+        String payload = TextCodec.BASE64URL.encode("{\"sub\":\"test-user\",\"auth\":\"ROLE_USER\",\"exp\":true}");
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(TextCodec.BASE64.decode("test-secret"), "HmacSHA512"));
+        String jwt = header + "." + payload + "." +
+            TextCodec.BASE64URL.encode(mac.doFinal((header + "." + payload).getBytes(StandardCharsets.US_ASCII)));
+
+        TokenValidationResult result = tokenProvider.parseToken(jwt);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getFailureReason()).isEqualTo(TokenValidationResult.FailureReason.MALFORMED);
+    }
+
+    private String createToken() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken("test-user", "test-password",
+            Arrays.asList(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN),
+                new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+        return tokenProvider.createToken(authentication, false);
+    }
+}
@@ -0,0 +1,167 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.ActiveBeanFitnessApp;
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.domain.DataLoadJob;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.DataLoadJobRepository;
+import com.activebeancoders.fitness.repository.search.ActionSearchRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Test class for the ActionIndexingService, polling for modified actions besides indexing those submitted by the
+ * services, as the test database has no oplog.
+ *
+ * @see ActionIndexingService
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = ActiveBeanFitnessApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class ActionIndexingServiceIntTest {
+
+    @Inject
+    private ActionIndexingService actionIndexingService;
+
+    @Inject
+    private ActionSearchRepository actionSearchRepository;
+
+    @Inject
+    private ActionService actionService;
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private DataLoadJobService dataLoadJobService;
+
+    @Inject
+    private DataLoadJobRepository dataLoadJobRepository;
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    @Before
+    public void init() throws InterruptedException {
+        actionRepository.deleteAll();
+        actionIndexingService.flush(10, TimeUnit.SECONDS);
+        actionSearchRepository.deleteAll();
+    }
+
+    @After
+    public void cleanup() {
+        actionRepository.deleteAll();
+        dataLoadJobRepository.deleteAll();
+    }
+
+    @Test
+    public void actionsLoadedByADataLoadJobAreIndexed() throws Exception {
+        // several partitions, whose _ids interleave and are not written in order
+        DataLoadJob job = dataLoadJobService.create(2500, 0);
+        dataLoadJobService.run(job).get(30, TimeUnit.SECONDS);
+
+        assertThat(actionIndexingService.flush(10, TimeUnit.SECONDS)).isTrue();
+        actionSearchRepository.refresh();
+        assertThat(actionSearchRepository.count()).isEqualTo(2500);
+        assertThat(actionIndexingService.getLagMillis()).isZero();
+    }
+
+    @Test
+    public void changesThroughTheServiceAreIndexed() throws Exception {
+        Action action = actionService.save(newActions(1, "hill repeats").get(0));
+        assertThat(actionIndexingService.flush(10, TimeUnit.SECONDS)).isTrue();
+        actionSearchRepository.refresh();
+        assertThat(search("hill")).isEqualTo(1);
+
+        action.setComment("recovery jog");
+        actionService.save(action);
+        assertThat(actionIndexingService.flush(10, TimeUnit.SECONDS)).isTrue();
+        actionSearchRepository.refresh();
+        assertThat(search("hill")).isZero();
+        assertThat(search("recovery")).isEqualTo(1);
+
+        actionService.delete(action.getId());
+        assertThat(actionIndexingService.flush(10, TimeUnit.SECONDS)).isTrue();
+        actionSearchRepository.refresh();
+        assertThat(search("recovery")).isZero();
+    }
+
+    @Test
+    public void actionsWrittenAroundTheServicesArePolled() throws Exception {
+        actionRepository.insertUnordered(newActions(25, "tempo run"));
+        assertThat(awaitSearch("tempo", 25)).isEqualTo(25);
+
+        mongoTemplate.updateMulti(query(where("comment").is("tempo run")),
+            new Update().set("comment", "fartlek").set("lastModifiedDate", ZonedDateTime.now()), Action.class);
+        assertThat(awaitSearch("fartlek", 25)).isEqualTo(25);
+        assertThat(search("tempo")).isZero();
+    }
+
+    @Test
+    public void reindexRebuildsTheIndexFromAllTheActions() throws Exception {
+        actionRepository.insertUnordered(newActions(25, "interval session"));
+        assertThat(awaitSearch("interval", 25)).isEqualTo(25);
+        // the index is lost, and the actions are not modified again to be polled
+        actionSearchRepository.deleteAll();
+        actionSearchRepository.refresh();
+        assertThat(search("interval")).isZero();
+
+        assertThat(actionIndexingService.reindex().get()).isEqualTo(25L);
+        actionSearchRepository.refresh();
+        assertThat(search("interval")).isEqualTo(25);
+        assertThat(actionIndexingService.isReindexing()).isFalse();
+    }
+
+    private long search(String query) {
+        return actionSearchRepository.search(query, new PageRequest(0, 1)).getTotalElements();
+    }
+
+    /**
+     * Wait for the given number of actions to match a search, as polled actions are indexed after the next poll.
+     *
+     * @return the number of matching actions
+     */
+    private long awaitSearch(String query, long expected) throws InterruptedException {
+        long found = 0;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            actionSearchRepository.refresh();
+            found = search(query);
+            if (found == expected) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        return found;
+    }
+
+    private static List<Action> newActions(int count, String comment) {
+        List<Action> actions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Action action = new Action();
+            action.setUserId(1L);
+            action.setComment(comment);
+            actions.add(action);
+        }
+        return actions;
+    }
+}
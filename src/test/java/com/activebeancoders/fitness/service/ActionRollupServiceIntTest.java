@@ -0,0 +1,140 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.ActiveBeanFitnessApp;
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.domain.ActionRollup;
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.ActionRollupRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ActionRollupService, through the changes made by the ActionService.
+ *
+ * @see ActionRollupService
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = ActiveBeanFitnessApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class ActionRollupServiceIntTest {
+
+    private static final Long USER_ID = 1L;
+
+    private static final LocalDate DAY = LocalDate.of(2016, 7, 4);
+
+    @Inject
+    private ActionService actionService;
+
+    @Inject
+    private ActionRollupService actionRollupService;
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private ActionRollupRepository actionRollupRepository;
+
+    @Before
+    public void init() {
+        actionRepository.deleteAll();
+        actionRollupRepository.deleteAll();
+    }
+
+    @After
+    public void cleanup() {
+        actionRepository.deleteAll();
+        actionRollupRepository.deleteAll();
+    }
+
+    @Test
+    public void rollupsFollowCreateUpdateAndDelete() {
+        Action morningRun = actionService.save(newAction(ActionType.Running, "2016-07-04T08:00:00Z", 30, 5D));
+        actionService.save(newAction(ActionType.Running, "2016-07-04T18:00:00Z", 60, 10D));
+        Action walk = actionService.save(newAction(ActionType.Walking, "2016-07-04T12:00:00Z", 45, 3D));
+
+        List<ActionRollup> rollups = actionRollupService.findByUser(USER_ID, DAY, DAY);
+        assertThat(rollups).hasSize(2);
+        assertThat(rollups.get(0).getType()).isEqualTo(ActionType.Running);
+        assertThat(rollups.get(0).getCount()).isEqualTo(2);
+        assertThat(rollups.get(0).getDuration()).isEqualTo(90);
+        assertThat(rollups.get(0).getDistance()).isEqualTo(15D);
+
+        // Moving the walk to the next day moves it to the rollup of that day
+        walk.setStart(ZonedDateTime.parse("2016-07-05T12:00:00Z"));
+        actionService.save(walk);
+        actionService.delete(morningRun.getId());
+
+        rollups = actionRollupService.findByUser(USER_ID, DAY, DAY.plusDays(1));
+        assertThat(rollups).hasSize(2);
+        assertThat(rollups.get(0).getDay()).isEqualTo(DAY);
+        assertThat(rollups.get(0).getCount()).isEqualTo(1);
+        assertThat(rollups.get(0).getDistance()).isEqualTo(10D);
+        assertThat(rollups.get(1).getDay()).isEqualTo(DAY.plusDays(1));
+        assertThat(rollups.get(1).getType()).isEqualTo(ActionType.Walking);
+    }
+
+    @Test
+    public void addAllGroupsActionsByRollup() {
+        actionService.save(newAction(ActionType.Running, "2016-07-04T08:00:00Z", 30, 5D));
+
+        actionRollupService.addAll(Arrays.asList(
+            newAction(ActionType.Running, "2016-07-04T18:00:00Z", 60, 10D),
+            newAction(ActionType.Running, "2016-07-04T20:00:00Z", 15, null),
+            newAction(ActionType.Walking, "2016-07-05T12:00:00Z", 45, 3D)));
+
+        List<ActionRollup> rollups = actionRollupService.findByUser(USER_ID, DAY, DAY.plusDays(1));
+        assertThat(rollups).hasSize(2);
+        assertThat(rollups.get(0).getCount()).isEqualTo(3);
+        assertThat(rollups.get(0).getDuration()).isEqualTo(105);
+        assertThat(rollups.get(0).getDistance()).isEqualTo(15D);
+        assertThat(rollups.get(1).getDay()).isEqualTo(DAY.plusDays(1));
+        assertThat(rollups.get(1).getType()).isEqualTo(ActionType.Walking);
+        assertThat(rollups.get(1).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void rebuildMatchesIncrementalRollups() throws Exception {
+        actionService.save(newAction(ActionType.Running, "2016-07-04T08:00:00Z", 30, 5D));
+        actionService.save(newAction(ActionType.Running, "2016-07-04T18:00:00Z", 60, 10D));
+        actionService.save(newAction(ActionType.Walking, "2016-07-05T12:00:00Z", 45, 3D));
+        List<ActionRollup> incremental = actionRollupService.findByUser(USER_ID, null, null);
+
+        assertThat(actionRollupService.rebuild().get()).isEqualTo(2L);
+
+        List<ActionRollup> rebuilt = actionRollupService.findByUser(USER_ID, null, null);
+        assertThat(rebuilt).hasSize(2);
+        for (int i = 0; i < rebuilt.size(); i++) {
+            assertThat(rebuilt.get(i).getId()).isEqualTo(incremental.get(i).getId());
+            assertThat(rebuilt.get(i).getDay()).isEqualTo(incremental.get(i).getDay());
+            assertThat(rebuilt.get(i).getCount()).isEqualTo(incremental.get(i).getCount());
+            assertThat(rebuilt.get(i).getDistance()).isEqualTo(incremental.get(i).getDistance());
+            assertThat(rebuilt.get(i).getDuration()).isEqualTo(incremental.get(i).getDuration());
+        }
+    }
+
+    private Action newAction(ActionType type, String start, Integer duration, Double distance) {
+        Action action = new Action();
+        action.setUserId(USER_ID);
+        action.setType(type);
+        action.setStart(ZonedDateTime.parse(start));
+        action.setDuration(duration);
+        action.setDistance(distance);
+        return action;
+    }
+}
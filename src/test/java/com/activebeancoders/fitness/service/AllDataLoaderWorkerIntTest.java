@@ -0,0 +1,115 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.ActiveBeanFitnessApp;
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.DataLoadJobRepository;
+import com.google.common.collect.ImmutableMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.inject.Inject;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the random data loading path of {@link AllDataLoaderWorker}, against the embedded MongoDB. Its
+ * throughput is measured by the {@link BatchingActionWriterBenchmark} instead.
+ *
+ * @see AllDataLoaderWorker
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = ActiveBeanFitnessApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class AllDataLoaderWorkerIntTest {
+
+    private static final long RECORD_COUNT = 20000;
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private DataLoadJobRepository dataLoadJobRepository;
+
+    @Inject
+    private DataLoadJobService dataLoadJobService;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private JHipsterProperties.Loader defaultLoaderProperties = new JHipsterProperties.Loader();
+
+    private AllDataLoaderWorker worker;
+
+    @Before
+    public void setup() {
+        actionRepository.deleteAll();
+        copy(jHipsterProperties.getLoader(), defaultLoaderProperties);
+        DataLoader noOpLoader = new DataLoader() {
+            @Override
+            public boolean beforeLoad() {
+                return true;
+            }
+
+            @Override
+            public boolean afterLoad() {
+                return true;
+            }
+        };
+        worker = new AllDataLoaderWorker(ImmutableMap.of("noOp", noOpLoader));
+        ReflectionTestUtils.setField(worker, "dataLoadJobService", dataLoadJobService);
+        ReflectionTestUtils.setField(worker, "jHipsterProperties", jHipsterProperties);
+    }
+
+    @After
+    public void cleanup() {
+        copy(defaultLoaderProperties, jHipsterProperties.getLoader());
+        actionRepository.deleteAll();
+        dataLoadJobRepository.deleteAll();
+    }
+
+    @Test
+    public void sameSeedLoadsSameDataWhateverTheParallelism() throws Exception {
+        load(1000, 4, 1);
+        List<String> sequential = comments();
+        load(100, 4, 8);
+        List<String> parallel = comments();
+
+        assertThat(parallel).isEqualTo(sequential);
+    }
+
+    private void load(int batchSize, int queueCapacity, int parallelism) throws Exception {
+        actionRepository.deleteAll();
+        jHipsterProperties.getLoader().setBatchSize(batchSize);
+        jHipsterProperties.getLoader().setQueueCapacity(queueCapacity);
+        jHipsterProperties.getLoader().setParallelism(parallelism);
+
+        assertThat(worker.loadRandomRecords(RECORD_COUNT).get()).isTrue();
+        assertThat(actionRepository.count()).isEqualTo(RECORD_COUNT);
+    }
+
+    private static void copy(JHipsterProperties.Loader from, JHipsterProperties.Loader to) {
+        to.setBatchSize(from.getBatchSize());
+        to.setQueueCapacity(from.getQueueCapacity());
+        to.setParallelism(from.getParallelism());
+        to.setSeed(from.getSeed());
+    }
+
+    private List<String> comments() {
+        return actionRepository.findAll().stream()
+            .map(Action::getComment)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+}
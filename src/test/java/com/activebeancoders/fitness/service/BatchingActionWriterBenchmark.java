@@ -0,0 +1,153 @@
+package com.activebeancoders.fitness.service;
+
+import com.activebeancoders.fitness.config.DatabaseConfiguration;
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.ActionRepositoryImpl;
+import com.activebeancoders.fitness.service.util.RandomActionGenerator;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientURI;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoDbFactory;
+import org.springframework.data.mongodb.core.convert.CustomConversions;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of writing generated actions to MongoDB: one {@code ActionRepository.save} per action, as the
+ * random data loader used to do, against the {@link BatchingActionWriter} with the default loader settings.
+ * <p>
+ * Scores are in actions per second. It starts an embedded MongoDB, as the integration tests do, unless the
+ * {@code benchmark.mongodb.uri} system property points it at a running one, and writes to a {@value #DATABASE}
+ * database whose actions it drops before each iteration. Run it from the IDE, or with {@code mvn test-compile} followed by this
+ * class's main method on the test classpath.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchingActionWriterBenchmark {
+
+    private static final String DATABASE = "fitnessBenchmark";
+
+    private static final int RECORD_COUNT = 10000;
+
+    private MongodExecutable mongodExecutable;
+
+    private MongoClient mongoClient;
+
+    private MongoTemplate mongoTemplate;
+
+    private ActionRepository actionRepository;
+
+    private JHipsterProperties.Loader loaderProperties = new JHipsterProperties.Loader();
+
+    private RandomActionGenerator generator = new RandomActionGenerator(loaderProperties.getSeed());
+
+    private long nextIndex;
+
+    private List<Action> actions;
+
+    @Setup
+    public void setup() throws IOException {
+        String uri = System.getProperty("benchmark.mongodb.uri");
+        if (uri == null) {
+            int port = Network.getFreeServerPort();
+            mongodExecutable = MongodStarter.getDefaultInstance().prepare(new MongodConfigBuilder()
+                .version(Version.Main.PRODUCTION)
+                .net(new Net("localhost", port, Network.localhostIsIPv6()))
+                .build());
+            mongodExecutable.start();
+            uri = "mongodb://localhost:" + port;
+        }
+        mongoClient = new MongoClient(new MongoClientURI(uri));
+        SimpleMongoDbFactory dbFactory = new SimpleMongoDbFactory(mongoClient, DATABASE);
+        CustomConversions conversions = new DatabaseConfiguration().customConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(dbFactory),
+            mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        mongoTemplate = new MongoTemplate(dbFactory, converter);
+
+        ActionRepositoryImpl actionRepositoryImpl = new ActionRepositoryImpl();
+        ReflectionTestUtils.setField(actionRepositoryImpl, "mongoTemplate", mongoTemplate);
+        actionRepository = new MongoRepositoryFactory(mongoTemplate)
+            .getRepository(ActionRepository.class, actionRepositoryImpl);
+    }
+
+    @Setup(Level.Iteration)
+    public void dropActions() {
+        if (mongoTemplate.collectionExists(Action.class)) {
+            mongoTemplate.dropCollection(Action.class);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void generateActions() {
+        actions = new ArrayList<>(RECORD_COUNT);
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            actions.add(generator.generate(nextIndex++));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoTemplate.getDb().dropDatabase();
+        mongoClient.close();
+        if (mongodExecutable != null) {
+            mongodExecutable.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORD_COUNT)
+    public void saveEach() {
+        for (Action action : actions) {
+            actionRepository.save(action);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORD_COUNT)
+    public void batchingActionWriter() throws InterruptedException {
+        try (BatchingActionWriter writer = new BatchingActionWriter(actionRepository,
+            loaderProperties.getBatchSize(), loaderProperties.getQueueCapacity())) {
+            for (Action action : actions) {
+                writer.write(action);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(BatchingActionWriterBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
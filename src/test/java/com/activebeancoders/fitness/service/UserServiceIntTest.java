@@ -10,10 +10,13 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 
 import javax.inject.Inject;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.List;
 
@@ -36,6 +39,52 @@ public class UserServiceIntTest {
     @Inject
     private UserService userService;
 
+    @Inject
+    private CacheManager cacheManager;
+
+    @Test
+    public void assertThatUserLookupByLoginIsCachedUntilAUserIsSaved() {
+        Cache cache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        cache.clear();
+
+        User user = userRepository.findOneByLogin("admin").get();
+        assertThat(cache.get("admin")).isNotNull();
+
+        userRepository.save(user);
+        assertThat(cache.get("admin")).isNull();
+
+        userRepository.findOneByLogin("admin");
+        userRepository.save(Collections.singletonList(user));
+        assertThat(cache.get("admin")).isNull();
+    }
+
+    @Test
+    public void assertThatCachedUsersAreNotShared() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+
+        User user = userRepository.findOneByLogin("admin").get();
+        user.setFirstName("changed");
+        user.getAuthorities().clear();
+
+        User cachedUser = userRepository.findOneByLogin("admin").get();
+        assertThat(cachedUser).isNotSameAs(user);
+        assertThat(cachedUser.getFirstName()).isNotEqualTo("changed");
+        assertThat(cachedUser.getAuthorities()).isNotEmpty();
+    }
+
+    @Test
+    public void assertThatUnknownLoginIsNotCached() {
+        Cache cache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        cache.clear();
+
+        assertThat(userRepository.findOneByLogin("johndoe").isPresent()).isFalse();
+        assertThat(cache.get("johndoe")).isNull();
+
+        User user = userService.createUserInformation("johndoe", "johndoe", "John", "Doe", "john.doe@localhost", "en-US");
+        assertThat(userRepository.findOneByLogin("johndoe").isPresent()).isTrue();
+        userRepository.delete(user);
+    }
+
     @Test
     public void assertThatUserMustExistToResetPassword() {
         Optional<User> maybeUser = userService.requestPasswordReset("john.doe@localhost");
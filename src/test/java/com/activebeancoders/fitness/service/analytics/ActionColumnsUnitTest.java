@@ -0,0 +1,142 @@
+package com.activebeancoders.fitness.service.analytics;
+
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import com.activebeancoders.fitness.repository.ActionCriteria;
+import com.activebeancoders.fitness.web.rest.dto.ActionAnalyticsDTO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Test class for the ActionColumns snapshot and the ActionColumnStore it is taken from.
+ *
+ * @see ActionColumns
+ */
+public class ActionColumnsUnitTest {
+
+    private static final long JULY_4 = ZonedDateTime.parse("2016-07-04T08:00:00Z").toInstant().toEpochMilli();
+    private static final long JULY_5 = ZonedDateTime.parse("2016-07-05T08:00:00Z").toInstant().toEpochMilli();
+
+    private static final double[] NO_PERCENTS = new double[0];
+
+    private ActionColumnStore store;
+
+    @Before
+    public void setup() {
+        store = new ActionColumnStore();
+        store.append("a1", 1L, JULY_4, 30, 5D, ActionType.Running, "km");
+        store.append("a2", 1L, JULY_5, 60, 12D, ActionType.Running, "km");
+        store.append("a3", 2L, JULY_4, 45, 3D, ActionType.Walking, "mi");
+        store.append("a4", 2L, JULY_5, 20, 1D, ActionType.Running, "mi");
+        store.append("a5", 3L, null, null, null, null, null);
+    }
+
+    @Test
+    public void testStatsWithoutGroups() {
+        List<ActionAnalyticsDTO> result = store.snapshot().analyze(new ActionCriteria(), ActionColumns.GroupBy.NONE,
+            ActionColumns.Measure.DISTANCE, NO_PERCENTS, null);
+
+        assertThat(result).hasSize(1);
+        ActionAnalyticsDTO all = result.get(0);
+        assertThat(all.getGroup()).isNull();
+        assertThat(all.getCount()).isEqualTo(4);
+        assertThat(all.getSum()).isEqualTo(21D);
+        assertThat(all.getMin()).isEqualTo(1D);
+        assertThat(all.getMax()).isEqualTo(12D);
+        assertThat(all.getMean()).isEqualTo(5.25D);
+        assertThat(all.getPercentiles()).isNull();
+        assertThat(all.getHistogram()).isNull();
+    }
+
+    @Test
+    public void testDistanceHistogramPerType() {
+        List<ActionAnalyticsDTO> result = store.snapshot().analyze(new ActionCriteria(), ActionColumns.GroupBy.TYPE,
+            ActionColumns.Measure.DISTANCE, NO_PERCENTS, 5D);
+
+        assertThat(result).extracting(ActionAnalyticsDTO::getGroup).containsExactly("Running", "Walking");
+        assertThat(result.get(0).getBucketStart()).isEqualTo(0D);
+        assertThat(result.get(0).getHistogram()).containsExactly(1, 1, 1);
+        assertThat(result.get(1).getHistogram()).containsExactly(1);
+    }
+
+    @Test
+    public void testDurationPercentilesPerUnit() {
+        List<ActionAnalyticsDTO> result = store.snapshot().analyze(new ActionCriteria(), ActionColumns.GroupBy.UNIT,
+            ActionColumns.Measure.DURATION, new double[] {50, 100}, null);
+
+        assertThat(result).extracting(ActionAnalyticsDTO::getGroup).containsExactly("km", "mi");
+        assertThat(result.get(0).getPercentiles()).containsExactly(30D, 60D);
+        assertThat(result.get(1).getPercentiles()).containsExactly(20D, 45D);
+    }
+
+    @Test
+    public void testFilters() {
+        ActionCriteria criteria = new ActionCriteria();
+        criteria.setType(ActionType.Running);
+        criteria.setFrom(ZonedDateTime.parse("2016-07-05T00:00:00Z"));
+        criteria.setMaxDuration(59);
+
+        List<ActionAnalyticsDTO> result = store.snapshot().analyze(criteria, ActionColumns.GroupBy.NONE,
+            ActionColumns.Measure.DURATION, NO_PERCENTS, null);
+        assertThat(result.get(0).getCount()).isEqualTo(1);
+        assertThat(result.get(0).getSum()).isEqualTo(20D);
+
+        criteria = new ActionCriteria();
+        criteria.setUnit("furlong");
+        result = store.snapshot().analyze(criteria, ActionColumns.GroupBy.UNIT,
+            ActionColumns.Measure.DURATION, NO_PERCENTS, null);
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void testSnapshotDoesNotSeeLaterAppends() {
+        ActionColumns snapshot = store.snapshot();
+        for (int i = 0; i < 2000; i++) {
+            store.append("s" + i, 4L, JULY_5, 10, 1D, ActionType.Swimming, "m");
+        }
+
+        assertThat(snapshot.size()).isEqualTo(5);
+        assertThat(snapshot.analyze(new ActionCriteria(), ActionColumns.GroupBy.TYPE,
+            ActionColumns.Measure.DISTANCE, NO_PERCENTS, null)).extracting(ActionAnalyticsDTO::getGroup)
+            .doesNotContain("Swimming");
+        assertThat(store.snapshot().size()).isEqualTo(2005);
+    }
+
+    @Test
+    public void testAppendingAgainReplacesTheAction() {
+        store.append("a3", 2L, JULY_4, 45, 3D, ActionType.Running, "mi");
+
+        ActionColumns snapshot = store.snapshot();
+        assertThat(snapshot.size()).isEqualTo(5);
+        assertThat(snapshot.analyze(new ActionCriteria(), ActionColumns.GroupBy.TYPE,
+            ActionColumns.Measure.DISTANCE, NO_PERCENTS, null))
+            .extracting(ActionAnalyticsDTO::getGroup, ActionAnalyticsDTO::getCount)
+            .containsExactly(tuple("Running", 4L));
+    }
+
+    @Test
+    public void testSnapshotDoesNotSeeLaterRemovals() {
+        ActionColumns snapshot = store.snapshot();
+        assertThat(store.remove("a2")).isTrue();
+        assertThat(store.remove("a2")).isFalse();
+
+        assertThat(snapshot.size()).isEqualTo(5);
+        assertThat(snapshot.analyze(new ActionCriteria(), ActionColumns.GroupBy.NONE,
+            ActionColumns.Measure.DISTANCE, NO_PERCENTS, null).get(0).getSum()).isEqualTo(21D);
+        ActionColumns after = store.snapshot();
+        assertThat(after.size()).isEqualTo(4);
+        assertThat(after.analyze(new ActionCriteria(), ActionColumns.GroupBy.NONE,
+            ActionColumns.Measure.DISTANCE, NO_PERCENTS, null).get(0).getSum()).isEqualTo(9D);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyBuckets() {
+        store.snapshot().analyze(new ActionCriteria(), ActionColumns.GroupBy.NONE,
+            ActionColumns.Measure.DISTANCE, NO_PERCENTS, 0.0001D);
+    }
+}
@@ -0,0 +1,122 @@
+package com.activebeancoders.fitness.service.index;
+
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the UserActionIndex.
+ *
+ * @see UserActionIndex
+ */
+public class UserActionIndexUnitTest {
+
+    private static final long USER_ID = 1L;
+    private static final long OTHER_USER_ID = 2L;
+
+    private static final String FIRST_ID = "57800000ffffffff00000001";
+    private static final String SECOND_ID = "57800000ffffffff00000002";
+    private static final String THIRD_ID = "57800000ffffffff00000003";
+    private static final String HIGH_ID = "f7800000ffffffffffffffff";
+
+    private UserActionIndex index;
+
+    @Before
+    public void setup() {
+        index = new UserActionIndex();
+    }
+
+    @Test
+    public void testMostRecentFirstThenGreatestIdThenWithoutStart() {
+        index.add(USER_ID, 2000L, FIRST_ID);
+        index.add(USER_ID, null, HIGH_ID);
+        index.add(USER_ID, 1000L, HIGH_ID.replace('f', 'e'));
+        index.add(USER_ID, 2000L, SECOND_ID);
+        index.add(USER_ID, 3000L, THIRD_ID);
+        index.add(OTHER_USER_ID, 4000L, HIGH_ID);
+
+        assertThat(index.findIdsAfter(USER_ID, null, null, 10))
+            .containsExactly(THIRD_ID, SECOND_ID, FIRST_ID, HIGH_ID.replace('f', 'e'), HIGH_ID);
+        assertThat(index.findIdsAfter(OTHER_USER_ID, null, null, 10)).containsExactly(HIGH_ID);
+        assertThat(index.findIdsAfter(3L, null, null, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(6);
+    }
+
+    @Test
+    public void testPagesContinueAfterAnAction() {
+        index.add(USER_ID, 3000L, THIRD_ID);
+        index.add(USER_ID, 2000L, SECOND_ID);
+        index.add(USER_ID, 2000L, FIRST_ID);
+        index.add(USER_ID, null, HIGH_ID);
+
+        assertThat(index.findIdsAfter(USER_ID, null, null, 2)).containsExactly(THIRD_ID, SECOND_ID);
+        assertThat(index.findIdsAfter(USER_ID, 2000L, SECOND_ID, 2)).containsExactly(FIRST_ID, HIGH_ID);
+        assertThat(index.findIdsAfter(USER_ID, null, HIGH_ID, 2)).isEmpty();
+        // the action to continue after may have been deleted since
+        assertThat(index.findIdsAfter(USER_ID, 2500L, THIRD_ID, 2)).containsExactly(SECOND_ID, FIRST_ID);
+    }
+
+    @Test
+    public void testAddAndRemoveAreIdempotent() {
+        assertThat(index.add(USER_ID, 1000L, FIRST_ID)).isTrue();
+        index.add(USER_ID, 1000L, FIRST_ID);
+        index.remove(USER_ID, 2000L, FIRST_ID);
+        index.remove(OTHER_USER_ID, 1000L, FIRST_ID);
+        assertThat(index.findIdsAfter(USER_ID, null, null, 10)).containsExactly(FIRST_ID);
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove(USER_ID, 1000L, FIRST_ID);
+        index.remove(USER_ID, 1000L, FIRST_ID);
+        assertThat(index.findIdsAfter(USER_ID, null, null, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testIdsThatAreNotObjectIdsAreNotIndexed() {
+        assertThat(index.add(USER_ID, 1000L, "not-an-object-id")).isFalse();
+        assertThat(index.size()).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testContinuingAfterAnIdThatIsNotAnObjectIdIsRejected() {
+        index.findIdsAfter(USER_ID, 1000L, "not-an-object-id", 10);
+    }
+
+    @Test
+    public void testManyActionsInAnyOrder() {
+        Random random = new Random(42);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(new ObjectId(random.nextInt(), random.nextInt(), random.nextInt(0xffffff)).toHexString());
+        }
+        for (String id : ids) {
+            index.add(USER_ID, start(id), id);
+        }
+        // the hex strings of ObjectIds sort like their bytes
+        ids.sort((a, b) -> {
+            int result = Long.compare(start(b), start(a));
+            return result != 0 ? result : b.compareTo(a);
+        });
+        assertThat(index.findIdsAfter(USER_ID, null, null, 2000)).isEqualTo(ids);
+
+        Collections.shuffle(ids, random);
+        for (String id : ids.subList(0, 500)) {
+            index.remove(USER_ID, start(id), id);
+        }
+        assertThat(index.size()).isEqualTo(500);
+    }
+
+    /**
+     * A start of a few distinct values, so that ids break many ties.
+     */
+    private static long start(String id) {
+        return id.charAt(23) % 10;
+    }
+}
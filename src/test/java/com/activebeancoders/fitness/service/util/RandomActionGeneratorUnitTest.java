@@ -0,0 +1,50 @@
+package com.activebeancoders.fitness.service.util;
+
+import com.activebeancoders.fitness.domain.Action;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the RandomActionGenerator utility class.
+ *
+ * @see RandomActionGenerator
+ */
+public class RandomActionGeneratorUnitTest {
+
+    @Test
+    public void testSameSeedGivesSameActions() {
+        RandomActionGenerator sequential = new RandomActionGenerator(42);
+        RandomActionGenerator reversed = new RandomActionGenerator(42);
+        String[] expected = new String[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = sequential.generate(i).toString();
+        }
+        for (int i = expected.length - 1; i >= 0; i--) {
+            assertThat(reversed.generate(i).toString()).isEqualTo(expected[i]);
+        }
+    }
+
+    @Test
+    public void testDifferentSeedsGiveDifferentActions() {
+        Action first = new RandomActionGenerator(1).generate(0);
+        Action second = new RandomActionGenerator(2).generate(0);
+        assertThat(first.toString()).isNotEqualTo(second.toString());
+    }
+
+    @Test
+    public void testGeneratedFieldsAreInRange() {
+        RandomActionGenerator generator = new RandomActionGenerator(7);
+        for (int i = 0; i < 1000; i++) {
+            Action action = generator.generate(i);
+            assertThat(action.getId()).isNull();
+            assertThat(action.getUserId()).isBetween(1L, 500L);
+            assertThat(action.getDuration()).isBetween(0, 300);
+            assertThat(action.getDistance()).isBetween(1.0, 100.0);
+            assertThat(action.getType()).isNotNull();
+            assertThat(action.getUnit()).isNotNull();
+            assertThat(action.getStart().getYear()).isBetween(2000, 2016);
+            assertThat(action.getComment().split(" ").length).isBetween(10, 100);
+        }
+    }
+}
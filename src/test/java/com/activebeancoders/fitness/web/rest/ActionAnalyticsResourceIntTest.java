@@ -0,0 +1,209 @@
+package com.activebeancoders.fitness.web.rest;
+
+import com.activebeancoders.fitness.ActiveBeanFitnessApp;
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.domain.ActionQueryJob;
+import com.activebeancoders.fitness.domain.DataLoadJob;
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import com.activebeancoders.fitness.domain.enumeration.ActionQueryOperation;
+import com.activebeancoders.fitness.repository.ActionQueryJobRepository;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.DataLoadJobRepository;
+import com.activebeancoders.fitness.service.ActionQueryJobService;
+import com.activebeancoders.fitness.service.ActionService;
+import com.activebeancoders.fitness.service.ActionSnapshotService;
+import com.activebeancoders.fitness.service.DataLoadJobService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the ActionAnalyticsResource REST controller.
+ *
+ * @see ActionAnalyticsResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = ActiveBeanFitnessApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class ActionAnalyticsResourceIntTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long OTHER_USER_ID = 2L;
+
+    @Inject
+    private ActionSnapshotService actionSnapshotService;
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private ActionService actionService;
+
+    @Inject
+    private ActionQueryJobService actionQueryJobService;
+
+    @Inject
+    private ActionQueryJobRepository actionQueryJobRepository;
+
+    @Inject
+    private DataLoadJobService dataLoadJobService;
+
+    @Inject
+    private DataLoadJobRepository dataLoadJobRepository;
+
+    @Inject
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private MockMvc restActionAnalyticsMockMvc;
+
+    @PostConstruct
+    public void setup() {
+        ActionAnalyticsResource actionAnalyticsResource = new ActionAnalyticsResource();
+        ReflectionTestUtils.setField(actionAnalyticsResource, "actionSnapshotService", actionSnapshotService);
+        this.restActionAnalyticsMockMvc = MockMvcBuilders.standaloneSetup(actionAnalyticsResource)
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    @Before
+    public void initTest() {
+        actionRepository.deleteAll();
+        actionRepository.save(newAction(USER_ID, ActionType.Running, "2016-07-04T08:00:00Z", 30, 5D));
+        actionRepository.save(newAction(USER_ID, ActionType.Running, "2016-07-05T08:00:00Z", 60, 12D));
+        actionRepository.save(newAction(USER_ID, ActionType.Walking, "2016-07-05T12:00:00Z", 45, 3D));
+        actionRepository.save(newAction(OTHER_USER_ID, ActionType.Running, "2016-07-04T08:00:00Z", 20, 1D));
+        actionSnapshotService.rebuild();
+    }
+
+    @After
+    public void cleanup() {
+        actionRepository.deleteAll();
+        actionQueryJobRepository.deleteAll();
+        dataLoadJobRepository.deleteAll();
+        actionSnapshotService.rebuild();
+    }
+
+    @Test
+    public void analyzeDistancePerType() throws Exception {
+        restActionAnalyticsMockMvc.perform(get("/api/actions/_analytics?measure=DISTANCE&groupBy=TYPE&bucketWidth=5"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().string("X-Snapshot-Size", "4"))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$.[0].group").value("Running"))
+            .andExpect(jsonPath("$.[0].count").value(3))
+            .andExpect(jsonPath("$.[0].sum").value(18D))
+            .andExpect(jsonPath("$.[0].histogram").value(hasSize(3)))
+            .andExpect(jsonPath("$.[1].group").value("Walking"))
+            .andExpect(jsonPath("$.[1].max").value(3D));
+    }
+
+    @Test
+    public void analyzeDurationOfUser() throws Exception {
+        restActionAnalyticsMockMvc.perform(get("/api/actions/_analytics?measure=DURATION&userId={userId}&percents=50,100", USER_ID))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].count").value(3))
+            .andExpect(jsonPath("$.[0].percentiles[0]").value(45D))
+            .andExpect(jsonPath("$.[0].percentiles[1]").value(60D));
+    }
+
+    @Test
+    public void analyzeNewActionsAfterRefresh() throws Exception {
+        actionService.save(newAction(OTHER_USER_ID, ActionType.Swimming, "2016-07-06T08:00:00Z", 40, 2D));
+        actionSnapshotService.refresh();
+
+        restActionAnalyticsMockMvc.perform(get("/api/actions/_analytics?measure=DISTANCE&type=Swimming"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Snapshot-Size", "5"))
+            .andExpect(jsonPath("$.[0].count").value(1));
+    }
+
+    @Test
+    public void analyzeUpdatedAndDeletedActionsAfterRefresh() throws Exception {
+        Action action = actionService.save(newAction(OTHER_USER_ID, ActionType.Swimming, "2016-07-06T08:00:00Z", 40, 2D));
+        action.setDistance(3D);
+        actionService.save(action);
+        Action deleted = actionService.save(newAction(OTHER_USER_ID, ActionType.Swimming, "2016-07-07T08:00:00Z", 40, 2D));
+        actionService.delete(deleted.getId());
+        actionSnapshotService.refresh();
+
+        restActionAnalyticsMockMvc.perform(get("/api/actions/_analytics?measure=DISTANCE&type=Swimming"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Snapshot-Size", "5"))
+            .andExpect(jsonPath("$.[0].count").value(1))
+            .andExpect(jsonPath("$.[0].sum").value(3D));
+    }
+
+    @Test
+    public void analyzeActionsChangedByQueryJobsAfterRefresh() throws Exception {
+        ActionQueryJob update = new ActionQueryJob();
+        update.setOperation(ActionQueryOperation.UPDATE);
+        update.setUserId(USER_ID);
+        update.setType(ActionType.Walking);
+        update.setNewType(ActionType.Cycling);
+        actionQueryJobService.run(actionQueryJobService.create(update)).get(10, TimeUnit.SECONDS);
+        ActionQueryJob delete = new ActionQueryJob();
+        delete.setOperation(ActionQueryOperation.DELETE);
+        delete.setUserId(OTHER_USER_ID);
+        actionQueryJobService.run(actionQueryJobService.create(delete)).get(10, TimeUnit.SECONDS);
+        actionSnapshotService.refresh();
+
+        restActionAnalyticsMockMvc.perform(get("/api/actions/_analytics?measure=DISTANCE&groupBy=TYPE"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Snapshot-Size", "3"))
+            .andExpect(jsonPath("$.[0].group").value("Running"))
+            .andExpect(jsonPath("$.[0].count").value(2))
+            .andExpect(jsonPath("$.[1].group").value("Cycling"))
+            .andExpect(jsonPath("$.[1].count").value(1));
+    }
+
+    @Test
+    public void analyzeActionsLoadedByADataLoadJobAfterRefresh() throws Exception {
+        // the partitions of the job write their actions out of the order of their ids
+        DataLoadJob job = dataLoadJobService.create(2500, 0);
+        dataLoadJobService.run(job).get(30, TimeUnit.SECONDS);
+        actionSnapshotService.refresh();
+
+        restActionAnalyticsMockMvc.perform(get("/api/actions/_analytics?measure=DURATION"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Snapshot-Size", "2504"));
+    }
+
+    @Test
+    public void analyzeWithInvalidPercentIsRejected() throws Exception {
+        restActionAnalyticsMockMvc.perform(get("/api/actions/_analytics?measure=DISTANCE&percents=101"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private static Action newAction(Long userId, ActionType type, String start, Integer duration, Double distance) {
+        Action action = new Action();
+        action.setUserId(userId);
+        action.setType(type);
+        action.setStart(ZonedDateTime.parse(start));
+        action.setDuration(duration);
+        action.setDistance(distance);
+        action.setUnit("km");
+        return action;
+    }
+}
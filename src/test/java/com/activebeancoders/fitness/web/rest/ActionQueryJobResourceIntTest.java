@@ -0,0 +1,265 @@
+package com.activebeancoders.fitness.web.rest;
+
+import com.activebeancoders.fitness.ActiveBeanFitnessApp;
+import com.activebeancoders.fitness.domain.Action;
+import com.activebeancoders.fitness.domain.ActionQueryJob;
+import com.activebeancoders.fitness.domain.ActionRollup;
+import com.activebeancoders.fitness.domain.enumeration.ActionQueryJobStatus;
+import com.activebeancoders.fitness.domain.enumeration.ActionType;
+import com.activebeancoders.fitness.repository.ActionQueryJobRepository;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.ActionRollupRepository;
+import com.activebeancoders.fitness.security.AuthoritiesConstants;
+import com.activebeancoders.fitness.service.ActionQueryJobService;
+import com.activebeancoders.fitness.service.ActionRollupService;
+import com.activebeancoders.fitness.service.ActionService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the ActionQueryJobResource REST controller.
+ *
+ * @see ActionQueryJobResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = ActiveBeanFitnessApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class ActionQueryJobResourceIntTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long OTHER_USER_ID = 2L;
+
+    private static final LocalDate DAY = LocalDate.of(2016, 7, 4);
+
+    @Inject
+    private ActionQueryJobService actionQueryJobService;
+
+    @Inject
+    private ActionQueryJobRepository actionQueryJobRepository;
+
+    @Inject
+    private ActionService actionService;
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private ActionRollupService actionRollupService;
+
+    @Inject
+    private ActionRollupRepository actionRollupRepository;
+
+    @Inject
+    private ActionQueryJobResource securedActionQueryJobResource;
+
+    @Inject
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private MockMvc restActionQueryJobMockMvc;
+
+    @PostConstruct
+    public void setup() {
+        ActionQueryJobResource actionQueryJobResource = new ActionQueryJobResource();
+        ReflectionTestUtils.setField(actionQueryJobResource, "actionQueryJobService", actionQueryJobService);
+        this.restActionQueryJobMockMvc = MockMvcBuilders.standaloneSetup(actionQueryJobResource)
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    @Before
+    public void initTest() {
+        actionQueryJobRepository.deleteAll();
+        actionRepository.deleteAll();
+        actionRollupRepository.deleteAll();
+        actionService.save(newAction(USER_ID, ActionType.Running, "2016-07-04T08:00:00Z", "km"));
+        actionService.save(newAction(USER_ID, ActionType.Running, "2016-07-04T18:00:00Z", "km"));
+        actionService.save(newAction(USER_ID, ActionType.Walking, "2016-07-05T12:00:00Z", "km"));
+        actionService.save(newAction(OTHER_USER_ID, ActionType.Running, "2016-07-04T08:00:00Z", "km"));
+    }
+
+    @After
+    public void cleanup() {
+        SecurityContextHolder.clearContext();
+        actionQueryJobRepository.deleteAll();
+        actionRepository.deleteAll();
+        actionRollupRepository.deleteAll();
+    }
+
+    @Test
+    public void deleteActionsByQuery() throws Exception {
+        ActionQueryJob query = new ActionQueryJob();
+        query.setUserId(USER_ID);
+        query.setType(ActionType.Running);
+
+        restActionQueryJobMockMvc.perform(post("/api/actions/_delete_by_query")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(query)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.status").value(ActionQueryJobStatus.COMPLETED.toString()))
+            .andExpect(jsonPath("$.total").value(2))
+            .andExpect(jsonPath("$.affected").value(2));
+
+        List<Action> actions = actionRepository.findAll();
+        assertThat(actions).hasSize(2);
+        assertThat(actions).extracting(Action::getType).containsOnly(ActionType.Walking, ActionType.Running);
+        List<ActionRollup> rollups = actionRollupService.findByUser(USER_ID, DAY, DAY.plusDays(1));
+        assertThat(rollups).extracting(ActionRollup::getType).contains(ActionType.Walking);
+        assertThat(rollups).filteredOn(rollup -> rollup.getType() == ActionType.Running)
+            .allMatch(rollup -> rollup.getCount() == 0);
+    }
+
+    @Test
+    public void deleteActionsByEmptyQueryIsRejected() throws Exception {
+        restActionQueryJobMockMvc.perform(post("/api/actions/_delete_by_query")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(new ActionQueryJob())))
+            .andExpect(status().isBadRequest());
+
+        assertThat(actionRepository.findAll()).hasSize(4);
+    }
+
+    @Test
+    public void updateActionsByQuery() throws Exception {
+        ActionQueryJob query = new ActionQueryJob();
+        query.setUserId(USER_ID);
+        query.setFrom(ZonedDateTime.parse("2016-07-04T00:00:00Z"));
+        query.setTo(ZonedDateTime.parse("2016-07-05T00:00:00Z"));
+        query.setNewType(ActionType.Cycling);
+        query.setNewUnit("mi");
+
+        restActionQueryJobMockMvc.perform(post("/api/actions/_update_by_query")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(query)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value(ActionQueryJobStatus.COMPLETED.toString()))
+            .andExpect(jsonPath("$.affected").value(2));
+
+        List<Action> actions = actionRepository.findAll();
+        assertThat(actions).filteredOn(action -> "mi".equals(action.getUnit()))
+            .hasSize(2)
+            .allMatch(action -> action.getUserId().equals(USER_ID) && action.getType() == ActionType.Cycling);
+        List<ActionRollup> rollups = actionRollupService.findByUser(USER_ID, DAY, DAY);
+        assertThat(rollups).filteredOn(rollup -> rollup.getType() == ActionType.Cycling)
+            .extracting(ActionRollup::getCount).containsExactly(2L);
+        assertThat(rollups).filteredOn(rollup -> rollup.getType() == ActionType.Running)
+            .allMatch(rollup -> rollup.getCount() == 0);
+
+        // The job can be followed afterwards
+        ActionQueryJob job = actionQueryJobRepository.findAll().get(0);
+        restActionQueryJobMockMvc.perform(get("/api/action-query-jobs/{id}", job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.affected").value(2))
+            .andExpect(jsonPath("$.newUnit").value("mi"));
+    }
+
+    @Test
+    public void updateActionsByQueryWithoutNewValuesIsRejected() throws Exception {
+        ActionQueryJob query = new ActionQueryJob();
+        query.setUserId(USER_ID);
+
+        restActionQueryJobMockMvc.perform(post("/api/actions/_update_by_query")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(query)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void updateActionsByEmptyQueryIsRejected() throws Exception {
+        ActionQueryJob query = new ActionQueryJob();
+        query.setNewUnit("mi");
+
+        restActionQueryJobMockMvc.perform(post("/api/actions/_update_by_query")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(query)))
+            .andExpect(status().isBadRequest());
+
+        assertThat(actionRepository.findAll()).extracting(Action::getUnit).containsOnly("km");
+    }
+
+    @Test(expected = AccessDeniedException.class)
+    public void actionQueryJobsAreReservedToAdministrators() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user", "",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))));
+        ActionQueryJob query = new ActionQueryJob();
+        query.setUserId(OTHER_USER_ID);
+
+        try {
+            securedActionQueryJobResource.deleteActionsByQuery(query);
+        } finally {
+            assertThat(actionRepository.findAll()).hasSize(4);
+        }
+    }
+
+    @Test
+    public void slowSmallJobContinuesInTheBackground() throws Exception {
+        ActionQueryJob job = new ActionQueryJob();
+        job.setId("slow");
+        job.setTotal(1);
+        ActionQueryJobService slowService = mock(ActionQueryJobService.class);
+        when(slowService.create(any(ActionQueryJob.class))).thenReturn(job);
+        when(slowService.run(job)).thenReturn(new CompletableFuture<>());
+        when(slowService.findOne("slow")).thenReturn(Optional.of(job));
+        ActionQueryJobResource actionQueryJobResource = new ActionQueryJobResource();
+        ReflectionTestUtils.setField(actionQueryJobResource, "actionQueryJobService", slowService);
+        MockMvc slowMockMvc = MockMvcBuilders.standaloneSetup(actionQueryJobResource)
+            .setMessageConverters(jacksonMessageConverter).build();
+        ActionQueryJob query = new ActionQueryJob();
+        query.setUserId(USER_ID);
+
+        slowMockMvc.perform(post("/api/actions/_delete_by_query")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(query)))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Location", "/api/action-query-jobs/slow"));
+    }
+
+    @Test
+    public void getNonExistingActionQueryJob() throws Exception {
+        restActionQueryJobMockMvc.perform(get("/api/action-query-jobs/{id}", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    private static Action newAction(Long userId, ActionType type, String start, String unit) {
+        Action action = new Action();
+        action.setUserId(userId);
+        action.setType(type);
+        action.setStart(ZonedDateTime.parse(start));
+        action.setDuration(30);
+        action.setDistance(5D);
+        action.setUnit(unit);
+        return action;
+    }
+}
@@ -1,34 +1,56 @@
 package com.activebeancoders.fitness.web.rest;
 
 import com.activebeancoders.fitness.ActiveBeanFitnessApp;
+import com.activebeancoders.fitness.config.JacksonConfiguration;
 import com.activebeancoders.fitness.domain.Action;
 import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.search.ActionSearchRepository;
+import com.activebeancoders.fitness.service.ActionAggregationService;
+import com.activebeancoders.fitness.service.ActionBulkService;
+import com.activebeancoders.fitness.service.ActionIndexingService;
+import com.activebeancoders.fitness.service.ActionService;
+import com.activebeancoders.fitness.service.UserActionIndexService;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.SortHandlerMethodArgumentResolver;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -74,9 +96,38 @@ public class ActionResourceIntTest {
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
+    @Inject
+    @Named("smileHttpMessageConverter")
+    private AbstractJackson2HttpMessageConverter smileMessageConverter;
+
+    @Inject
+    @Named("cborHttpMessageConverter")
+    private AbstractJackson2HttpMessageConverter cborMessageConverter;
+
     @Inject
     private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
 
+    @Inject
+    private ActionService actionService;
+
+    @Inject
+    private ActionAggregationService actionAggregationService;
+
+    @Inject
+    private ActionBulkService actionBulkService;
+
+    @Inject
+    private ActionSearchRepository actionSearchRepository;
+
+    @Inject
+    private ActionIndexingService actionIndexingService;
+
+    @Inject
+    private UserActionIndexService userActionIndexService;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
     private MockMvc restActionMockMvc;
 
     private Action action;
@@ -85,15 +136,23 @@ public class ActionResourceIntTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         ActionResource actionResource = new ActionResource();
+        ReflectionTestUtils.setField(actionResource, "actionService", actionService);
         ReflectionTestUtils.setField(actionResource, "actionRepository", actionRepository);
+        ReflectionTestUtils.setField(actionResource, "actionAggregationService", actionAggregationService);
+        ReflectionTestUtils.setField(actionResource, "actionBulkService", actionBulkService);
+        ReflectionTestUtils.setField(actionResource, "actionIndexingService", actionIndexingService);
+        ReflectionTestUtils.setField(actionResource, "userActionIndexService", userActionIndexService);
+        ReflectionTestUtils.setField(actionResource, "objectMapper", objectMapper);
         this.restActionMockMvc = MockMvcBuilders.standaloneSetup(actionResource)
-            .setCustomArgumentResolvers(pageableArgumentResolver)
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setCustomArgumentResolvers(pageableArgumentResolver, new SortHandlerMethodArgumentResolver())
+            .setMessageConverters(jacksonMessageConverter, smileMessageConverter, cborMessageConverter).build();
     }
 
     @Before
-    public void initTest() {
+    public void initTest() throws InterruptedException {
         actionRepository.deleteAll();
+        actionIndexingService.flush(10, TimeUnit.SECONDS);
+        actionSearchRepository.deleteAll();
         action = new Action();
         action.setUserId(DEFAULT_USER_ID);
         action.setStart(DEFAULT_START);
@@ -147,6 +206,233 @@ public class ActionResourceIntTest {
                 .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE.toString())));
     }
 
+    @Test
+    public void getAllActionsIsPaginated() throws Exception {
+        // Initialize the database
+        actionRepository.save(action);
+        Action otherAction = new Action();
+        otherAction.setUserId(UPDATED_USER_ID);
+        otherAction.setStart(UPDATED_START);
+        actionRepository.save(otherAction);
+
+        // Get the first page of actions
+        restActionMockMvc.perform(get("/api/actions?page=0&size=1&sort=id,asc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    public void createActionsFromNdjson() throws Exception {
+        int databaseSizeBeforeCreate = actionRepository.findAll().size();
+
+        // Create two valid actions, one with a negative distance, and one with an ID
+        Action invalidAction = new Action();
+        invalidAction.setUserId(DEFAULT_USER_ID);
+        invalidAction.setDistance(-1D);
+        Action actionWithId = new Action();
+        actionWithId.setId("existing-id");
+        String body = objectMapper.writeValueAsString(action) + "\n" +
+            objectMapper.writeValueAsString(invalidAction) + "\n" +
+            objectMapper.writeValueAsString(actionWithId) + "\n" +
+            "{\"userId\":" + UPDATED_USER_ID + ",\"type\":\"" + UPDATED_TYPE + "\"}\n";
+
+        restActionMockMvc.perform(post("/api/actions/_bulk")
+            .contentType(MediaType.parseMediaType(ActionResource.APPLICATION_NDJSON_VALUE))
+            .content(body))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.received").value(4))
+            .andExpect(jsonPath("$.created").value(2))
+            .andExpect(jsonPath("$.failed").value(2))
+            .andExpect(jsonPath("$.complete").value(true))
+            .andExpect(jsonPath("$.items[*].index").value(contains(0, 1, 2, 3)))
+            .andExpect(jsonPath("$.items[*].status").value(contains("CREATED", "REJECTED", "REJECTED", "CREATED")));
+
+        // Validate the Actions in the database, under the IDs of the created items
+        List<Action> actions = actionRepository.findAll();
+        assertThat(actions).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(actions).extracting(Action::getUserId).containsOnly(DEFAULT_USER_ID, UPDATED_USER_ID);
+        String result = restActionMockMvc.perform(post("/api/actions/_bulk")
+            .contentType(MediaType.parseMediaType(ActionResource.APPLICATION_NDJSON_VALUE))
+            .content(objectMapper.writeValueAsString(action)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        String id = objectMapper.readTree(result).at("/items/0/id").asText();
+        assertThat(actionRepository.findOne(id)).isNotNull();
+    }
+
+    @Test
+    public void createActionsReportsTheActionsThatFailedToBeWritten() throws Exception {
+        // A repository that writes the first batch, then fails
+        ActionRepository failingRepository = mock(ActionRepository.class);
+        when(failingRepository.insertUnordered(anyListOf(Action.class)))
+            .thenAnswer(invocation -> actionRepository.insertUnordered(invocation.getArgumentAt(0, List.class)))
+            .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        ActionBulkService failingBulkService = new ActionBulkService();
+        ReflectionTestUtils.setField(failingBulkService, "actionRepository", failingRepository);
+        for (String field : new String[] {"actionRollupService", "actionIndexingService", "userActionIndexService",
+            "actionSnapshotService", "objectMapper", "validator"}) {
+            ReflectionTestUtils.setField(failingBulkService, field, ReflectionTestUtils.getField(actionBulkService, field));
+        }
+        failingBulkService.init();
+        ActionResource actionResource = new ActionResource();
+        ReflectionTestUtils.setField(actionResource, "actionBulkService", failingBulkService);
+        MockMvc failingMockMvc = MockMvcBuilders.standaloneSetup(actionResource)
+            .setMessageConverters(jacksonMessageConverter).build();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1500; i++) {
+            body.append(objectMapper.writeValueAsString(action)).append('\n');
+        }
+
+        failingMockMvc.perform(post("/api/actions/_bulk")
+            .contentType(MediaType.parseMediaType(ActionResource.APPLICATION_NDJSON_VALUE))
+            .content(body.toString()))
+            .andExpect(status().isInternalServerError())
+            .andExpect(jsonPath("$.received").value(1500))
+            .andExpect(jsonPath("$.created").value(1000))
+            .andExpect(jsonPath("$.failed").value(500))
+            .andExpect(jsonPath("$.complete").value(false))
+            .andExpect(jsonPath("$.writeError").value(containsString("Connection refused")))
+            .andExpect(jsonPath("$.items[999].status").value("CREATED"))
+            .andExpect(jsonPath("$.items[1000].status").value("FAILED"))
+            .andExpect(jsonPath("$.items[1000].id").value(notNullValue()));
+
+        assertThat(actionRepository.findAll()).hasSize(1000);
+    }
+
+    @Test
+    public void createActionsFromJsonArrayStopsAtMalformedJson() throws Exception {
+        int databaseSizeBeforeCreate = actionRepository.findAll().size();
+
+        String body = "[" + objectMapper.writeValueAsString(action) + ", {\"userId\": }]";
+
+        restActionMockMvc.perform(post("/api/actions/_bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.created").value(1))
+            .andExpect(jsonPath("$.complete").value(false))
+            .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.items[1].index").value(1))
+            .andExpect(jsonPath("$.items[1].status").value("REJECTED"));
+
+        assertThat(actionRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+    }
+
+    @Test
+    public void searchActions() throws Exception {
+        // Initialize the database
+        actionRepository.save(action);
+        Action otherUserAction = new Action();
+        otherUserAction.setUserId(UPDATED_USER_ID);
+        otherUserAction.setDistance(DEFAULT_DISTANCE);
+        actionRepository.save(otherUserAction);
+        Action longerAction = new Action();
+        longerAction.setUserId(DEFAULT_USER_ID);
+        longerAction.setDistance(UPDATED_DISTANCE);
+        longerAction.setStart(UPDATED_START);
+        actionRepository.save(longerAction);
+
+        // Search the actions of a user within a distance range
+        restActionMockMvc.perform(get("/api/actions/_search?userId={userId}&maxDistance={maxDistance}&size=1",
+            DEFAULT_USER_ID, DEFAULT_DISTANCE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(header().string("X-Total-Count-Relation", "eq"))
+            .andExpect(jsonPath("$.[*].id").value(contains(action.getId())));
+
+        // Search the actions of a user, most recent first, one per page
+        restActionMockMvc.perform(get("/api/actions/_search?userId={userId}&size=1", DEFAULT_USER_ID))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("userId=" + DEFAULT_USER_ID)))
+            .andExpect(jsonPath("$.[*].id").value(contains(longerAction.getId())));
+
+        // Search by type and start range, sorted by distance
+        restActionMockMvc.perform(get("/api/actions/_search?type={type}&from={from}&sort=distance,asc",
+            DEFAULT_TYPE, DEFAULT_START.toInstant().toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(action.getId())));
+    }
+
+    @Test
+    public void searchActionsRejectsUnknownSortsAndDeepPages() throws Exception {
+        restActionMockMvc.perform(get("/api/actions/_search?sort=comment,asc"))
+            .andExpect(status().isBadRequest());
+
+        restActionMockMvc.perform(get("/api/actions/_search?page=500&size=20"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void searchActionComments() throws Exception {
+        // Initialize the database through the service, which queues the actions to be indexed
+        action.setComment("easy morning run along the river");
+        actionService.save(action);
+        Action otherAction = new Action();
+        otherAction.setUserId(UPDATED_USER_ID);
+        otherAction.setComment("long run in the hills, then a run back home");
+        actionService.save(otherAction);
+        Action uncommentedAction = new Action();
+        uncommentedAction.setUserId(UPDATED_USER_ID);
+        actionService.save(uncommentedAction);
+        assertThat(actionIndexingService.flush(10, TimeUnit.SECONDS)).isTrue();
+        actionSearchRepository.refresh();
+
+        // The action that mentions the term most is ranked first
+        restActionMockMvc.perform(get("/api/_search/actions?q={q}", "run"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("q=run")))
+            .andExpect(jsonPath("$.[*].id").value(contains(otherAction.getId(), action.getId())));
+
+        // Phrases match the exact sequence of terms
+        restActionMockMvc.perform(get("/api/_search/actions?q={q}", "\"morning run\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(action.getId())));
+
+        // Deleted actions are no longer found
+        actionService.delete(otherAction.getId());
+        assertThat(actionIndexingService.flush(10, TimeUnit.SECONDS)).isTrue();
+        actionSearchRepository.refresh();
+        restActionMockMvc.perform(get("/api/_search/actions?q={q}", "hills"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "0"));
+    }
+
+    @Test
+    public void searchActionCommentsRejectsMalformedQueries() throws Exception {
+        restActionMockMvc.perform(get("/api/_search/actions?q={q}", "run AND ("))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void streamAllActions() throws Exception {
+        // Initialize the database
+        actionRepository.save(action);
+        Action otherAction = new Action();
+        otherAction.setUserId(UPDATED_USER_ID);
+        otherAction.setStart(UPDATED_START);
+        actionRepository.save(otherAction);
+
+        // Stream all the actions
+        MvcResult mvcResult = restActionMockMvc.perform(get("/api/actions/stream?sort=id,asc"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = restActionMockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ActionResource.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], Action.class).getId()).isEqualTo(action.getId());
+        assertThat(objectMapper.readValue(lines[1], Action.class).getUserId()).isEqualTo(UPDATED_USER_ID);
+    }
+
     @Test
     public void getAction() throws Exception {
         // Initialize the database
@@ -166,6 +452,234 @@ public class ActionResourceIntTest {
             .andExpect(jsonPath("$.type").value(DEFAULT_TYPE.toString()));
     }
 
+    @Test
+    public void getActionAsSmile() throws Exception {
+        // Initialize the database
+        actionRepository.save(action);
+
+        // Get the action in Smile, with its start in milliseconds since the epoch
+        byte[] content = restActionMockMvc.perform(get("/api/actions/{id}", action.getId())
+                .accept(JacksonConfiguration.APPLICATION_SMILE_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(JacksonConfiguration.APPLICATION_SMILE_VALUE))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        ObjectMapper smileMapper = smileMessageConverter.getObjectMapper();
+        assertThat(smileMapper.readTree(content).get("start").longValue())
+            .isEqualTo(DEFAULT_START.toInstant().toEpochMilli());
+        Action testAction = smileMapper.readValue(content, Action.class);
+        assertThat(testAction.getId()).isEqualTo(action.getId());
+        assertThat(testAction.getStart().toInstant()).isEqualTo(DEFAULT_START.toInstant());
+        assertThat(testAction.getComment()).isEqualTo(DEFAULT_COMMENT);
+    }
+
+    @Test
+    public void getActionAcceptingAnyTypeIsJson() throws Exception {
+        // Initialize the database
+        actionRepository.save(action);
+
+        // Get the action
+        restActionMockMvc.perform(get("/api/actions/{id}", action.getId())
+                .accept(MediaType.ALL))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.start").value(DEFAULT_START_STR));
+    }
+
+    @Test
+    public void createActionFromCbor() throws Exception {
+        int databaseSizeBeforeCreate = actionRepository.findAll().size();
+
+        // Create the Action in CBOR
+        restActionMockMvc.perform(post("/api/actions")
+                .contentType(JacksonConfiguration.APPLICATION_CBOR_VALUE)
+                .accept(JacksonConfiguration.APPLICATION_CBOR_VALUE)
+                .content(cborMessageConverter.getObjectMapper().writeValueAsBytes(action)))
+            .andExpect(status().isCreated())
+            .andExpect(content().contentType(JacksonConfiguration.APPLICATION_CBOR_VALUE));
+
+        // Validate the Action in the database
+        List<Action> actions = actionRepository.findAll();
+        assertThat(actions).hasSize(databaseSizeBeforeCreate + 1);
+        Action testAction = actions.get(actions.size() - 1);
+        assertThat(testAction.getUserId()).isEqualTo(DEFAULT_USER_ID);
+        assertThat(testAction.getStart()).isEqualTo(DEFAULT_START);
+        assertThat(testAction.getType()).isEqualTo(DEFAULT_TYPE);
+    }
+
+    @Test
+    public void getActionNotModified() throws Exception {
+        // Initialize the database
+        actionRepository.save(action);
+
+        // Get the action, then get it again with its ETag
+        String eTag = restActionMockMvc.perform(get("/api/actions/{id}", action.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        restActionMockMvc.perform(get("/api/actions/{id}", action.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    public void getActionETagDependsOnTheFormat() throws Exception {
+        // Initialize the database
+        actionRepository.save(action);
+
+        // Get the action in each format
+        String jsonETag = restActionMockMvc.perform(get("/api/actions/{id}", action.getId())
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String smileETag = restActionMockMvc.perform(get("/api/actions/{id}", action.getId())
+                .accept(JacksonConfiguration.APPLICATION_SMILE_VALUE))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String cborETag = restActionMockMvc.perform(get("/api/actions/{id}", action.getId())
+                .accept(JacksonConfiguration.APPLICATION_CBOR_VALUE))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(jsonETag).isNotEqualTo(smileETag).isNotEqualTo(cborETag);
+        assertThat(smileETag).isNotEqualTo(cborETag);
+
+        // The ETag of the JSON body does not match the Smile one, which is returned
+        restActionMockMvc.perform(get("/api/actions/{id}", action.getId())
+                .accept(JacksonConfiguration.APPLICATION_SMILE_VALUE)
+                .header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(JacksonConfiguration.APPLICATION_SMILE_VALUE));
+        restActionMockMvc.perform(get("/api/actions/{id}", action.getId())
+                .accept(JacksonConfiguration.APPLICATION_SMILE_VALUE)
+                .header(HttpHeaders.IF_NONE_MATCH, smileETag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void getActionAfterUpdateIsNotStale() throws Exception {
+        // Initialize the database, and cache the action
+        actionRepository.save(action);
+        String eTag = restActionMockMvc.perform(get("/api/actions/{id}", action.getId()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Update the action
+        action.setComment(UPDATED_COMMENT);
+        restActionMockMvc.perform(put("/api/actions")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(action)))
+                .andExpect(status().isOk());
+
+        // The previous ETag no longer matches, and the updated action is returned
+        restActionMockMvc.perform(get("/api/actions/{id}", action.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.comment").value(UPDATED_COMMENT));
+
+        // Delete the action, which is then no longer found
+        restActionMockMvc.perform(delete("/api/actions/{id}", action.getId()))
+            .andExpect(status().isOk());
+        restActionMockMvc.perform(get("/api/actions/{id}", action.getId()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void getUserActionsPageByPage() throws Exception {
+        // Initialize the database with three actions of the user, two of them starting at the same time
+        action.setStart(UPDATED_START);
+        actionRepository.save(action);
+        Action sameStartAction = new Action();
+        sameStartAction.setUserId(DEFAULT_USER_ID);
+        sameStartAction.setStart(UPDATED_START);
+        actionRepository.save(sameStartAction);
+        Action oldestAction = new Action();
+        oldestAction.setUserId(DEFAULT_USER_ID);
+        oldestAction.setStart(DEFAULT_START);
+        actionRepository.save(oldestAction);
+        Action otherUserAction = new Action();
+        otherUserAction.setUserId(UPDATED_USER_ID);
+        otherUserAction.setStart(UPDATED_START);
+        actionRepository.save(otherUserAction);
+        // Load the index of the actions of each user, which the repository writes around
+        userActionIndexService.load();
+
+        // Get the first page, most recent first and by descending id on ties
+        MvcResult firstPage = restActionMockMvc.perform(get("/api/users/{userId}/actions?size=2", DEFAULT_USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(sameStartAction.getId(), action.getId())))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+                .andReturn();
+
+        // Get the next page, after the token of the first one
+        String nextToken = firstPage.getResponse().getHeader("X-Next-Token");
+        restActionMockMvc.perform(get("/api/users/{userId}/actions?size=2&after={after}", DEFAULT_USER_ID, nextToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(oldestAction.getId())))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    public void getUserActionsAfterChanges() throws Exception {
+        userActionIndexService.load();
+        assertThat(userActionIndexService.isReady()).isTrue();
+
+        // Create three actions of the user, then move the oldest one ahead and delete the newest one
+        Action oldestAction = createAction(DEFAULT_USER_ID, "2016-07-04T08:00:00Z");
+        Action middleAction = createAction(DEFAULT_USER_ID, "2016-07-05T08:00:00Z");
+        Action newestAction = createAction(DEFAULT_USER_ID, "2016-07-06T08:00:00Z");
+        createAction(UPDATED_USER_ID, "2016-07-07T08:00:00Z");
+        oldestAction.setStart(ZonedDateTime.parse("2016-07-05T12:00:00Z"));
+        actionService.save(oldestAction);
+        actionService.delete(newestAction.getId());
+
+        restActionMockMvc.perform(get("/api/users/{userId}/actions", DEFAULT_USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(oldestAction.getId(), middleAction.getId())));
+    }
+
+    @Test
+    public void getUserActionSummaryPerMonth() throws Exception {
+        // Initialize the database with two runs in July, a walk in July and a run in August
+        saveAction(DEFAULT_USER_ID, ActionType.Running, "2016-07-04T08:00:00Z", 30, 5D);
+        saveAction(DEFAULT_USER_ID, ActionType.Running, "2016-07-20T08:00:00Z", 60, 10D);
+        saveAction(DEFAULT_USER_ID, ActionType.Walking, "2016-07-21T08:00:00Z", 45, 3D);
+        saveAction(DEFAULT_USER_ID, ActionType.Running, "2016-08-01T08:00:00Z", 20, 4D);
+        saveAction(UPDATED_USER_ID, ActionType.Running, "2016-07-04T08:00:00Z", 10, 1D);
+
+        // Sum up the actions of July
+        restActionMockMvc.perform(get("/api/users/{userId}/actions/summary?period=MONTH&fromDate=2016-07-01&toDate=2016-07-31", DEFAULT_USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$.[0].year").value(2016))
+                .andExpect(jsonPath("$.[0].period").value(7))
+                .andExpect(jsonPath("$.[0].type").value(ActionType.Running.toString()))
+                .andExpect(jsonPath("$.[0].count").value(2))
+                .andExpect(jsonPath("$.[0].duration").value(90))
+                .andExpect(jsonPath("$.[0].distance").value(15D))
+                .andExpect(jsonPath("$.[1].type").value(ActionType.Walking.toString()))
+                .andExpect(jsonPath("$.[1].count").value(1));
+    }
+
+    private Action saveAction(Long userId, ActionType type, String start, Integer duration, Double distance) {
+        Action action = new Action();
+        action.setUserId(userId);
+        action.setType(type);
+        action.setStart(ZonedDateTime.parse(start));
+        action.setDuration(duration);
+        action.setDistance(distance);
+        return actionRepository.save(action);
+    }
+
+    private Action createAction(Long userId, String start) {
+        Action action = new Action();
+        action.setUserId(userId);
+        action.setStart(ZonedDateTime.parse(start));
+        return actionService.save(action);
+    }
+
     @Test
     public void getNonExistingAction() throws Exception {
         // Get the action
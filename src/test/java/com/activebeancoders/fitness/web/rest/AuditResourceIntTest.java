@@ -11,19 +11,24 @@ import org.junit.runner.RunWith;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import javax.inject.Inject;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -48,6 +53,9 @@ public class AuditResourceIntTest {
     @Inject
     private AuditEventConverter auditEventConverter;
 
+    @Inject
+    private MongoTemplate mongoTemplate;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -62,7 +70,7 @@ public class AuditResourceIntTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         AuditEventService auditEventService =
-                new AuditEventService(auditEventRepository, auditEventConverter);
+                new AuditEventService(auditEventRepository, auditEventConverter, mongoTemplate);
         AuditResource auditResource = new AuditResource(auditEventService);
         this.restAuditMockMvc = MockMvcBuilders.standaloneSetup(auditResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
@@ -134,6 +142,63 @@ public class AuditResourceIntTest {
             .andExpect(header().string("X-Total-Count", "0"));
     }
 
+    @Test
+    public void exportAuditsAsNdjson() throws Exception {
+        // Initialize the database
+        auditEvent.setData(Collections.singletonMap("remoteAddress", "127.0.0.1"));
+        auditEventRepository.save(auditEvent);
+        PersistentAuditEvent otherEvent = new PersistentAuditEvent();
+        otherEvent.setAuditEventType(SAMPLE_TYPE);
+        otherEvent.setPrincipal("OTHER_PRINCIPAL");
+        otherEvent.setAuditEventDate(SAMPLE_TIMESTAMP.plusDays(3));
+        auditEventRepository.save(otherEvent);
+
+        String date = SAMPLE_TIMESTAMP.format(FORMATTER);
+
+        // Export the audits of the day of the sample audit
+        MvcResult mvcResult = restAuditMockMvc.perform(get("/management/jhipster/audits/export?fromDate=" + date +
+            "&toDate=" + date))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String[] lines = restAuditMockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(ActionResource.APPLICATION_NDJSON_VALUE))
+            .andExpect(header().string("Content-Disposition",
+                "attachment; filename=\"audits-" + date + "-" + date + ".ndjson\""))
+            .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(1);
+        assertThat(lines[0]).contains("\"id\":\"" + auditEvent.getId() + "\"")
+            .contains("\"principal\":\"" + SAMPLE_PRINCIPAL + "\"")
+            .contains("\"type\":\"" + SAMPLE_TYPE + "\"")
+            .contains("\"data\":{\"remoteAddress\":\"127.0.0.1\"}");
+    }
+
+    @Test
+    public void exportAuditsAsCsv() throws Exception {
+        // Initialize the database
+        auditEvent.setPrincipal("SAMPLE, \"PRINCIPAL\"");
+        auditEventRepository.save(auditEvent);
+
+        String fromDate = SAMPLE_TIMESTAMP.minusDays(1).format(FORMATTER);
+        String toDate = SAMPLE_TIMESTAMP.plusDays(1).format(FORMATTER);
+
+        // Export the audits as CSV
+        MvcResult mvcResult = restAuditMockMvc.perform(get("/management/jhipster/audits/export?fromDate=" +
+            fromDate + "&toDate=" + toDate + "&format=CSV"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String[] lines = restAuditMockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv"))
+            .andReturn().getResponse().getContentAsString().split("\r\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo("id,timestamp,principal,type,data");
+        assertThat(lines[1]).startsWith(auditEvent.getId() + ",")
+            .endsWith(",\"SAMPLE, \"\"PRINCIPAL\"\"\"," + SAMPLE_TYPE + ",{}");
+    }
+
     @Test
     public void getNonExistingAudit() throws Exception {
         // Get the audit
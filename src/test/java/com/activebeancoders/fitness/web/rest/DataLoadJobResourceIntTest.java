@@ -0,0 +1,168 @@
+package com.activebeancoders.fitness.web.rest;
+
+import com.activebeancoders.fitness.ActiveBeanFitnessApp;
+import com.activebeancoders.fitness.domain.DataLoadJob;
+import com.activebeancoders.fitness.domain.enumeration.DataLoadJobStatus;
+import com.activebeancoders.fitness.repository.ActionRepository;
+import com.activebeancoders.fitness.repository.DataLoadJobRepository;
+import com.activebeancoders.fitness.service.DataLoadJobService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the DataLoadJobResource REST controller.
+ *
+ * @see DataLoadJobResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = ActiveBeanFitnessApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class DataLoadJobResourceIntTest {
+
+    private static final long DEFAULT_COUNT = 5000L;
+    private static final long DEFAULT_SEED = 42L;
+
+    @Inject
+    private DataLoadJobService dataLoadJobService;
+
+    @Inject
+    private DataLoadJobRepository dataLoadJobRepository;
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private MockMvc restDataLoadJobMockMvc;
+
+    private DataLoadJob dataLoadJob;
+
+    @PostConstruct
+    public void setup() {
+        DataLoadJobResource dataLoadJobResource = new DataLoadJobResource();
+        ReflectionTestUtils.setField(dataLoadJobResource, "dataLoadJobService", dataLoadJobService);
+        this.restDataLoadJobMockMvc = MockMvcBuilders.standaloneSetup(dataLoadJobResource)
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    @Before
+    public void initTest() {
+        dataLoadJobRepository.deleteAll();
+        actionRepository.deleteAll();
+        dataLoadJob = new DataLoadJob();
+        dataLoadJob.setCount(DEFAULT_COUNT);
+        dataLoadJob.setSeed(DEFAULT_SEED);
+    }
+
+    @After
+    public void cleanup() {
+        dataLoadJobRepository.deleteAll();
+        actionRepository.deleteAll();
+    }
+
+    @Test
+    public void createDataLoadJob() throws Exception {
+        restDataLoadJobMockMvc.perform(post("/api/data-load-jobs")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(dataLoadJob)))
+                .andExpect(status().isCreated());
+
+        List<DataLoadJob> dataLoadJobs = dataLoadJobRepository.findAll();
+        assertThat(dataLoadJobs).hasSize(1);
+        DataLoadJob testDataLoadJob = awaitEnd(dataLoadJobs.get(0).getId());
+        assertThat(testDataLoadJob.getStatus()).isEqualTo(DataLoadJobStatus.COMPLETED);
+        assertThat(testDataLoadJob.getSeed()).isEqualTo(DEFAULT_SEED);
+        assertThat(testDataLoadJob.getLoadedCount()).isEqualTo(DEFAULT_COUNT);
+        assertThat(actionRepository.count()).isEqualTo(DEFAULT_COUNT);
+    }
+
+    @Test
+    public void checkCountIsRequired() throws Exception {
+        dataLoadJob.setCount(0);
+
+        restDataLoadJobMockMvc.perform(post("/api/data-load-jobs")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(dataLoadJob)))
+                .andExpect(status().isBadRequest());
+
+        assertThat(dataLoadJobRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    public void resumeReplaysFromCheckpointsWithoutDuplicates() throws Exception {
+        DataLoadJob job = dataLoadJobService.run(dataLoadJobService.create(DEFAULT_COUNT, DEFAULT_SEED)).get();
+        assertThat(job.getStatus()).isEqualTo(DataLoadJobStatus.COMPLETED);
+
+        // Pretend that the job stopped before its first checkpoint, after all its records were written
+        List<Long> checkpoints = new ArrayList<>();
+        for (int partition = 0; partition < job.getPartitionCount(); partition++) {
+            checkpoints.add(job.getPartitionStart(partition));
+        }
+        job.setCheckpoints(checkpoints);
+        job.setStatus(DataLoadJobStatus.PAUSED);
+        dataLoadJobRepository.save(job);
+
+        restDataLoadJobMockMvc.perform(put("/api/data-load-jobs/{id}/resume", job.getId()))
+            .andExpect(status().isOk());
+
+        DataLoadJob testDataLoadJob = awaitEnd(job.getId());
+        assertThat(testDataLoadJob.getStatus()).isEqualTo(DataLoadJobStatus.COMPLETED);
+        assertThat(testDataLoadJob.getLoadedCount()).isEqualTo(DEFAULT_COUNT);
+        assertThat(actionRepository.count()).isEqualTo(DEFAULT_COUNT);
+    }
+
+    @Test
+    public void pauseJobThatIsNotRunning() throws Exception {
+        DataLoadJob job = dataLoadJobService.create(DEFAULT_COUNT, DEFAULT_SEED);
+        job.setStatus(DataLoadJobStatus.PAUSED);
+        dataLoadJobRepository.save(job);
+
+        restDataLoadJobMockMvc.perform(put("/api/data-load-jobs/{id}/pause", job.getId()))
+            .andExpect(status().isBadRequest());
+        restDataLoadJobMockMvc.perform(put("/api/data-load-jobs/{id}/cancel", job.getId()))
+            .andExpect(status().isOk());
+        restDataLoadJobMockMvc.perform(put("/api/data-load-jobs/{id}/resume", job.getId()))
+            .andExpect(status().isBadRequest());
+
+        assertThat(dataLoadJobRepository.findOne(job.getId()).getStatus()).isEqualTo(DataLoadJobStatus.CANCELLED);
+    }
+
+    @Test
+    public void getNonExistingDataLoadJob() throws Exception {
+        restDataLoadJobMockMvc.perform(get("/api/data-load-jobs/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    private DataLoadJob awaitEnd(String id) throws InterruptedException {
+        for (int attempt = 0; attempt < 600; attempt++) {
+            DataLoadJob job = dataLoadJobRepository.findOne(id);
+            if (job.getStatus() != DataLoadJobStatus.RUNNING) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Data load job " + id + " did not end in time");
+    }
+}
@@ -0,0 +1,112 @@
+package com.activebeancoders.fitness.web.rest;
+
+import com.activebeancoders.fitness.ActiveBeanFitnessApp;
+import com.activebeancoders.fitness.config.JHipsterProperties;
+import com.activebeancoders.fitness.config.audit.AuditEventRetention;
+import com.activebeancoders.fitness.domain.PersistentAuditEvent;
+import com.mongodb.DBObject;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.inject.Inject;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the IndexUsageResource REST controller, and for the index migrations it reports on.
+ *
+ * @see IndexUsageResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = ActiveBeanFitnessApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class IndexUsageResourceIntTest {
+
+    @Inject
+    private MongoTemplate mongoTemplate;
+
+    private MockMvc restIndexUsageMockMvc;
+
+    @Before
+    public void setup() {
+        IndexUsageResource indexUsageResource = new IndexUsageResource();
+        ReflectionTestUtils.setField(indexUsageResource, "mongoTemplate", mongoTemplate);
+        this.restIndexUsageMockMvc = MockMvcBuilders.standaloneSetup(indexUsageResource).build();
+    }
+
+    @Test
+    public void actionIndexesAreCreated() {
+        List<String> indexNames = mongoTemplate.getCollection("action").getIndexInfo().stream()
+            .map(index -> (String) index.get("name"))
+            .collect(Collectors.toList());
+
+        assertThat(indexNames).contains("user_id_1_start_-1__id_-1", "type_1_start_-1", "start_-1");
+    }
+
+    @Test
+    public void auditEventIndexesAreCreated() {
+        assertThat(auditEventIndexes()).extracting(index -> index.get("name"))
+            .contains("principal_1_auditEventDate_-1", "auditEventDate_1");
+    }
+
+    @Test
+    public void auditEventRetentionFollowsConfiguration() {
+        try {
+            ensureAuditEventRetention(30);
+            assertThat(((Number) auditEventDateIndex().get("expireAfterSeconds")).longValue())
+                .isEqualTo(TimeUnit.DAYS.toSeconds(30));
+
+            ensureAuditEventRetention(60);
+            assertThat(((Number) auditEventDateIndex().get("expireAfterSeconds")).longValue())
+                .isEqualTo(TimeUnit.DAYS.toSeconds(60));
+        } finally {
+            ensureAuditEventRetention(0);
+        }
+        assertThat(auditEventDateIndex().containsField("expireAfterSeconds")).isFalse();
+    }
+
+    @Test
+    public void getIndexUsage() throws Exception {
+        restIndexUsageMockMvc.perform(get("/management/jhipster/index-usage?collection=action"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$").isArray());
+    }
+
+    private void ensureAuditEventRetention(int retentionDays) {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getAudit().setRetentionDays(retentionDays);
+        AuditEventRetention auditEventRetention = new AuditEventRetention();
+        ReflectionTestUtils.setField(auditEventRetention, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(auditEventRetention, "jHipsterProperties", jHipsterProperties);
+        auditEventRetention.ensureIndex();
+    }
+
+    private List<DBObject> auditEventIndexes() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(PersistentAuditEvent.class)).getIndexInfo();
+    }
+
+    private DBObject auditEventDateIndex() {
+        return auditEventIndexes().stream()
+            .filter(index -> "auditEventDate_1".equals(index.get("name")))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No index on the date of audit events"));
+    }
+}
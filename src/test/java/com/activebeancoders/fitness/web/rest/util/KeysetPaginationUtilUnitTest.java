@@ -0,0 +1,52 @@
+package com.activebeancoders.fitness.web.rest.util;
+
+import com.activebeancoders.fitness.web.rest.errors.CustomParameterizedException;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the KeysetPaginationUtil utility class.
+ *
+ * @see KeysetPaginationUtil
+ */
+public class KeysetPaginationUtilUnitTest {
+
+    private static final ZonedDateTime TIMESTAMP = ZonedDateTime.ofInstant(Instant.ofEpochMilli(1469000000123L), ZoneOffset.UTC);
+
+    private static final String ID = "578f6fb4e4b0c9d4d1a5c7a1";
+
+    @Test
+    public void testTokenRoundTrip() {
+        String token = KeysetPaginationUtil.encodeToken(TIMESTAMP, ID);
+        assertThat(token).doesNotContain(ID);
+        assertThat(KeysetPaginationUtil.decodeTimestamp(token)).isEqualTo(TIMESTAMP);
+        assertThat(KeysetPaginationUtil.decodeId(token)).isEqualTo(ID);
+    }
+
+    @Test
+    public void testTokenWithoutTimestamp() {
+        String token = KeysetPaginationUtil.encodeToken(null, ID);
+        assertThat(KeysetPaginationUtil.decodeTimestamp(token)).isNull();
+        assertThat(KeysetPaginationUtil.decodeId(token)).isEqualTo(ID);
+    }
+
+    @Test(expected = CustomParameterizedException.class)
+    public void testMalformedToken() {
+        KeysetPaginationUtil.decodeId("not a token!");
+    }
+
+    @Test(expected = CustomParameterizedException.class)
+    public void testTokenWithoutId() {
+        KeysetPaginationUtil.decodeTimestamp(KeysetPaginationUtil.encodeToken(TIMESTAMP, ""));
+    }
+
+    @Test
+    public void testNoNextLinkOnLastPage() {
+        assertThat(KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(null, 20, "/api/users/1/actions")).isEmpty();
+    }
+}